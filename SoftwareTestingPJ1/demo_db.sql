@@ -15,8 +15,34 @@ Date: 2020-01-02 22:39:17
 
 SET FOREIGN_KEY_CHECKS=0;
 
+-- ----------------------------
+-- 已有数据库升级：游标分页的时间列改为非空，先把历史空值回填为最早时间（排在最后），再修改列定义
+-- UPDATE `message` SET `time`='1970-01-01 00:00:00' WHERE `time` IS NULL;
+-- ALTER TABLE `message` MODIFY `time` datetime NOT NULL;
+-- UPDATE `news` SET `time`='1970-01-01 00:00:00' WHERE `time` IS NULL;
+-- ALTER TABLE `news` MODIFY `time` datetime(6) NOT NULL;
+-- UPDATE `order` SET `order_time`='1970-01-01 00:00:00' WHERE `order_time` IS NULL;
+-- ALTER TABLE `order` MODIFY `order_time` datetime NOT NULL;
+-- UPDATE `order_archive` SET `order_time`='1970-01-01 00:00:00' WHERE `order_time` IS NULL;
+-- ALTER TABLE `order_archive` MODIFY `order_time` datetime NOT NULL;
+-- ----------------------------
+
+-- ----------------------------
+-- Table structure for idempotency_record
+-- 多节点部署时记录带幂等键的请求结果，result为空表示请求处理中
+-- ----------------------------
+DROP TABLE IF EXISTS `idempotency_record`;
+CREATE TABLE `idempotency_record` (
+  `idem_key` varchar(100) NOT NULL,
+  `result` varchar(255) DEFAULT NULL,
+  `created_at` datetime NOT NULL,
+  PRIMARY KEY (`idem_key`),
+  KEY `idx_created_at` (`created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
 -- ----------------------------
 -- Table structure for message
+-- time参与按时间倒序的游标分页，必须非空
 -- ----------------------------
 DROP TABLE IF EXISTS `message`;
 CREATE TABLE `message` (
@@ -24,8 +50,9 @@ CREATE TABLE `message` (
   `state` int(11) DEFAULT NULL,
   `userID` varchar(25) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL,
   `content` varchar(5000) DEFAULT NULL,
-  `time` datetime DEFAULT NULL,
-  PRIMARY KEY (`messageID`)
+  `time` datetime NOT NULL,
+  PRIMARY KEY (`messageID`),
+  KEY `state_time` (`state`,`time`,`messageID`)
 ) ENGINE=InnoDB AUTO_INCREMENT=25 DEFAULT CHARSET=utf8;
 
 -- ----------------------------
@@ -45,14 +72,16 @@ INSERT INTO `message` VALUES ('24', '2', 'yonghu', '场馆怎么预约', '2020-0
 
 -- ----------------------------
 -- Table structure for news
+-- time参与按时间倒序的游标分页，必须非空
 -- ----------------------------
 DROP TABLE IF EXISTS `news`;
 CREATE TABLE `news` (
   `newsID` int(11) NOT NULL AUTO_INCREMENT,
   `title` varchar(100) CHARACTER SET utf8 COLLATE utf8_general_ci DEFAULT NULL,
   `content` varchar(5000) DEFAULT NULL,
-  `time` datetime(6) DEFAULT NULL,
-  PRIMARY KEY (`newsID`)
+  `time` datetime(6) NOT NULL,
+  PRIMARY KEY (`newsID`),
+  KEY `time` (`time`,`newsID`)
 ) ENGINE=InnoDB AUTO_INCREMENT=16 DEFAULT CHARSET=utf8;
 
 -- ----------------------------
@@ -64,19 +93,22 @@ INSERT INTO `news` VALUES ('14', '关于暂停邯郸校区第14周体质测试
 
 -- ----------------------------
 -- Table structure for order
+-- order_time参与按时间倒序的游标分页，必须非空
 -- ----------------------------
 DROP TABLE IF EXISTS `order`;
 CREATE TABLE `order` (
   `orderID` int(11) NOT NULL AUTO_INCREMENT,
   `userID` varchar(25) NOT NULL,
   `venueID` int(11) NOT NULL,
-  `order_time` datetime DEFAULT NULL,
+  `order_time` datetime NOT NULL,
   `start_time` datetime DEFAULT NULL,
   `hours` int(2) DEFAULT NULL,
   `state` int(1) DEFAULT NULL,
   `total` int(5) DEFAULT NULL,
   PRIMARY KEY (`orderID`),
-  KEY `userID` (`userID`),
+  KEY `userID` (`userID`,`order_time`,`orderID`),
+  KEY `state_time` (`state`,`order_time`,`orderID`),
+  KEY `state_start` (`state`,`start_time`),
   KEY `gymID` (`venueID`)
 ) ENGINE=InnoDB AUTO_INCREMENT=31 DEFAULT CHARSET=utf8;
 
@@ -95,6 +127,84 @@ INSERT INTO `order` VALUES ('21', 'yonghuming', '16', '2020-01-02 17:52:21', '20
 INSERT INTO `order` VALUES ('29', 'yonghu', '16', '2020-01-02 18:16:08', '2020-01-24 11:00:00', '3', '2', '1500');
 INSERT INTO `order` VALUES ('30', 'yonghu', '17', '2020-01-02 18:16:21', '2020-01-25 11:00:00', '3', '2', '900');
 
+-- ----------------------------
+-- Table structure for order_archive
+-- order_time参与按时间倒序的游标分页，必须非空
+-- ----------------------------
+DROP TABLE IF EXISTS `order_archive`;
+CREATE TABLE `order_archive` (
+  `orderID` int(11) NOT NULL,
+  `userID` varchar(25) NOT NULL,
+  `venueID` int(11) NOT NULL,
+  `order_time` datetime NOT NULL,
+  `start_time` datetime DEFAULT NULL,
+  `hours` int(2) DEFAULT NULL,
+  `state` int(1) DEFAULT NULL,
+  `total` int(5) DEFAULT NULL,
+  PRIMARY KEY (`orderID`),
+  KEY `userID` (`userID`,`order_time`,`orderID`),
+  KEY `start_time` (`start_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------
+-- Table structure for order_series
+-- 每周固定时段的周期预订，weekday：1星期一 ... 7星期日
+-- ----------------------------
+DROP TABLE IF EXISTS `order_series`;
+CREATE TABLE `order_series` (
+  `seriesID` int(11) NOT NULL AUTO_INCREMENT,
+  `userID` varchar(25) NOT NULL,
+  `venueID` int(11) NOT NULL,
+  `weekday` int(1) NOT NULL,
+  `start_time` time NOT NULL,
+  `hours` int(11) NOT NULL,
+  `from_date` date NOT NULL,
+  `to_date` date NOT NULL,
+  `created_at` datetime NOT NULL,
+  PRIMARY KEY (`seriesID`),
+  KEY `userID` (`userID`,`created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------
+-- Table structure for order_series_item
+-- 周期预订生成的订单
+-- ----------------------------
+DROP TABLE IF EXISTS `order_series_item`;
+CREATE TABLE `order_series_item` (
+  `seriesID` int(11) NOT NULL,
+  `orderID` int(11) NOT NULL,
+  PRIMARY KEY (`orderID`),
+  KEY `seriesID` (`seriesID`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------
+-- Table structure for order_slot
+-- 每个订单按小时占用的时段，主键保证同一场馆同一时段只能被一个订单占用
+-- ----------------------------
+DROP TABLE IF EXISTS `order_slot`;
+CREATE TABLE `order_slot` (
+  `venueID` int(11) NOT NULL,
+  `slot_start` datetime NOT NULL,
+  `orderID` int(11) NOT NULL,
+  PRIMARY KEY (`venueID`,`slot_start`),
+  KEY `orderID` (`orderID`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------
+-- Records of order_slot
+-- 由未审核、已审核、已完成的订单生成，重叠的历史订单只保留先插入的时段
+-- ----------------------------
+INSERT IGNORE INTO `order_slot` (`venueID`, `slot_start`, `orderID`)
+SELECT o.`venueID`, DATE_FORMAT(o.`start_time`, '%Y-%m-%d %H:00:00') + INTERVAL n.n HOUR, o.`orderID`
+FROM `order` o
+JOIN (SELECT 0 n UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL SELECT 5
+      UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9 UNION ALL SELECT 10 UNION ALL SELECT 11
+      UNION ALL SELECT 12 UNION ALL SELECT 13 UNION ALL SELECT 14 UNION ALL SELECT 15 UNION ALL SELECT 16 UNION ALL SELECT 17
+      UNION ALL SELECT 18 UNION ALL SELECT 19 UNION ALL SELECT 20 UNION ALL SELECT 21 UNION ALL SELECT 22 UNION ALL SELECT 23) n
+  ON n.n < o.`hours`
+WHERE o.`state` IN (1, 2, 3)
+ORDER BY o.`orderID`;
+
 -- ----------------------------
 -- Table structure for user
 -- ----------------------------
@@ -122,6 +232,75 @@ INSERT INTO `user` VALUES ('20', 'test11', 'test', '', '', '0', '555', '');
 INSERT INTO `user` VALUES ('22', 'yonghuming', 'mimamima', '', '', '0', '5555', '');
 INSERT INTO `user` VALUES ('27', 'yonghu', 'mimamima', '', '', '0', '1234', '');
 
+-- ----------------------------
+-- Table structure for user_session
+-- 登录会话，demo.session.store为jdbc时使用，多个节点共用
+-- ----------------------------
+DROP TABLE IF EXISTS `user_session`;
+CREATE TABLE `user_session` (
+  `token` varchar(64) NOT NULL,
+  `id` int(10) NOT NULL,
+  `userID` varchar(255) NOT NULL,
+  `user_name` varchar(255) DEFAULT NULL,
+  `picture` varchar(255) DEFAULT NULL,
+  `isadmin` int(10) NOT NULL,
+  `expires_at` datetime NOT NULL,
+  PRIMARY KEY (`token`),
+  KEY `idx_expires_at` (`expires_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------
+-- Table structure for waitlist
+-- 时段已被预订时的候补，state：1候补中 2已转为订单 3已取消
+-- ----------------------------
+DROP TABLE IF EXISTS `waitlist`;
+CREATE TABLE `waitlist` (
+  `waitID` int(11) NOT NULL AUTO_INCREMENT,
+  `userID` varchar(25) NOT NULL,
+  `venueID` int(11) NOT NULL,
+  `start_time` datetime NOT NULL,
+  `hours` int(11) NOT NULL,
+  `state` int(11) NOT NULL,
+  `orderID` int(11) NOT NULL DEFAULT '0',
+  `created_at` datetime NOT NULL,
+  PRIMARY KEY (`waitID`),
+  KEY `venue_state_start` (`venueID`,`state`,`start_time`),
+  KEY `userID` (`userID`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------
+-- Table structure for venue_usage
+-- ----------------------------
+DROP TABLE IF EXISTS `venue_usage`;
+CREATE TABLE `venue_usage` (
+  `venueID` int(11) NOT NULL,
+  `usage_date` date NOT NULL,
+  `usage_hour` int(2) NOT NULL,
+  `booked_hours` int(11) NOT NULL DEFAULT '0',
+  `orders` int(11) NOT NULL DEFAULT '0',
+  `revenue` int(11) NOT NULL DEFAULT '0',
+  PRIMARY KEY (`venueID`,`usage_date`,`usage_hour`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------
+-- Records of venue_usage
+-- 由已审核、已完成的订单按小时汇总，金额按小时平摊，余数计入开始的小时
+-- ----------------------------
+INSERT INTO `venue_usage` (`venueID`, `usage_date`, `usage_hour`, `booked_hours`, `orders`, `revenue`)
+SELECT u.`venueID`, u.d, u.hr, SUM(u.bh), SUM(u.oc), SUM(u.rv)
+FROM (
+  SELECT o.`venueID`, DATE(o.`start_time` + INTERVAL n.n HOUR) d, HOUR(o.`start_time` + INTERVAL n.n HOUR) hr,
+         1 bh, IF(n.n = 0, 1, 0) oc, FLOOR(o.`total` / o.`hours`) + IF(n.n = 0, MOD(o.`total`, o.`hours`), 0) rv
+  FROM `order` o
+  JOIN (SELECT 0 n UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL SELECT 5
+        UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9 UNION ALL SELECT 10 UNION ALL SELECT 11
+        UNION ALL SELECT 12 UNION ALL SELECT 13 UNION ALL SELECT 14 UNION ALL SELECT 15 UNION ALL SELECT 16 UNION ALL SELECT 17
+        UNION ALL SELECT 18 UNION ALL SELECT 19 UNION ALL SELECT 20 UNION ALL SELECT 21 UNION ALL SELECT 22 UNION ALL SELECT 23) n
+    ON n.n < o.`hours`
+  WHERE o.`state` IN (2, 3)
+) u
+GROUP BY u.`venueID`, u.d, u.hr;
+
 -- ----------------------------
 -- Table structure for venue
 -- ----------------------------
@@ -3,9 +3,10 @@ package com.demo.controller;
 import com.demo.entity.Message;
 import com.demo.entity.News;
 import com.demo.entity.Venue;
+import com.demo.entity.vo.HomepageSnapshot;
 import com.demo.entity.vo.MessageVo;
+import com.demo.service.HomepageService;
 import com.demo.service.MessageService;
-import com.demo.service.MessageVoService;
 import com.demo.service.NewsService;
 import com.demo.service.VenueService;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,6 +30,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -44,6 +46,9 @@ public class IndexControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @MockBean
+    private HomepageService homepageService;
+
     @MockBean
     private NewsService newsService;
 
@@ -53,9 +58,6 @@ public class IndexControllerTest {
     @MockBean
     private MessageService messageService;
 
-    @MockBean
-    private MessageVoService messageVoService;
-
     private List<News> newsList;
     private List<Venue> venueList;
     private List<Message> messageList;
@@ -121,17 +123,8 @@ public class IndexControllerTest {
     @DisplayName("测试首页")
     public void testIndex() throws Exception {
         // 模拟服务层方法
-        Pageable venue_pageable = PageRequest.of(0, 5, Sort.by("venueID").ascending());
-        Pageable news_pageable = PageRequest.of(0, 5, Sort.by("time").descending());
-        Pageable message_pageable = PageRequest.of(0, 5, Sort.by("time").descending());
-
-        Page<Venue> venuePage = new PageImpl<>(venueList, venue_pageable, venueList.size());
-        Page<News> newsPage = new PageImpl<>(newsList, news_pageable, newsList.size());
-
-        when(venueService.findAll(any(Pageable.class))).thenReturn(venuePage);
-        when(newsService.findAll(any(Pageable.class))).thenReturn(newsPage);
-        when(messageService.findPassState(any(Pageable.class))).thenReturn(messagePage);
-        when(messageVoService.returnVo(messageList)).thenReturn(messageVoList);
+        when(homepageService.current())
+                .thenReturn(new HomepageSnapshot(venueList, newsList, messageVoList, System.currentTimeMillis()));
 
         System.out.println("[测试] IndexController.index - 基本功能");
         
@@ -144,11 +137,11 @@ public class IndexControllerTest {
                 .andExpect(model().attributeExists("message_list"))
                 .andReturn();
 
-        // 验证服务层方法被调用
-        verify(venueService, times(1)).findAll(any(Pageable.class));
-        verify(newsService, times(1)).findAll(any(Pageable.class));
-        verify(messageService, times(1)).findPassState(any(Pageable.class));
-        verify(messageVoService, times(1)).returnVo(messageList);
+        // 验证首页直接使用快照，不再查询场馆、新闻和留言
+        verify(homepageService, times(1)).current();
+        verify(venueService, never()).findAll(any(Pageable.class));
+        verify(newsService, never()).findAll(any(Pageable.class));
+        verify(messageService, never()).findPassState(any(Pageable.class));
         
         // 检查模型中的数据是否正确
         if (result.getModelAndView().getModel().get("news_list") == null) {
@@ -229,20 +222,9 @@ public class IndexControllerTest {
             largeMessageVoList.add(messageVo);
         }
         
-        // 创建分页数据
-        Pageable venue_pageable = PageRequest.of(0, 100, Sort.by("venueID").ascending());
-        Pageable news_pageable = PageRequest.of(0, 100, Sort.by("time").descending());
-        Pageable message_pageable = PageRequest.of(0, 100, Sort.by("time").descending());
-        
-        Page<Venue> largeVenuePage = new PageImpl<>(largeVenueList, venue_pageable, largeVenueList.size());
-        Page<News> largeNewsPage = new PageImpl<>(largeNewsList, news_pageable, largeNewsList.size());
-        Page<Message> largeMessagePage = new PageImpl<>(largeMessageList, message_pageable, largeMessageList.size());
-        
-        // 模拟服务层方法返回大量数据
-        when(venueService.findAll(any(Pageable.class))).thenReturn(largeVenuePage);
-        when(newsService.findAll(any(Pageable.class))).thenReturn(largeNewsPage);
-        when(messageService.findPassState(any(Pageable.class))).thenReturn(largeMessagePage);
-        when(messageVoService.returnVo(largeMessageList)).thenReturn(largeMessageVoList);
+        // 模拟首页快照包含大量数据
+        when(homepageService.current())
+                .thenReturn(new HomepageSnapshot(largeVenueList, largeNewsList, largeMessageVoList, System.currentTimeMillis()));
         
         // 记录开始时间
         long startTime = System.currentTimeMillis();
@@ -116,7 +116,7 @@ public class AdminMessageControllerTest {
     @DisplayName("测试获取消息列表 - 正常分页")
     public void testMessageList() throws Exception {
         // 模拟服务层方法
-        when(messageService.findWaitState(any(Pageable.class))).thenReturn(messagePage);
+        when(messageService.findWaitStateSlice(any(Pageable.class))).thenReturn(messagePage);
         when(messageVoService.returnVo(messageList)).thenReturn(messageVoList);
         
         // 执行请求并验证结果
@@ -126,7 +126,7 @@ public class AdminMessageControllerTest {
                 .andExpect(jsonPath("$", hasSize(5)));
         
         // 验证服务层方法被调用
-        verify(messageService, times(1)).findWaitState(any(Pageable.class));
+        verify(messageService, times(1)).findWaitStateSlice(any(Pageable.class));
         verify(messageVoService, times(1)).returnVo(messageList);
     }
     
@@ -134,7 +134,7 @@ public class AdminMessageControllerTest {
     @DisplayName("测试获取消息列表 - 超出范围的页码")
     public void testMessageListWithInvalidPage() throws Exception {
         // 模拟空列表返回
-        when(messageService.findWaitState(any(Pageable.class))).thenReturn(new PageImpl<>(new ArrayList<>()));
+        when(messageService.findWaitStateSlice(any(Pageable.class))).thenReturn(new PageImpl<>(new ArrayList<>()));
         when(messageVoService.returnVo(any())).thenReturn(new ArrayList<>());
         
         // 执行请求并验证结果
@@ -283,7 +283,7 @@ public class AdminMessageControllerTest {
         System.out.println("[测试] AdminMessageController.messageList - 空消息列表处理");
         
         // 模拟空数据返回
-        when(messageService.findWaitState(any(Pageable.class))).thenReturn(new PageImpl<>(new ArrayList<>()));
+        when(messageService.findWaitStateSlice(any(Pageable.class))).thenReturn(new PageImpl<>(new ArrayList<>()));
         when(messageVoService.returnVo(any())).thenReturn(new ArrayList<>());
         
         // 执行请求并验证结果
@@ -172,7 +172,7 @@ public class AdminNewsControllerTest {
         System.out.println("[测试] AdminNewsController.newsList - 获取新闻列表");
         
         // 模拟服务层方法
-        when(newsService.findAll(any(Pageable.class))).thenReturn(newsPage);
+        when(newsService.findAllSlice(any(Pageable.class))).thenReturn(newsPage);
 
         // 执行请求并验证结果
         MvcResult result = mockMvc.perform(get("/newsList.do")
@@ -182,7 +182,7 @@ public class AdminNewsControllerTest {
                 .andReturn();
 
         // 验证服务层方法被调用
-        verify(newsService, times(1)).findAll(any(Pageable.class));
+        verify(newsService, times(1)).findAllSlice(any(Pageable.class));
         
         // 检查返回的数据数量是否正确
         String responseContent = result.getResponse().getContentAsString();
@@ -18,15 +18,20 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.util.NestedServletException;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -95,28 +100,47 @@ public class AdminOrderControllerTest {
     @DisplayName("测试获取预约管理页面")
     public void testReservationManage() throws Exception {
         // 模拟服务层方法
-        when(orderService.findAuditOrder()).thenReturn(orderList);
-        when(orderVoService.returnVo(orderList)).thenReturn(orderVoList);
         when(orderService.findNoAuditOrder(any(Pageable.class))).thenReturn(orderPage);
 
-        // 执行请求并验证结果
+        // 执行请求并验证结果，已审核订单改由表格分页加载
         mockMvc.perform(get("/reservation_manage"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("admin/reservation_manage"))
-                .andExpect(model().attributeExists("order_list"))
+                .andExpect(model().attributeDoesNotExist("order_list"))
                 .andExpect(model().attributeExists("total"));
 
         // 验证服务层方法被调用
-        verify(orderService, times(1)).findAuditOrder();
-        verify(orderVoService, times(1)).returnVo(orderList);
         verify(orderService, times(1)).findNoAuditOrder(any(Pageable.class));
     }
 
+    @Test
+    @DisplayName("测试订单统计表格服务端分页")
+    public void testGetAuditOrder() throws Exception {
+        // 模拟服务层方法
+        Page<Order> auditPage = new PageImpl<>(orderList, PageRequest.of(2, 10), 35);
+        when(orderService.findAuditOrder(any(Pageable.class))).thenReturn(auditPage);
+        when(orderVoService.returnVo(orderList)).thenReturn(orderVoList);
+
+        // 执行请求并验证结果
+        mockMvc.perform(get("/admin/getAuditOrderList.do")
+                        .param("limit", "10")
+                        .param("offset", "20")
+                        .param("sort", "total")
+                        .param("order", "asc"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.total").value(35))
+                .andExpect(jsonPath("$.rows", hasSize(10)));
+
+        // 验证分页参数换算为页码
+        verify(orderService, times(1)).findAuditOrder(PageRequest.of(2, 10, Sort.by(Sort.Direction.ASC, "total")));
+    }
+
     @Test
     @DisplayName("测试获取未审核订单列表")
     public void testGetNoAuditOrder() throws Exception {
         // 模拟服务层方法
-        when(orderService.findNoAuditOrder(any(Pageable.class))).thenReturn(orderPage);
+        when(orderService.findNoAuditOrderSlice(any(Pageable.class))).thenReturn(orderPage);
         when(orderVoService.returnVo(orderList)).thenReturn(orderVoList);
 
         // 执行请求并验证结果
@@ -125,7 +149,7 @@ public class AdminOrderControllerTest {
                 .andExpect(status().isOk());
 
         // 验证服务层方法被调用
-        verify(orderService, times(1)).findNoAuditOrder(any(Pageable.class));
+        verify(orderService, times(1)).findNoAuditOrderSlice(any(Pageable.class));
         verify(orderVoService, times(1)).returnVo(orderList);
     }
 
@@ -162,4 +186,24 @@ public class AdminOrderControllerTest {
         // 验证服务层方法被调用
         verify(orderService, times(1)).rejectOrder(1);
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("测试批量审核订单 - 订单数超过上限时拒绝")
+    public void testBatchOrdersTooMany() throws Exception {
+        String[] orderIDs = new String[OrderService.MAX_BATCH_ORDERS + 1];
+        for (int i = 0; i < orderIDs.length; i++) {
+            orderIDs[i] = String.valueOf(i + 1);
+        }
+
+        for (String url : new String[]{"/passOrders.do", "/rejectOrders.do"}) {
+            NestedServletException e = assertThrows(NestedServletException.class, () -> mockMvc.perform(post(url)
+                    .param("orderIDs", orderIDs)
+                    .contentType(MediaType.APPLICATION_FORM_URLENCODED)));
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+
+        // 验证服务层方法未被调用
+        verify(orderService, never()).confirmOrders(anyList());
+        verify(orderService, never()).rejectOrders(anyList());
+    }
+}
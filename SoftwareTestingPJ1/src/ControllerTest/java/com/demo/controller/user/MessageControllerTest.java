@@ -1,11 +1,14 @@
 package com.demo.controller.user;
 
+import com.demo.config.SessionFilter;
 import com.demo.entity.Message;
 import com.demo.entity.User;
 import com.demo.entity.vo.MessageVo;
+import com.demo.entity.vo.SessionPrincipal;
 import com.demo.exception.LoginException;
 import com.demo.service.MessageService;
 import com.demo.service.MessageVoService;
+import com.demo.service.SessionStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -20,11 +23,11 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
-import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 
+import javax.servlet.http.Cookie;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -51,6 +54,9 @@ public class MessageControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private SessionStore sessionStore;
+
     @MockBean
     private MessageService messageService;
 
@@ -60,7 +66,7 @@ public class MessageControllerTest {
     private List<Message> messageList;
     private List<MessageVo> messageVoList;
     private Page<Message> messagePage;
-    private MockHttpSession session;
+    private Cookie loginCookie;
     private User testUser;
 
     @BeforeEach
@@ -104,8 +110,7 @@ public class MessageControllerTest {
         testUser.setPhone("12345678901");
         testUser.setIsadmin(0);
         
-        session = new MockHttpSession();
-        session.setAttribute("user", testUser);
+        loginCookie = new Cookie(SessionFilter.COOKIE_NAME, sessionStore.create(SessionPrincipal.of(testUser)));
         
         System.out.println("[INFO] 初始化MessageControllerTest测试环境");
     }
@@ -121,7 +126,7 @@ public class MessageControllerTest {
         when(messageService.findByUser(anyString(), any(Pageable.class))).thenReturn(messagePage);
         
         // 执行请求并验证结果
-        mockMvc.perform(get("/message_list").session(session))
+        mockMvc.perform(get("/message_list").cookie(loginCookie))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().isOk())
                 .andExpect(view().name("message_list"))
@@ -172,7 +177,7 @@ public class MessageControllerTest {
         System.out.println("[测试] MessageController.message_list - 获取已通过审核的消息列表");
         
         // 模拟服务层方法
-        when(messageService.findPassState(any(Pageable.class))).thenReturn(messagePage);
+        when(messageService.findPassStateSlice(any(Pageable.class))).thenReturn(messagePage);
         when(messageVoService.returnVo(messageList)).thenReturn(messageVoList);
         
         // 执行请求并验证结果
@@ -183,7 +188,7 @@ public class MessageControllerTest {
                 .andExpect(jsonPath("$", hasSize(5)));
         
         // 验证服务层方法被调用
-        verify(messageService, times(1)).findPassState(any(Pageable.class));
+        verify(messageService, times(1)).findPassStateSlice(any(Pageable.class));
         verify(messageVoService, times(1)).returnVo(messageList);
         
         System.out.println("[通过] 系统可以正确返回已通过审核的消息列表");
@@ -195,19 +200,19 @@ public class MessageControllerTest {
         System.out.println("[测试] MessageController.user_message_list - 用户已登录场景");
         
         // 模拟服务层方法
-        when(messageService.findByUser(anyString(), any(Pageable.class))).thenReturn(messagePage);
+        when(messageService.findByUserSlice(anyString(), any(Pageable.class))).thenReturn(messagePage);
         when(messageVoService.returnVo(messageList)).thenReturn(messageVoList);
         
         // 执行请求并验证结果
         mockMvc.perform(get("/message/findUserList")
                 .param("page", "1")
-                .session(session))
+                .cookie(loginCookie))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(5)));
         
         // 验证服务层方法被调用
-        verify(messageService, times(1)).findByUser(eq("user1"), any(Pageable.class));
+        verify(messageService, times(1)).findByUserSlice(eq("user1"), any(Pageable.class));
         verify(messageVoService, times(1)).returnVo(messageList);
         
         System.out.println("[通过] 已登录用户可以正常查看自己的留言列表");
@@ -239,7 +244,7 @@ public class MessageControllerTest {
         }
         
         // 验证服务方法未被调用
-        verify(messageService, times(0)).findByUser(anyString(), any(Pageable.class));
+        verify(messageService, times(0)).findByUserSlice(anyString(), any(Pageable.class));
         verify(messageVoService, times(0)).returnVo(any());
     }
 
@@ -255,7 +260,7 @@ public class MessageControllerTest {
         mockMvc.perform(post("/sendMessage")
                 .param("userID", "user1")
                 .param("content", "测试发送消息内容")
-                .session(session)
+                .cookie(loginCookie)
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().is3xxRedirection())
@@ -295,7 +300,7 @@ public class MessageControllerTest {
         mockMvc.perform(post("/modifyMessage.do")
                 .param("messageID", "1")
                 .param("content", "修改后的消息内容")
-                .session(session)
+                .cookie(loginCookie)
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().isOk())
@@ -324,7 +329,7 @@ public class MessageControllerTest {
         // 执行请求并验证结果
         mockMvc.perform(post("/delMessage.do")
                 .param("messageID", "1")
-                .session(session)
+                .cookie(loginCookie)
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().isOk())
@@ -357,7 +362,7 @@ public class MessageControllerTest {
             MvcResult result = mockMvc.perform(post("/modifyMessage.do")
                     .param("messageID", "999")
                     .param("content", "尝试修改其他用户的消息")
-                    .session(session)
+                    .cookie(loginCookie)
                     .contentType(MediaType.APPLICATION_FORM_URLENCODED))
                     .andDo(MockMvcResultHandlers.print())
                     .andReturn();
@@ -394,7 +399,7 @@ public class MessageControllerTest {
         mockMvc.perform(post("/sendMessage")
                 .param("userID", "user1")
                 .param("content", xssPayload)
-                .session(session)
+                .cookie(loginCookie)
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().is3xxRedirection())
@@ -428,7 +433,7 @@ public class MessageControllerTest {
         mockMvc.perform(post("/sendMessage")
                 .param("userID", "user1' OR 1=1; --")
                 .param("content", sqlInjectionPayload)
-                .session(session)
+                .cookie(loginCookie)
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().is3xxRedirection());
@@ -458,7 +463,7 @@ public class MessageControllerTest {
         mockMvc.perform(post("/sendMessage")
                 .param("userID", "user1")
                 .param("content", "")
-                .session(session)
+                .cookie(loginCookie)
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().is3xxRedirection());
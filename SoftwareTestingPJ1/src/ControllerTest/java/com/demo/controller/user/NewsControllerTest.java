@@ -109,7 +109,7 @@ public class NewsControllerTest {
     @DisplayName("测试获取新闻列表 - 正常分页")
     public void testGetNewsList() throws Exception {
         // 模拟服务层方法
-        when(newsService.findAll(any(Pageable.class))).thenReturn(newsPage);
+        when(newsService.findAllSlice(any(Pageable.class))).thenReturn(newsPage);
 
         // 执行请求并验证结果
         mockMvc.perform(get("/news/getNewsList")
@@ -118,7 +118,7 @@ public class NewsControllerTest {
                 .andExpect(jsonPath("$.content", hasSize(5)));
 
         // 验证服务层方法被调用
-        verify(newsService, times(1)).findAll(any(Pageable.class));
+        verify(newsService, times(1)).findAllSlice(any(Pageable.class));
     }
 
     @Test
@@ -129,7 +129,7 @@ public class NewsControllerTest {
         Page<News> emptyPage = new PageImpl<>(new ArrayList<>(), pageable, 0);
 
         // 模拟服务层方法
-        when(newsService.findAll(any(Pageable.class))).thenReturn(emptyPage);
+        when(newsService.findAllSlice(any(Pageable.class))).thenReturn(emptyPage);
 
         // 执行请求并验证结果
         mockMvc.perform(get("/news/getNewsList")
@@ -138,6 +138,6 @@ public class NewsControllerTest {
                 .andExpect(jsonPath("$.content", hasSize(0)));
 
         // 验证服务层方法被调用
-        verify(newsService, times(1)).findAll(any(Pageable.class));
+        verify(newsService, times(1)).findAllSlice(any(Pageable.class));
     }
 } 
\ No newline at end of file
@@ -1,14 +1,17 @@
 package com.demo.controller.user;
 
+import com.demo.config.SessionFilter;
 import com.demo.entity.Order;
 import com.demo.entity.User;
 import com.demo.entity.Venue;
 import com.demo.entity.vo.OrderVo;
+import com.demo.entity.vo.SessionPrincipal;
 import com.demo.entity.vo.VenueOrder;
 import com.demo.exception.LoginException;
 import com.demo.service.OrderService;
 import com.demo.service.OrderVoService;
 import com.demo.service.VenueService;
+import com.demo.service.SessionStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -22,15 +25,16 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
-import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 
+import javax.servlet.http.Cookie;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -60,6 +64,9 @@ public class OrderControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private SessionStore sessionStore;
+
     @MockBean
     private OrderService orderService;
 
@@ -70,7 +77,7 @@ public class OrderControllerTest {
     private VenueService venueService;
 
     private User testUser;
-    private MockHttpSession session;
+    private Cookie loginCookie;
     private List<Order> orderList;
     private List<OrderVo> orderVoList;
     private Page<Order> orderPage;
@@ -92,8 +99,7 @@ public class OrderControllerTest {
         testUser.setPicture("");
 
         // 创建用户会话
-        session = new MockHttpSession();
-        session.setAttribute("user", testUser);
+        loginCookie = new Cookie(SessionFilter.COOKIE_NAME, sessionStore.create(SessionPrincipal.of(testUser)));
 
         // 准备测试场馆
         testVenue = new Venue();
@@ -164,7 +170,7 @@ public class OrderControllerTest {
         when(orderService.findUserOrder(eq("user1"), any(Pageable.class))).thenReturn(orderPage);
 
         // 执行请求并验证结果
-        mockMvc.perform(get("/order_manage").session(session))
+        mockMvc.perform(get("/order_manage").cookie(loginCookie))
                 .andExpect(status().isOk())
                 .andExpect(view().name("order_manage"))
                 .andExpect(model().attributeExists("total"));
@@ -214,17 +220,17 @@ public class OrderControllerTest {
     @DisplayName("测试获取用户订单列表 - 用户已登录")
     public void testGetOrderListWithLoginUser() throws Exception {
         // 模拟服务层方法
-        when(orderService.findUserOrder(eq("user1"), any(Pageable.class))).thenReturn(orderPage);
+        when(orderService.findUserOrderSlice(eq("user1"), any(Pageable.class))).thenReturn(orderPage);
         when(orderVoService.returnVo(orderList)).thenReturn(orderVoList);
 
         // 执行请求并验证结果
         mockMvc.perform(get("/getOrderList.do")
                 .param("page", "1")
-                .session(session))
+                .cookie(loginCookie))
                 .andExpect(status().isOk());
 
         // 验证服务层方法被调用
-        verify(orderService, times(1)).findUserOrder(eq("user1"), any(Pageable.class));
+        verify(orderService, times(1)).findUserOrderSlice(eq("user1"), any(Pageable.class));
         verify(orderVoService, times(1)).returnVo(orderList);
     }
 
@@ -252,7 +258,7 @@ public class OrderControllerTest {
                 .param("date", "2023-05-01")
                 .param("startTime", "2023-05-01 14:00")
                 .param("hours", "2")
-                .session(session))
+                .cookie(loginCookie))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("order_manage"));
 
@@ -260,6 +266,27 @@ public class OrderControllerTest {
         verify(orderService, times(1)).submit(anyString(), any(LocalDateTime.class), anyInt(), anyString());
     }
 
+    @Test
+    @DisplayName("测试添加订单 - 相同幂等键的重复提交只创建一次订单")
+    public void testAddOrderReplayedWithIdempotencyKey() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/addOrder.do")
+                    .param("venueName", "测试场馆")
+                    .param("date", "2023-05-01")
+                    .param("startTime", "2023-05-01 14:00")
+                    .param("hours", "2")
+                    .param("idempotencyKey", key)
+                    .cookie(loginCookie))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(redirectedUrl("order_manage"));
+        }
+
+        // 验证服务层方法只被调用一次
+        verify(orderService, times(1)).submit(anyString(), any(LocalDateTime.class), anyInt(), anyString());
+    }
+
     @Test
     @DisplayName("测试添加订单 - 用户未登录")
     public void testAddOrderWithoutLoginUser() throws Exception {
@@ -325,7 +352,7 @@ public class OrderControllerTest {
                 .param("date", "2023-05-01")
                 .param("startTime", "2023-05-01 14:00")
                 .param("hours", "2")
-                .session(session))
+                .cookie(loginCookie))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("order_manage"));
 
@@ -403,7 +430,7 @@ public class OrderControllerTest {
                 .param("date", "2025-06-01")
                 .param("startTime", "2025-06-01 10:00")
                 .param("hours", hugeHours)
-                .session(session))
+                .cookie(loginCookie))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().is3xxRedirection());
                 
@@ -439,7 +466,7 @@ public class OrderControllerTest {
                     .param("date", "2025-06-01")
                     .param("startTime", "2025-06-01 10:00")
                     .param("hours", negativeHours)
-                    .session(session))
+                    .cookie(loginCookie))
                     .andDo(MockMvcResultHandlers.print())
                     .andExpect(status().is3xxRedirection());
                     
@@ -473,7 +500,7 @@ public class OrderControllerTest {
                 .param("date", "2025-06-01")
                 .param("startTime", lateHour)
                 .param("hours", "2")
-                .session(session))
+                .cookie(loginCookie))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().is3xxRedirection());
                 
@@ -508,7 +535,7 @@ public class OrderControllerTest {
                 .param("date", pastTime.toLocalDate().toString())
                 .param("startTime", pastTimeStr)
                 .param("hours", "2")
-                .session(session))
+                .cookie(loginCookie))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(status().is3xxRedirection());
                 
@@ -546,7 +573,7 @@ public class OrderControllerTest {
         // 检查修改订单页面是否检查订单所有者
         MvcResult result = mockMvc.perform(get("/modifyOrder.do")
                 .param("orderID", "999")
-                .session(session))
+                .cookie(loginCookie))
                 .andDo(MockMvcResultHandlers.print())
                 .andReturn();
                 
@@ -571,7 +598,7 @@ public class OrderControllerTest {
                     .param("date", "2025-06-01")
                     .param("startTime", "2025-06-01 10:00")
                     .param("hours", "2")
-                    .session(session))
+                    .cookie(loginCookie))
                     .andDo(MockMvcResultHandlers.print());
                     
             System.out.println("[错误] 系统应主动检查并抛出带有明确错误信息的NullPointerException, 而不是在访问null对象时才抛出");
@@ -585,4 +612,16 @@ public class OrderControllerTest {
             }
         }
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("测试查询占用时段 - 场馆不存在时返回404")
+    public void testGetBusySlotsUnknownVenue() throws Exception {
+        when(venueService.findByVenueName("不存在的场馆")).thenReturn(null);
+
+        mockMvc.perform(get("/order/getBusySlots.do")
+                .param("venueName", "不存在的场馆")
+                .param("date", "2025-06-01")
+                .cookie(loginCookie))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -1,7 +1,10 @@
 package com.demo.controller.user;
 
+import com.demo.config.SessionFilter;
 import com.demo.entity.User;
+import com.demo.entity.vo.SessionPrincipal;
 import com.demo.service.UserService;
+import com.demo.service.SessionStore;
 import com.demo.utils.FileUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,13 +15,14 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
-import org.springframework.mock.web.MockHttpSession;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.mockito.ArgumentCaptor;
 
+import javax.servlet.http.Cookie;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -27,6 +31,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
@@ -40,13 +46,16 @@ public class UserControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private SessionStore sessionStore;
+
     @MockBean
     private UserService userService;
     
     private User normalUser;
     private User adminUser;
-    private MockHttpSession userSession;
-    private MockHttpSession adminSession;
+    private Cookie userCookie;
+    private Cookie adminCookie;
 
     @BeforeEach
     public void setUp() {
@@ -73,11 +82,9 @@ public class UserControllerTest {
         adminUser.setPicture("");
 
         // 创建会话
-        userSession = new MockHttpSession();
-        userSession.setAttribute("user", normalUser);
+        userCookie = new Cookie(SessionFilter.COOKIE_NAME, sessionStore.create(SessionPrincipal.of(normalUser)));
 
-        adminSession = new MockHttpSession();
-        adminSession.setAttribute("admin", adminUser);
+        adminCookie = new Cookie(SessionFilter.COOKIE_NAME, sessionStore.create(SessionPrincipal.of(adminUser)));
         
         System.out.println("[INFO] 初始化UserControllerTest测试环境");
     }
@@ -101,9 +108,12 @@ public class UserControllerTest {
     @Test
     @DisplayName("测试用户信息页面")
     public void testUserInfoPage() throws Exception {
-        mockMvc.perform(get("/user_info").session(userSession))
+        when(userService.findByUserID("user1")).thenReturn(normalUser);
+
+        mockMvc.perform(get("/user_info").cookie(userCookie))
                 .andExpect(status().isOk())
-                .andExpect(view().name("user_info"));
+                .andExpect(view().name("user_info"))
+                .andExpect(model().attribute("profile", normalUser));
     }
 
     @Test
@@ -116,7 +126,9 @@ public class UserControllerTest {
                 .param("password", "password")
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED))
                 .andExpect(status().isOk())
-                .andExpect(content().string("/index"));
+                .andExpect(content().string("/index"))
+                .andExpect(cookie().exists(SessionFilter.COOKIE_NAME))
+                .andExpect(cookie().httpOnly(SessionFilter.COOKIE_NAME, true));
 
         verify(userService, times(1)).checkLogin("user1", "password");
     }
@@ -172,7 +184,7 @@ public class UserControllerTest {
     @Test
     @DisplayName("测试用户登出")
     public void testLogout() throws Exception {
-        mockMvc.perform(get("/logout.do").session(userSession))
+        mockMvc.perform(get("/logout.do").cookie(userCookie))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/index"));
     }
@@ -180,7 +192,7 @@ public class UserControllerTest {
     @Test
     @DisplayName("测试管理员登出")
     public void testAdminLogout() throws Exception {
-        mockMvc.perform(get("/quit.do").session(adminSession))
+        mockMvc.perform(get("/quit.do").cookie(adminCookie))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/index"));
     }
@@ -230,7 +242,7 @@ public class UserControllerTest {
                 .param("passwordNew", "")
                 .param("email", "update@example.com")
                 .param("phone", "98765432101")
-                .session(userSession))
+                .cookie(userCookie))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("user_info"));
 
@@ -0,0 +1,187 @@
+package com.demo.service.impl;
+
+import com.demo.dao.OrderDao;
+import com.demo.entity.Order;
+import com.demo.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AvailabilityServiceImplTest {
+
+    @Mock
+    private OrderDao orderDao;
+
+    @InjectMocks
+    private AvailabilityServiceImpl availabilityService;
+
+    private LocalDate tomorrow;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        tomorrow = LocalDate.now().plusDays(1);
+
+        // 启动时加载一个已审核订单：明天10点开始2小时
+        List<Order> orders = new ArrayList<>();
+        orders.add(order(1, 1, tomorrow.atTime(10, 0), 2, OrderService.STATE_WAIT));
+        when(orderDao.findByStartTimeGreaterThanEqualAndStateIn(any(LocalDateTime.class), anyCollection())).thenReturn(orders);
+        availabilityService.rebuild();
+    }
+
+    private Order order(int orderID, int venueID, LocalDateTime startTime, int hours, int state) {
+        Order order = new Order();
+        order.setOrderID(orderID);
+        order.setVenueID(venueID);
+        order.setStartTime(startTime);
+        order.setHours(hours);
+        order.setState(state);
+        return order;
+    }
+
+    @Test
+    @DisplayName("测试启动加载后查询占用时段 - 不访问数据库")
+    void findBusySlots_FromIndex() {
+        int mask = availabilityService.findBusySlots(1, tomorrow);
+
+        assertEquals((1 << 10) | (1 << 11), mask);
+        assertEquals(0, availabilityService.findBusySlots(2, tomorrow));
+        verify(orderDao, never()).findByVenueIDAndStartTimeIsBetween(anyInt(), any(), any());
+    }
+
+    @Test
+    @DisplayName("测试多节点 - 超过刷新间隔后从数据库重新加载当天的占用")
+    void findBusySlots_RefreshesStaleDay() {
+        ReflectionTestUtils.setField(availabilityService, "refreshSeconds", 30L);
+        ReflectionTestUtils.setField(availabilityService, "rebuiltAt", 0L);
+        // 其他节点删除了订单1，新增了订单3
+        when(orderDao.findByVenueIDAndStartTimeIsBetween(eq(1), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.singletonList(order(3, 1, tomorrow.atTime(15, 0), 1, OrderService.STATE_NO_AUDIT)));
+
+        assertEquals(1 << 15, availabilityService.findBusySlots(1, tomorrow));
+        assertEquals(0, availabilityService.findBusySlots(1, tomorrow, 3));
+
+        verify(orderDao, times(1)).findByVenueIDAndStartTimeIsBetween(anyInt(), any(), any());
+    }
+
+    @Test
+    @DisplayName("测试多节点 - 刷新间隔内不访问数据库")
+    void findBusySlots_FreshNotReloaded() {
+        ReflectionTestUtils.setField(availabilityService, "refreshSeconds", 30L);
+
+        assertEquals((1 << 10) | (1 << 11), availabilityService.findBusySlots(1, tomorrow));
+        verify(orderDao, never()).findByVenueIDAndStartTimeIsBetween(anyInt(), any(), any());
+    }
+
+    @Test
+    @DisplayName("测试新增和删除订单后占用时段更新")
+    void addAndRemoveOrder() {
+        availabilityService.addOrder(order(2, 1, tomorrow.atTime(14, 0), 1, OrderService.STATE_NO_AUDIT));
+        assertEquals((1 << 10) | (1 << 11) | (1 << 14), availabilityService.findBusySlots(1, tomorrow));
+
+        availabilityService.removeOrder(1);
+        assertEquals(1 << 14, availabilityService.findBusySlots(1, tomorrow));
+    }
+
+    @Test
+    @DisplayName("测试被拒绝的订单不占用时段")
+    void addOrder_RejectedOrderReleasesSlots() {
+        availabilityService.addOrder(order(1, 1, tomorrow.atTime(10, 0), 2, OrderService.STATE_REJECT));
+
+        assertEquals(0, availabilityService.findBusySlots(1, tomorrow));
+    }
+
+    @Test
+    @DisplayName("测试重叠订单 - 释放其中一个后时段仍被占用")
+    void overlappingOrders() {
+        availabilityService.addOrder(order(2, 1, tomorrow.atTime(11, 0), 1, OrderService.STATE_NO_AUDIT));
+        availabilityService.removeOrder(1);
+
+        assertEquals(1 << 11, availabilityService.findBusySlots(1, tomorrow));
+    }
+
+    @Test
+    @DisplayName("测试跨零点订单占用次日时段")
+    void orderAcrossMidnight() {
+        availabilityService.addOrder(order(3, 1, tomorrow.atTime(23, 0), 2, OrderService.STATE_WAIT));
+
+        assertTrue((availabilityService.findBusySlots(1, tomorrow) & (1 << 23)) != 0);
+        assertEquals(1, availabilityService.findBusySlots(1, tomorrow.plusDays(1)));
+    }
+
+    @Test
+    @DisplayName("测试排除指定订单查询占用时段")
+    void findBusySlots_ExcludeOrder() {
+        assertEquals(0, availabilityService.findBusySlots(1, tomorrow, 1));
+        assertEquals((1 << 10) | (1 << 11), availabilityService.findBusySlots(1, tomorrow, 99));
+    }
+
+    @Test
+    @DisplayName("测试查询过去日期 - 回退到数据库")
+    void findBusySlots_PastDateFallsBackToDao() {
+        LocalDate past = LocalDate.now().minusDays(7);
+        when(orderDao.findByVenueIDAndStartTimeIsBetween(eq(1), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.singletonList(order(5, 1, past.atTime(9, 0), 1, OrderService.STATE_FINISH)));
+
+        assertEquals(1 << 9, availabilityService.findBusySlots(1, past));
+    }
+
+    @Test
+    @DisplayName("测试事务中变更订单 - 提交后才更新索引，回滚时不影响")
+    void addOrder_AppliedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            availabilityService.addOrder(order(2, 1, tomorrow.atTime(14, 0), 1, OrderService.STATE_NO_AUDIT));
+            availabilityService.removeOrder(1);
+            assertEquals((1 << 10) | (1 << 11), availabilityService.findBusySlots(1, tomorrow));
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+            assertEquals(1 << 14, availabilityService.findBusySlots(1, tomorrow));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("测试移除过去的日期 - 之后的查询回退到数据库")
+    void evictPastDays() {
+        LocalDate past = LocalDate.now().minusDays(2);
+        ReflectionTestUtils.setField(availabilityService, "indexedFrom", past);
+        availabilityService.addOrder(order(2, 1, past.atTime(9, 0), 1, OrderService.STATE_WAIT));
+        assertEquals(1 << 9, availabilityService.findBusySlots(1, past));
+
+        availabilityService.evictPastDays();
+
+        assertEquals(0, availabilityService.findBusySlots(1, past));
+        verify(orderDao).findByVenueIDAndStartTimeIsBetween(eq(1), any(LocalDateTime.class), any(LocalDateTime.class));
+        assertEquals((1 << 10) | (1 << 11), availabilityService.findBusySlots(1, tomorrow));
+        assertEquals(1, ((Map<?, ?>) ReflectionTestUtils.getField(availabilityService, "bookings")).size());
+    }
+
+    @Test
+    @DisplayName("测试历史订单 - 不登记到索引中")
+    void addOrder_PastOrderNotIndexed() {
+        availabilityService.addOrder(order(2, 1, LocalDate.now().minusDays(30).atTime(9, 0), 1, OrderService.STATE_FINISH));
+
+        assertEquals(1, ((Map<?, ?>) ReflectionTestUtils.getField(availabilityService, "bookings")).size());
+    }
+}
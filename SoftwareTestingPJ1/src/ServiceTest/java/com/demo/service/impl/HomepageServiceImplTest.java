@@ -0,0 +1,133 @@
+package com.demo.service.impl;
+
+import com.demo.entity.Message;
+import com.demo.entity.News;
+import com.demo.entity.Venue;
+import com.demo.entity.vo.HomepageSnapshot;
+import com.demo.entity.vo.MessageVo;
+import com.demo.event.HomepageChangedEvent;
+import com.demo.service.MessageService;
+import com.demo.service.MessageVoService;
+import com.demo.service.NewsService;
+import com.demo.service.VenueService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HomepageServiceImplTest {
+
+    @Mock
+    private VenueService venueService;
+
+    @Mock
+    private NewsService newsService;
+
+    @Mock
+    private MessageService messageService;
+
+    @Mock
+    private MessageVoService messageVoService;
+
+    @InjectMocks
+    private HomepageServiceImpl homepageService;
+
+    private ParallelQueryServiceImpl parallelQueryService;
+
+    private Venue venue;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(homepageService, "maxStalenessSeconds", 0L);
+        parallelQueryService = new ParallelQueryServiceImpl();
+        ReflectionTestUtils.setField(parallelQueryService, "threads", 3);
+        ReflectionTestUtils.setField(parallelQueryService, "queueCapacity", 10);
+        ReflectionTestUtils.setField(parallelQueryService, "timeoutMs", 2000L);
+        parallelQueryService.start();
+        ReflectionTestUtils.setField(homepageService, "parallelQueryService", parallelQueryService);
+        homepageService.start();
+
+        venue = new Venue(1, "测试场馆", null, 100, null, null, null, null);
+        News news = new News();
+        news.setNewsID(1);
+        news.setTitle("测试新闻");
+        news.setTime(LocalDateTime.now());
+        Message message = new Message();
+        message.setMessageID(1);
+        message.setUserID("test");
+        List<Message> messages = Collections.singletonList(message);
+        MessageVo messageVo = new MessageVo(1, "test", "测试留言", LocalDateTime.now(), "测试用户", null, 2);
+
+        when(venueService.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(Collections.singletonList(venue)));
+        when(newsService.findAllSlice(any(Pageable.class))).thenReturn(new SliceImpl<>(Collections.singletonList(news)));
+        when(messageService.findPassStateSlice(any(Pageable.class))).thenReturn(new SliceImpl<>(messages));
+        when(messageVoService.returnVo(messages)).thenReturn(Collections.singletonList(messageVo));
+    }
+
+    @AfterEach
+    void tearDown() {
+        homepageService.stop();
+        parallelQueryService.stop();
+    }
+
+    @Test
+    @DisplayName("测试首页快照 - 只在第一次请求时查询，之后直接返回快照")
+    void current_BuiltOnce() {
+        HomepageSnapshot first = homepageService.current();
+        HomepageSnapshot second = homepageService.current();
+
+        assertSame(first, second);
+        assertEquals("测试场馆", first.getVenueList().get(0).getVenueName());
+        assertEquals("测试新闻", first.getNewsList().get(0).getTitle());
+        assertEquals("测试用户", first.getMessageList().get(0).getUserName());
+        assertThrows(UnsupportedOperationException.class, () -> first.getVenueList().clear());
+        verify(venueService, times(1)).findAll(any(Pageable.class));
+        verify(messageVoService, times(1)).returnVo(anyList());
+    }
+
+    @Test
+    @DisplayName("测试首页快照 - 收到修改事件后在后台重新生成")
+    void onChanged_Rebuilds() throws InterruptedException {
+        HomepageSnapshot first = homepageService.current();
+        Venue renamed = new Venue(1, "改名后的场馆", null, 100, null, null, null, null);
+        when(venueService.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(Collections.singletonList(renamed)));
+
+        homepageService.onChanged(new HomepageChangedEvent("venue"));
+
+        HomepageSnapshot current = first;
+        for (int i = 0; i < 50 && current == first; i++) {
+            Thread.sleep(100);
+            current = homepageService.current();
+        }
+        assertNotSame(first, current);
+        assertEquals("改名后的场馆", current.getVenueList().get(0).getVenueName());
+    }
+
+    @Test
+    @DisplayName("测试首页快照 - 重新生成失败时保留旧的快照")
+    void rebuild_FailureKeepsSnapshot() {
+        HomepageSnapshot first = homepageService.current();
+        when(venueService.findAll(any(Pageable.class))).thenThrow(new RuntimeException("数据库不可用"));
+
+        homepageService.requestRebuild();
+        verify(venueService, timeout(5000).times(2)).findAll(any(Pageable.class));
+
+        assertSame(first, homepageService.current());
+    }
+}
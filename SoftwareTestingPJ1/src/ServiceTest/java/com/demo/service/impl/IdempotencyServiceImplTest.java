@@ -0,0 +1,162 @@
+package com.demo.service.impl;
+
+import com.demo.dao.IdempotencyRecordDao;
+import com.demo.entity.IdempotencyRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceImplTest {
+
+    @Mock
+    private IdempotencyRecordDao idempotencyRecordDao;
+
+    @InjectMocks
+    private IdempotencyServiceImpl idempotencyService;
+
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(idempotencyService, "capacity", 2);
+        ReflectionTestUtils.setField(idempotencyService, "ttlSeconds", 600L);
+        ReflectionTestUtils.setField(idempotencyService, "waitSeconds", 1L);
+        calls = new AtomicInteger();
+    }
+
+    private String action() {
+        return "result" + calls.incrementAndGet();
+    }
+
+    @Test
+    @DisplayName("测试重复请求 - 返回第一次的结果且不再执行")
+    void execute_ReplayReturnsFirstResult() {
+        assertEquals("result1", idempotencyService.execute("user1", "key", this::action));
+        assertEquals("result1", idempotencyService.execute("user1", "key", this::action));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("测试幂等键 - 不同用户的相同键互不影响，空键每次执行")
+    void execute_KeyScopedByUser() {
+        idempotencyService.execute("user1", "key", this::action);
+        assertEquals("result2", idempotencyService.execute("user2", "key", this::action));
+        idempotencyService.execute("user1", null, this::action);
+        idempotencyService.execute("user1", "", this::action);
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    @DisplayName("测试执行失败 - 不记录结果，允许重试")
+    void execute_FailureAllowsRetry() {
+        assertThrows(RuntimeException.class, () -> idempotencyService.execute("user1", "key", () -> {
+            throw new RuntimeException("时段冲突");
+        }));
+        assertEquals("result1", idempotencyService.execute("user1", "key", this::action));
+    }
+
+    @Test
+    @DisplayName("测试容量限制 - 超过容量时淘汰最早的记录")
+    void execute_BoundedByCapacity() {
+        idempotencyService.execute("user1", "a", this::action);
+        idempotencyService.execute("user1", "b", this::action);
+        idempotencyService.execute("user1", "c", this::action);
+
+        assertEquals("result4", idempotencyService.execute("user1", "a", this::action));
+    }
+
+    @Test
+    @DisplayName("测试容量限制 - 处理中的记录不被淘汰")
+    void execute_InFlightNotEvicted() {
+        String first = idempotencyService.execute("user1", "a", () -> {
+            idempotencyService.execute("user1", "b", this::action);
+            idempotencyService.execute("user1", "c", this::action);
+            return action();
+        });
+
+        assertEquals("result3", first);
+        assertEquals("result3", idempotencyService.execute("user1", "a", this::action));
+        assertEquals("result4", idempotencyService.execute("user1", "b", this::action));
+    }
+
+    @Test
+    @DisplayName("测试幂等键过长 - 应被拒绝")
+    void execute_KeyTooLong() {
+        String key = new String(new char[65]).replace('\0', 'a');
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute("user1", key, this::action));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    @DisplayName("测试数据库记录 - 已完成的请求直接返回记录的结果")
+    void executeInDb_Replay() {
+        ReflectionTestUtils.setField(idempotencyService, "dbEnabled", true);
+        when(idempotencyRecordDao.claim(eq("user1:key"), any(LocalDateTime.class))).thenReturn(0);
+        when(idempotencyRecordDao.findById("user1:key"))
+                .thenReturn(Optional.of(new IdempotencyRecord("user1:key", "order_manage", LocalDateTime.now())));
+
+        assertEquals("order_manage", idempotencyService.execute("user1", "key", this::action));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    @DisplayName("测试数据库记录 - 第一次请求执行后保存结果，失败时释放幂等键")
+    void executeInDb_FirstRequest() {
+        ReflectionTestUtils.setField(idempotencyService, "dbEnabled", true);
+        when(idempotencyRecordDao.claim(anyString(), any(LocalDateTime.class))).thenReturn(1);
+
+        assertEquals("result1", idempotencyService.execute("user1", "key", this::action));
+        verify(idempotencyRecordDao).complete(eq("user1:key"), any(LocalDateTime.class), eq("result1"));
+
+        assertThrows(RuntimeException.class, () -> idempotencyService.execute("user1", "other", () -> {
+            throw new RuntimeException("时段冲突");
+        }));
+        verify(idempotencyRecordDao).release(eq("user1:other"), any(LocalDateTime.class));
+        verify(idempotencyRecordDao, never()).reclaim(anyString(), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("测试数据库记录 - 过期或处理超时的记录被重新占用后执行")
+    void executeInDb_Reclaim() {
+        ReflectionTestUtils.setField(idempotencyService, "dbEnabled", true);
+        ReflectionTestUtils.setField(idempotencyService, "processingTimeoutSeconds", 300L);
+        when(idempotencyRecordDao.claim(anyString(), any(LocalDateTime.class))).thenReturn(0);
+        when(idempotencyRecordDao.reclaim(eq("user1:key"), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(LocalDateTime.class))).thenReturn(1);
+
+        assertEquals("result1", idempotencyService.execute("user1", "key", this::action));
+
+        verify(idempotencyRecordDao).reclaim(eq("user1:key"), any(LocalDateTime.class),
+                argThat(expiredBefore -> expiredBefore.isBefore(LocalDateTime.now().minusSeconds(599))),
+                argThat(staleBefore -> staleBefore.isBefore(LocalDateTime.now().minusSeconds(299))));
+        verify(idempotencyRecordDao).complete(eq("user1:key"), any(LocalDateTime.class), eq("result1"));
+        verify(idempotencyRecordDao, never()).findById(anyString());
+    }
+
+    @Test
+    @DisplayName("测试数据库记录 - 其他请求处理中且未超时时拒绝重复提交")
+    void executeInDb_InFlight() {
+        ReflectionTestUtils.setField(idempotencyService, "dbEnabled", true);
+        when(idempotencyRecordDao.claim(anyString(), any(LocalDateTime.class))).thenReturn(0);
+        when(idempotencyRecordDao.findById("user1:key"))
+                .thenReturn(Optional.of(new IdempotencyRecord("user1:key", null, LocalDateTime.now())));
+
+        assertThrows(RuntimeException.class, () -> idempotencyService.execute("user1", "key", this::action));
+        assertEquals(0, calls.get());
+        verify(idempotencyRecordDao, never()).complete(anyString(), any(LocalDateTime.class), anyString());
+    }
+}
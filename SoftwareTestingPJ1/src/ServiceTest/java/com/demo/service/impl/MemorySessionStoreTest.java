@@ -0,0 +1,61 @@
+package com.demo.service.impl;
+
+import com.demo.entity.vo.SessionPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemorySessionStoreTest {
+
+    private MemorySessionStore sessionStore;
+
+    private SessionPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        sessionStore = new MemorySessionStore();
+        ReflectionTestUtils.setField(sessionStore, "ttlSeconds", 600L);
+        ReflectionTestUtils.setField(sessionStore, "shardCount", 4);
+        sessionStore.init();
+        principal = new SessionPrincipal(1, "user1", "测试用户", "", 0);
+    }
+
+    @Test
+    @DisplayName("测试新建会话 - 按令牌读取，删除后读不到")
+    void createFindRemove() {
+        String token = sessionStore.create(principal);
+
+        assertEquals(principal, sessionStore.find(token));
+        assertNull(sessionStore.find("unknown"));
+
+        sessionStore.remove(token);
+        assertNull(sessionStore.find(token));
+    }
+
+    @Test
+    @DisplayName("测试新建会话 - 每次生成不同的令牌")
+    void create_DistinctTokens() {
+        String first = sessionStore.create(principal);
+        String second = sessionStore.create(principal);
+
+        assertNotEquals(first, second);
+        assertEquals(2, sessionStore.size());
+    }
+
+    @Test
+    @DisplayName("测试会话过期 - 过期后读不到并被定时清理")
+    void expired() {
+        ReflectionTestUtils.setField(sessionStore, "ttlSeconds", 0L);
+        String token = sessionStore.create(principal);
+        sessionStore.create(principal);
+
+        assertNull(sessionStore.find(token));
+        assertEquals(1, sessionStore.size());
+
+        sessionStore.purgeExpired();
+        assertEquals(0, sessionStore.size());
+    }
+}
@@ -2,6 +2,7 @@ package com.demo.service.impl;
 
 import com.demo.dao.MessageDao;
 import com.demo.entity.Message;
+import com.demo.event.HomepageChangedEvent;
 import com.demo.service.MessageService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -27,6 +29,9 @@ class MessageServiceImplTest {
     @Mock
     private MessageDao messageDao;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private MessageServiceImpl messageService;
 
@@ -461,21 +466,25 @@ class MessageServiceImplTest {
     @DisplayName("测试确认留言 - 留言存在")
     void confirmMessage_MessageExists() {
         // 设置模拟行为
-        when(messageDao.findByMessageID(1)).thenReturn(testMessage);
+        when(messageDao.updateStateFrom(MessageServiceImpl.STATE_PASS, 1, MessageService.CONFIRM_FROM)).thenReturn(1);
         
         // 执行测试
         messageService.confirmMessage(1);
         
-        // 验证交互
-        verify(messageDao, times(1)).findByMessageID(1);
-        verify(messageDao, times(1)).updateState(MessageServiceImpl.STATE_PASS, 1);
+        // 验证交互 - 单条条件更新，不再先查询留言
+        verify(messageDao, times(1)).updateStateFrom(MessageServiceImpl.STATE_PASS, 1, MessageService.CONFIRM_FROM);
+        verify(messageDao, never()).findByMessageID(anyInt());
+        verify(messageDao, never()).existsById(anyInt());
+        // 审核通过的留言出现在首页，需要重新生成首页快照
+        verify(eventPublisher, times(1)).publishEvent(any(HomepageChangedEvent.class));
     }
     
     @Test
     @DisplayName("测试确认留言 - 留言不存在")
     void confirmMessage_MessageNotExists() {
         // 设置模拟行为
-        when(messageDao.findByMessageID(999)).thenReturn(null);
+        when(messageDao.updateStateFrom(anyInt(), eq(999), anyCollection())).thenReturn(0);
+        when(messageDao.existsById(999)).thenReturn(false);
         
         // 执行测试并验证异常
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -484,17 +493,14 @@ class MessageServiceImplTest {
         
         // 验证异常消息
         assertEquals("留言不存在", exception.getMessage());
-        
-        // 验证交互
-        verify(messageDao, times(1)).findByMessageID(999);
-        verify(messageDao, never()).updateState(anyInt(), anyInt());
     }
     
     @Test
     @DisplayName("测试确认留言 - ID为负数")
     void confirmMessage_NegativeID() {
-        // 设置模拟行为 - 查询ID为负数的留言时返回null
-        when(messageDao.findByMessageID(-1)).thenReturn(null);
+        // 设置模拟行为 - ID为负数的留言不存在
+        when(messageDao.updateStateFrom(anyInt(), eq(-1), anyCollection())).thenReturn(0);
+        when(messageDao.existsById(-1)).thenReturn(false);
         
         // 执行测试并验证异常
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -503,10 +509,6 @@ class MessageServiceImplTest {
         
         // 验证异常消息
         assertEquals("留言不存在", exception.getMessage());
-        
-        // 验证交互
-        verify(messageDao, times(1)).findByMessageID(-1);
-        verify(messageDao, never()).updateState(anyInt(), anyInt());
     }
     
     // 拒绝留言测试
@@ -515,21 +517,22 @@ class MessageServiceImplTest {
     @DisplayName("测试拒绝留言 - 留言存在")
     void rejectMessage_MessageExists() {
         // 设置模拟行为
-        when(messageDao.findByMessageID(1)).thenReturn(testMessage);
+        when(messageDao.updateStateFrom(MessageServiceImpl.STATE_REJECT, 1, MessageService.REJECT_FROM)).thenReturn(1);
         
         // 执行测试
         messageService.rejectMessage(1);
         
         // 验证交互
-        verify(messageDao, times(1)).findByMessageID(1);
-        verify(messageDao, times(1)).updateState(MessageServiceImpl.STATE_REJECT, 1);
+        verify(messageDao, times(1)).updateStateFrom(MessageServiceImpl.STATE_REJECT, 1, MessageService.REJECT_FROM);
+        verify(messageDao, never()).findByMessageID(anyInt());
     }
     
     @Test
     @DisplayName("测试拒绝留言 - 留言不存在")
     void rejectMessage_MessageNotExists() {
         // 设置模拟行为
-        when(messageDao.findByMessageID(999)).thenReturn(null);
+        when(messageDao.updateStateFrom(anyInt(), eq(999), anyCollection())).thenReturn(0);
+        when(messageDao.existsById(999)).thenReturn(false);
         
         // 执行测试并验证异常
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -538,10 +541,17 @@ class MessageServiceImplTest {
         
         // 验证异常消息
         assertEquals("留言不存在", exception.getMessage());
+    }
+    
+    @Test
+    @DisplayName("测试拒绝留言 - 已拒绝的留言不能再次拒绝")
+    void rejectMessage_AlreadyRejected() {
+        // 设置模拟行为 - 留言存在但状态不满足条件
+        when(messageDao.updateStateFrom(anyInt(), eq(3), anyCollection())).thenReturn(0);
+        when(messageDao.existsById(3)).thenReturn(true);
         
-        // 验证交互
-        verify(messageDao, times(1)).findByMessageID(999);
-        verify(messageDao, never()).updateState(anyInt(), anyInt());
+        // 执行测试并验证异常
+        assertThrows(IllegalStateException.class, () -> messageService.rejectMessage(3));
     }
     
     // 查询待审核留言测试
@@ -645,44 +655,28 @@ class MessageServiceImplTest {
     @Test
     @DisplayName("测试已拒绝留言再次确认")
     void confirmMessage_AlreadyRejected() {
-        // 创建一个已拒绝状态的留言
-        Message rejectedMessage = new Message();
-        rejectedMessage.setMessageID(3);
-        rejectedMessage.setUserID("test");
-        rejectedMessage.setContent("这是一条已拒绝的留言");
-        rejectedMessage.setTime(now);
-        rejectedMessage.setState(MessageServiceImpl.STATE_REJECT);
+        // 设置模拟行为 - 已拒绝的留言允许重新通过
+        when(messageDao.updateStateFrom(MessageServiceImpl.STATE_PASS, 3, MessageService.CONFIRM_FROM)).thenReturn(1);
         
-        // 设置模拟行为
-        when(messageDao.findByMessageID(3)).thenReturn(rejectedMessage);
-        
-        // 执行测试 - 服务层没有验证状态转换的合法性
+        // 执行测试
         messageService.confirmMessage(3);
         
-        // 验证交互 - 允许将拒绝状态的留言更新为通过状态
-        verify(messageDao, times(1)).findByMessageID(3);
-        verify(messageDao, times(1)).updateState(MessageServiceImpl.STATE_PASS, 3);
+        // 验证交互
+        assertTrue(MessageService.CONFIRM_FROM.contains(MessageServiceImpl.STATE_REJECT));
+        verify(messageDao, times(1)).updateStateFrom(MessageServiceImpl.STATE_PASS, 3, MessageService.CONFIRM_FROM);
     }
     
     @Test
     @DisplayName("测试已通过留言再次拒绝")
     void rejectMessage_AlreadyPassed() {
-        // 创建一个已通过状态的留言
-        Message passedMessage = new Message();
-        passedMessage.setMessageID(4);
-        passedMessage.setUserID("test");
-        passedMessage.setContent("这是一条已通过的留言");
-        passedMessage.setTime(now);
-        passedMessage.setState(MessageServiceImpl.STATE_PASS);
-        
-        // 设置模拟行为
-        when(messageDao.findByMessageID(4)).thenReturn(passedMessage);
+        // 设置模拟行为 - 已通过的留言允许撤下
+        when(messageDao.updateStateFrom(MessageServiceImpl.STATE_REJECT, 4, MessageService.REJECT_FROM)).thenReturn(1);
         
-        // 执行测试 - 服务层没有验证状态转换的合法性
+        // 执行测试
         messageService.rejectMessage(4);
         
-        // 验证交互 - 允许将通过状态的留言更新为拒绝状态
-        verify(messageDao, times(1)).findByMessageID(4);
-        verify(messageDao, times(1)).updateState(MessageServiceImpl.STATE_REJECT, 4);
+        // 验证交互
+        assertTrue(MessageService.REJECT_FROM.contains(MessageServiceImpl.STATE_PASS));
+        verify(messageDao, times(1)).updateStateFrom(MessageServiceImpl.STATE_REJECT, 4, MessageService.REJECT_FROM);
     }
-} 
\ No newline at end of file
+}
@@ -1,11 +1,11 @@
 package com.demo.service.impl;
 
 import com.demo.dao.MessageDao;
-import com.demo.dao.UserDao;
 import com.demo.entity.Message;
-import com.demo.entity.User;
 import com.demo.entity.vo.MessageVo;
+import com.demo.entity.vo.UserProfile;
 import com.demo.service.MessageService;
+import com.demo.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,9 +15,13 @@ import org.mockito.MockitoAnnotations;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class MessageVoServiceImplTest {
@@ -26,13 +30,13 @@ class MessageVoServiceImplTest {
     private MessageDao messageDao;
 
     @Mock
-    private UserDao userDao;
+    private UserService userService;
 
     @InjectMocks
     private MessageVoServiceImpl messageVoService;
 
     private Message testMessage;
-    private User testUser;
+    private UserProfile testUser;
     private LocalDateTime now;
 
     @BeforeEach
@@ -42,15 +46,7 @@ class MessageVoServiceImplTest {
         now = LocalDateTime.now();
 
         // 创建测试用户
-        testUser = new User();
-        testUser.setId(1);
-        testUser.setUserID("test");
-        testUser.setUserName("测试用户");
-        testUser.setPassword("123");
-        testUser.setEmail("test@example.com");
-        testUser.setPhone("12345678901");
-        testUser.setIsadmin(0);
-        testUser.setPicture("avatar.jpg");
+        testUser = new UserProfile(1, "test", "测试用户", "avatar.jpg");
 
         // 创建测试留言
         testMessage = new Message();
@@ -66,7 +62,7 @@ class MessageVoServiceImplTest {
     void returnMessageVoByMessageID_Success() {
         // 设置模拟行为
         when(messageDao.findByMessageID(1)).thenReturn(testMessage);
-        when(userDao.findByUserID("test")).thenReturn(testUser);
+        when(userService.findProfile("test")).thenReturn(testUser);
         
         // 执行测试
         MessageVo result = messageVoService.returnMessageVoByMessageID(1);
@@ -82,34 +78,50 @@ class MessageVoServiceImplTest {
         
         // 验证交互
         verify(messageDao, times(1)).findByMessageID(1);
-        verify(userDao, times(1)).findByUserID("test");
+        verify(userService, times(1)).findProfile("test");
     }
 
     @Test
     @DisplayName("测试将留言列表转换为MessageVo列表 - 正常情况")
     void returnVo_Success() {
         // 准备测试数据
+        Message second = new Message();
+        second.setMessageID(2);
+        second.setUserID("test");
+        second.setContent("第二条留言");
+        second.setState(MessageService.STATE_PASS);
+        second.setTime(now);
+        Message orphan = new Message();
+        orphan.setMessageID(3);
+        orphan.setUserID("deleted");
+        orphan.setContent("作者已删除");
+        orphan.setTime(now);
         List<Message> messageList = new ArrayList<>();
         messageList.add(testMessage);
-        
+        messageList.add(second);
+        messageList.add(orphan);
+
         // 设置模拟行为
-        when(messageDao.findByMessageID(1)).thenReturn(testMessage);
-        when(userDao.findByUserID("test")).thenReturn(testUser);
-        
+        when(userService.findProfiles(anySet())).thenReturn(Collections.singletonMap("test", testUser));
+
         // 执行测试
         List<MessageVo> result = messageVoService.returnVo(messageList);
-        
+
         // 验证结果
         assertNotNull(result);
-        assertEquals(1, result.size());
+        assertEquals(3, result.size());
         assertEquals(1, result.get(0).getMessageID());
         assertEquals("test", result.get(0).getUserID());
         assertEquals("这是一条测试留言", result.get(0).getContent());
         assertEquals("测试用户", result.get(0).getUserName());
-        
-        // 验证交互
-        verify(messageDao, times(1)).findByMessageID(1);
-        verify(userDao, times(1)).findByUserID("test");
+        assertEquals("avatar.jpg", result.get(1).getPicture());
+        assertEquals("deleted", result.get(2).getUserID());
+        assertNull(result.get(2).getUserName());
+
+        // 验证交互：整页只批量取一次作者，不再回查留言
+        verify(userService, times(1)).findProfiles(new HashSet<>(Arrays.asList("test", "deleted")));
+        verifyNoMoreInteractions(userService);
+        verifyNoMoreInteractions(messageDao);
     }
 
     @Test
@@ -126,7 +138,7 @@ class MessageVoServiceImplTest {
         assertEquals(0, result.size());
         
         // 验证交互
-        verify(messageDao, never()).findByMessageID(anyInt());
-        verify(userDao, never()).findByUserID(anyString());
+        verifyNoMoreInteractions(messageDao);
+        verifyNoMoreInteractions(userService);
     }
 } 
\ No newline at end of file
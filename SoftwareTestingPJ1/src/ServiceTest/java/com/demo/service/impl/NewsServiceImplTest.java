@@ -2,16 +2,20 @@ package com.demo.service.impl;
 
 import com.demo.dao.NewsDao;
 import com.demo.entity.News;
+import com.demo.entity.vo.CursorPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.PessimisticLockingFailureException;
 import org.hibernate.LazyInitializationException;
@@ -19,6 +23,7 @@ import org.mockito.ArgumentCaptor;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import javax.persistence.EntityNotFoundException;
 
@@ -31,6 +36,9 @@ class NewsServiceImplTest {
     @Mock
     private NewsDao newsDao;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private NewsServiceImpl newsService;
 
@@ -780,4 +788,49 @@ class NewsServiceImplTest {
             }
         }
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("测试游标分页 - 多取一行判断是否有下一页，并用游标定位下一页")
+    void findAll_Cursor() {
+        LocalDateTime time = LocalDateTime.of(2020, 1, 1, 12, 0);
+        News first = new News(3, "标题3", "内容", time);
+        News second = new News(2, "标题2", "内容", time);
+        News third = new News(1, "标题1", "内容", time.minusDays(1));
+        when(newsDao.findAllByOrderByTimeDescNewsIDDesc(PageRequest.of(0, 3)))
+                .thenReturn(Arrays.asList(first, second, third));
+
+        CursorPage<News> page = newsService.findAll(null, 2);
+
+        assertEquals(2, page.getContent().size());
+        assertNotNull(page.getNextCursor());
+
+        when(newsDao.findBefore(time, 2, PageRequest.of(0, 3))).thenReturn(Arrays.asList(third));
+        CursorPage<News> next = newsService.findAll(page.getNextCursor(), 2);
+
+        assertEquals(1, next.getContent().size());
+        assertNull(next.getNextCursor());
+        verify(newsDao, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("测试游标分页 - 无效游标抛出IllegalArgumentException")
+    void findAll_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> newsService.findAll("###", 10));
+    }
+
+    @Test
+    @DisplayName("测试不统计总数的分页 - 只返回是否有下一页")
+    void findAllSlice_NoCount() {
+        Pageable pageable = PageRequest.of(0, 2);
+        List<News> content = Arrays.asList(new News(2, "标题2", "内容", LocalDateTime.now()),
+                new News(1, "标题1", "内容", LocalDateTime.now()));
+        when(newsDao.findSlice(pageable)).thenReturn(new SliceImpl<>(content, pageable, true));
+
+        Slice<News> slice = newsService.findAllSlice(pageable);
+
+        assertEquals(2, slice.getContent().size());
+        assertTrue(slice.hasNext());
+        verify(newsDao, never()).findAll(any(Pageable.class));
+        verify(newsDao, never()).count();
+    }
+}
@@ -0,0 +1,114 @@
+package com.demo.service.impl;
+
+import com.demo.dao.OrderDao;
+import com.demo.entity.vo.ExpiryStats;
+import com.demo.entity.vo.TransitionResult;
+import com.demo.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrderExpiryServiceImplTest {
+
+    @Mock
+    private OrderDao orderDao;
+
+    @Mock
+    private OrderService orderService;
+
+    @InjectMocks
+    private OrderExpiryServiceImpl orderExpiryService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(orderExpiryService, "chunkSize", 2);
+        ReflectionTestUtils.setField(orderExpiryService, "maxChunks", 10);
+        when(orderDao.findIDsByStateStartedBefore(anyInt(), any(LocalDateTime.class), anyInt()))
+                .thenReturn(Collections.emptyList());
+    }
+
+    @Test
+    @DisplayName("测试分批完成已结束的订单 - 不足一批时停止")
+    void expire_FinishesInChunks() {
+        when(orderDao.updateStateElapsed(eq(OrderService.STATE_FINISH), eq(OrderService.STATE_WAIT), any(LocalDateTime.class), eq(2)))
+                .thenReturn(2, 2, 1);
+
+        ExpiryStats stats = orderExpiryService.expire();
+
+        assertEquals(5, stats.getLastFinished());
+        assertEquals(1, stats.getRuns());
+        verify(orderDao, times(3)).updateStateElapsed(anyInt(), anyInt(), any(LocalDateTime.class), anyInt());
+    }
+
+    @Test
+    @DisplayName("测试未审核订单到开始时间后失效 - 通过rejectOrders释放时段")
+    void expire_RejectsStaleOrders() {
+        Map<Integer, TransitionResult> results = new LinkedHashMap<>();
+        results.put(1, TransitionResult.SUCCESS);
+        results.put(2, TransitionResult.ILLEGAL_STATE);
+        when(orderDao.findIDsByStateStartedBefore(eq(OrderService.STATE_NO_AUDIT), any(LocalDateTime.class), eq(2)))
+                .thenReturn(Arrays.asList(1, 2), Collections.emptyList());
+        when(orderService.rejectOrders(Arrays.asList(1, 2))).thenReturn(results);
+
+        ExpiryStats stats = orderExpiryService.expire();
+
+        assertEquals(1, stats.getLastRejected());
+        assertEquals(1, stats.getTotalRejected());
+        verify(orderService, times(1)).rejectOrders(anyList());
+    }
+
+    @Test
+    @DisplayName("测试大量未审核订单失效 - 按批量上限分组调用rejectOrders")
+    void expire_RejectsInGroups() {
+        ReflectionTestUtils.setField(orderExpiryService, "chunkSize", 500);
+        List<Integer> orderIDs = new ArrayList<>();
+        for (int i = 1; i <= 250; i++) {
+            orderIDs.add(i);
+        }
+        when(orderDao.findIDsByStateStartedBefore(eq(OrderService.STATE_NO_AUDIT), any(LocalDateTime.class), eq(500)))
+                .thenReturn(orderIDs, Collections.emptyList());
+        when(orderService.rejectOrders(anyList())).thenAnswer(invocation -> {
+            Map<Integer, TransitionResult> results = new LinkedHashMap<>();
+            for (Integer orderID : invocation.<List<Integer>>getArgument(0)) {
+                results.put(orderID, TransitionResult.SUCCESS);
+            }
+            return results;
+        });
+
+        ExpiryStats stats = orderExpiryService.expire();
+
+        assertEquals(250, stats.getLastRejected());
+        verify(orderService, times(3)).rejectOrders(anyList());
+        verify(orderService, never()).rejectOrders(argThat(group -> group.size() > OrderService.MAX_BATCH_ORDERS));
+        verify(orderService).rejectOrders(orderIDs.subList(200, 250));
+    }
+
+    @Test
+    @DisplayName("测试每次运行的批数上限 - 剩余订单留给下次运行")
+    void expire_StopsAtMaxChunks() {
+        ReflectionTestUtils.setField(orderExpiryService, "maxChunks", 3);
+        when(orderDao.updateStateElapsed(anyInt(), anyInt(), any(LocalDateTime.class), anyInt())).thenReturn(2);
+
+        ExpiryStats stats = orderExpiryService.expire();
+
+        assertEquals(6, stats.getLastFinished());
+        verify(orderDao, times(3)).updateStateElapsed(anyInt(), anyInt(), any(LocalDateTime.class), anyInt());
+    }
+}
@@ -0,0 +1,106 @@
+package com.demo.service.impl;
+
+import com.demo.dao.OrderExportDao;
+import com.demo.service.OrderExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrderExportServiceImplTest {
+
+    @Mock
+    private OrderExportDao orderExportDao;
+
+    @Mock
+    private ResultSet resultSet;
+
+    @InjectMocks
+    private OrderExportServiceImpl orderExportService;
+
+    private LocalDate from;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.initMocks(this);
+        from = LocalDate.of(2020, 1, 1);
+        when(resultSet.getInt(1)).thenReturn(7);
+        when(resultSet.getString(2)).thenReturn("user1");
+        when(resultSet.getInt(3)).thenReturn(1);
+        when(resultSet.getString(4)).thenReturn("场馆,A");
+        when(resultSet.getInt(5)).thenReturn(3);
+        when(resultSet.getTimestamp(6)).thenReturn(Timestamp.valueOf(LocalDateTime.of(2020, 1, 1, 9, 0)));
+        when(resultSet.getTimestamp(7)).thenReturn(Timestamp.valueOf(LocalDateTime.of(2020, 1, 2, 10, 0)));
+        when(resultSet.getInt(8)).thenReturn(2);
+        when(resultSet.getInt(9)).thenReturn(200);
+    }
+
+    @Test
+    @DisplayName("测试导出订单 - 逐行写出CSV，结束日期包含当天")
+    void exportCsv() throws Exception {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(3);
+            handler.processRow(resultSet);
+            handler.processRow(resultSet);
+            return null;
+        }).when(orderExportDao).streamOrders(any(), any(), any(), any());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = orderExportService.exportCsv(from, from.plusDays(1), 1, null, out);
+
+        assertEquals(2, count);
+        String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\r\n");
+        assertEquals("\uFEFF" + OrderExportService.HEADER, lines[0]);
+        assertEquals("7,user1,1,\"场馆,A\",已完成,2020-01-01 09:00:00,2020-01-02 10:00:00,2,200", lines[1]);
+        assertEquals(3, lines.length);
+        verify(orderExportDao).streamOrders(eq(from.atStartOfDay()), eq(from.plusDays(2).atStartOfDay()), eq(1), any());
+    }
+
+    @Test
+    @DisplayName("测试导出订单 - 取消后中止查询")
+    void exportCsv_Cancelled() {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(3);
+            handler.processRow(resultSet);
+            assertTrue(orderExportService.cancel("export-1"));
+            handler.processRow(resultSet);
+            return null;
+        }).when(orderExportDao).streamOrders(any(), any(), any(), any());
+
+        assertThrows(CancellationException.class,
+                () -> orderExportService.exportCsv(from, from, null, "export-1", new ByteArrayOutputStream()));
+        assertFalse(orderExportService.cancel("export-1"));
+    }
+
+    @Test
+    @DisplayName("测试导出订单 - 结束日期早于开始日期应被拒绝")
+    void exportCsv_InvalidRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> orderExportService.exportCsv(from, from.minusDays(1), null, null, new ByteArrayOutputStream()));
+        verify(orderExportDao, never()).streamOrders(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("测试CSV转义 - 含引号的值加引号并转义")
+    void escape() {
+        assertEquals("abc", OrderExportServiceImpl.escape("abc"));
+        assertEquals("\"a\"\"b\"", OrderExportServiceImpl.escape("a\"b"));
+        assertEquals("", OrderExportServiceImpl.escape(null));
+    }
+}
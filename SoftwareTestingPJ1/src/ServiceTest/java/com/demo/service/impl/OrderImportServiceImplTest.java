@@ -0,0 +1,204 @@
+package com.demo.service.impl;
+
+import com.demo.dao.VenueDao;
+import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.entity.vo.ImportReport;
+import com.demo.exception.OrderConflictException;
+import com.demo.service.OrderImportService;
+import com.demo.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrderImportServiceImplTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private VenueDao venueDao;
+
+    @InjectMocks
+    private OrderImportServiceImpl orderImportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(orderImportService, "batchSize", 2);
+        ReflectionTestUtils.setField(orderImportService, "maxErrors", 10);
+        ReflectionTestUtils.setField(orderImportService, "reportTtlSeconds", 600L);
+
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setVenueName("测试场馆");
+        venue.setPrice(100);
+        when(venueDao.findAll()).thenReturn(Collections.singletonList(venue));
+        orderImportService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderImportService.stop();
+    }
+
+    private ImportReport importCsv(String... lines) throws IOException, InterruptedException {
+        String csv = String.join("\n", lines);
+        ImportReport report = orderImportService.start(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        for (int i = 0; i < 50; i++) {
+            ImportReport current = orderImportService.findReport(report.getImportID());
+            if (!ImportReport.STATE_RUNNING.equals(current.getState())) {
+                return current;
+            }
+            Thread.sleep(100);
+        }
+        fail("导入未在规定时间内完成");
+        return null;
+    }
+
+    @Test
+    @DisplayName("测试导入订单 - 按批写入并保留原有状态和金额")
+    void import_WrittenInBatches() throws Exception {
+        ImportReport report = importCsv(OrderImportService.HEADER,
+                "user1,测试场馆,3,2020-01-01 09:00:00,2020-01-02 10:00:00,2,150",
+                "user2,测试场馆,4,2020-01-01 09:00:00,2020-01-02 12:00:00,1,",
+                "user3,测试场馆,2,2020-01-01 09:00:00,2020-01-02 14:00:00,1,100");
+
+        assertEquals(ImportReport.STATE_DONE, report.getState());
+        assertEquals(3, report.getRows());
+        assertEquals(3, report.getImported());
+        assertEquals(0, report.getFailed());
+        ArgumentCaptor<List<Order>> captor = ArgumentCaptor.forClass(List.class);
+        verify(orderService, times(2)).importOrders(captor.capture());
+        Order first = captor.getAllValues().get(0).get(0);
+        assertEquals(OrderService.STATE_FINISH, first.getState());
+        assertEquals(150, first.getTotal());
+        assertEquals(LocalDateTime.of(2020, 1, 2, 10, 0), first.getStartTime());
+        assertEquals(100, captor.getAllValues().get(0).get(1).getTotal());
+        verify(venueDao, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("测试导入订单 - 无效的行记入报告且不影响其他行")
+    void import_InvalidRowsReported() throws Exception {
+        ImportReport report = importCsv(OrderImportService.HEADER,
+                "user1,不存在的场馆,3,2020-01-01 09:00:00,2020-01-02 10:00:00,2,150",
+                "user2,测试场馆,9,2020-01-01 09:00:00,2020-01-02 10:00:00,2,150",
+                "user3,测试场馆,3,2020/01/01,2020-01-02 10:00:00,2,150",
+                "user4,测试场馆,3,2020-01-01 09:00:00,2020-01-02 10:00:00,2,150");
+
+        assertEquals(ImportReport.STATE_DONE, report.getState());
+        assertEquals(4, report.getRows());
+        assertEquals(1, report.getImported());
+        assertEquals(3, report.getFailed());
+        assertTrue(report.getErrors().get(0).startsWith("第2行"));
+        assertTrue(report.getErrors().get(2).startsWith("第4行"));
+    }
+
+    @Test
+    @DisplayName("测试导入订单 - 整批冲突时逐行重试找出冲突的行")
+    void import_ConflictRetriedRowByRow() throws Exception {
+        doThrow(new OrderConflictException("所选时间段已被预订"))
+                .when(orderService).importOrders(argThat(orders -> orders.size() > 1 || "user2".equals(orders.get(0).getUserID())));
+
+        ImportReport report = importCsv(OrderImportService.HEADER,
+                "user1,测试场馆,2,2020-01-01 09:00:00,2020-01-02 10:00:00,2,200",
+                "user2,测试场馆,2,2020-01-01 09:00:00,2020-01-02 10:00:00,2,200");
+
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals("第3行：所选时间段已被预订", report.getErrors().get(0));
+    }
+
+    @Test
+    @DisplayName("测试导入订单 - 表头不符时不导入")
+    void import_WrongHeader() throws Exception {
+        ImportReport report = importCsv("a,b,c", "user1,测试场馆,3,2020-01-01 09:00:00,2020-01-02 10:00:00,2,150");
+
+        assertEquals(ImportReport.STATE_FAILED, report.getState());
+        verify(orderService, never()).importOrders(anyList());
+    }
+
+    @Test
+    @DisplayName("测试导入订单 - 引号内的逗号、引号和换行属于字段内容")
+    void import_QuotedFields() throws Exception {
+        Venue venue = new Venue();
+        venue.setVenueID(2);
+        venue.setVenueName("场馆,\"A\"");
+        venue.setPrice(100);
+        when(venueDao.findAll()).thenReturn(Collections.singletonList(venue));
+
+        ImportReport report = importCsv(OrderImportService.HEADER,
+                "\"user,1\",\"场馆,\"\"A\"\"\",3,2020-01-01 09:00:00,2020-01-02 10:00:00,2,150",
+                "\"user",
+                "2\",\"场馆,\"\"A\"\"\",3,2020-01-01 09:00:00,2020-01-02 12:00:00,1,100",
+                "user3,\"场馆,3,2020-01-01 09:00:00,2020-01-02 14:00:00,1,100");
+
+        assertEquals(ImportReport.STATE_DONE, report.getState());
+        assertEquals(2, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals("第5行：引号不匹配", report.getErrors().get(0));
+        ArgumentCaptor<List<Order>> captor = ArgumentCaptor.forClass(List.class);
+        verify(orderService).importOrders(captor.capture());
+        assertEquals("user,1", captor.getValue().get(0).getUserID());
+        assertEquals("user\n2", captor.getValue().get(1).getUserID());
+        assertEquals(2, captor.getValue().get(0).getVenueID());
+    }
+
+    @Test
+    @DisplayName("测试拆分CSV记录 - 与导出的转义规则一致")
+    void split() {
+        assertEquals(Arrays.asList("a", "", "b,c", "d\"e", ""), OrderImportServiceImpl.split("a,,\"b,c\",\"d\"\"e\","));
+        assertEquals(Arrays.asList("x", "y,\"z\""),
+                OrderImportServiceImpl.split("x," + OrderExportServiceImpl.escape("y,\"z\"")));
+        assertThrows(IllegalArgumentException.class, () -> OrderImportServiceImpl.split("a,\"b"));
+    }
+
+    @Test
+    @DisplayName("测试停止服务 - 正在执行和排队中的导入标记为失败")
+    void stop_MarksRunningImportsFailed() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }).when(orderService).importOrders(anyList());
+        String csv = String.join("\n", OrderImportService.HEADER,
+                "user1,测试场馆,3,2020-01-01 09:00:00,2020-01-02 10:00:00,2,150",
+                "user2,测试场馆,3,2020-01-01 09:00:00,2020-01-02 12:00:00,1,100",
+                "user3,测试场馆,3,2020-01-01 09:00:00,2020-01-02 14:00:00,1,100");
+        ImportReport running = orderImportService.start(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        ImportReport queued = orderImportService.start(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        orderImportService.stop();
+
+        assertEquals(ImportReport.STATE_FAILED, orderImportService.findReport(running.getImportID()).getState());
+        assertEquals(ImportReport.STATE_FAILED, orderImportService.findReport(queued.getImportID()).getState());
+        verify(orderService, times(1)).importOrders(anyList());
+    }
+}
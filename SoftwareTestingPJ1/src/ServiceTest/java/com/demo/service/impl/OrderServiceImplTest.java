@@ -1,26 +1,54 @@
 package com.demo.service.impl;
 
+import com.demo.dao.OrderArchiveDao;
+import com.demo.dao.OrderBatchDao;
 import com.demo.dao.OrderDao;
-import com.demo.dao.VenueDao;
+import com.demo.dao.OrderSeriesDao;
+import com.demo.dao.OrderSlotDao;
+import com.demo.dao.VenueUsageDao;
 import com.demo.entity.Order;
+import com.demo.entity.OrderArchive;
+import com.demo.entity.OrderSeries;
+import com.demo.entity.OrderSlot;
 import com.demo.entity.Venue;
+import com.demo.entity.vo.CursorPage;
+import com.demo.entity.vo.TransitionResult;
+import com.demo.event.SlotsReleasedEvent;
+import com.demo.exception.OrderConflictException;
+import com.demo.service.AvailabilityService;
 import com.demo.service.OrderService;
+import com.demo.service.VenueService;
+import com.demo.utils.CursorUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.mockito.ArgumentCaptor;
 
+import javax.persistence.EntityManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -32,7 +60,31 @@ class OrderServiceImplTest {
     private OrderDao orderDao;
 
     @Mock
-    private VenueDao venueDao;
+    private VenueService venueService;
+
+    @Mock
+    private OrderSlotDao orderSlotDao;
+
+    @Mock
+    private OrderBatchDao orderBatchDao;
+
+    @Mock
+    private OrderArchiveDao orderArchiveDao;
+
+    @Mock
+    private VenueUsageDao venueUsageDao;
+
+    @Mock
+    private OrderSeriesDao orderSeriesDao;
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private OrderServiceImpl orderService;
@@ -82,7 +134,7 @@ class OrderServiceImplTest {
     @DisplayName("测试提交订单时Venue为null - 应抛出NullPointerException")
     void submit_NullVenue_ShouldThrowException() {
         // 设置模拟行为 - 返回null场馆，模拟场馆不存在的情况
-        when(venueDao.findByVenueName("不存在的场馆")).thenReturn(null);
+        when(venueService.findByVenueName("不存在的场馆")).thenReturn(null);
         
         try {
             orderService.submit("不存在的场馆", now.plusDays(1), 2, "test");
@@ -103,7 +155,7 @@ class OrderServiceImplTest {
     @DisplayName("测试DAO层异常传播 - OrderDao.save抛出异常")
     void submit_DaoThrowsException() {
         // 设置模拟行为
-        when(venueDao.findByVenueName("测试场馆")).thenReturn(testVenue);
+        when(venueService.findByVenueName("测试场馆")).thenReturn(testVenue);
         when(orderDao.save(any(Order.class))).thenThrow(new RuntimeException("Database connection failed"));
         
         // 执行测试并验证异常
@@ -115,11 +167,11 @@ class OrderServiceImplTest {
     }
     
     @Test
-    @DisplayName("测试confirmOrder - updateState抛出异常")
+    @DisplayName("测试confirmOrder - updateStateFrom抛出异常")
     void confirmOrder_UpdateStateThrowsException() {
         // 设置模拟行为
-        when(orderDao.findByOrderID(1)).thenReturn(testOrder);
-        doThrow(new RuntimeException("Update failed")).when(orderDao).updateState(OrderService.STATE_WAIT, 1);
+        doThrow(new RuntimeException("Update failed")).when(orderDao)
+                .updateStateFrom(eq(OrderService.STATE_WAIT), eq(1), anyCollection());
         
         // 执行测试并验证异常
         Exception exception = assertThrows(RuntimeException.class, () -> {
@@ -130,35 +182,38 @@ class OrderServiceImplTest {
     }
     
     @Test
-    @DisplayName("测试并发修改问题 - 并发修改订单状态")
+    @DisplayName("测试并发修改问题 - 状态变更为单条条件更新，不再先查询订单")
     void concurrentOrderStateModification() {
-        // 设置模拟行为 - 同一订单被两次状态修改
-        Order order = new Order();
-        order.setOrderID(1);
-        order.setState(OrderService.STATE_NO_AUDIT);
-        
-        when(orderDao.findByOrderID(1)).thenReturn(order);
+        // 设置模拟行为 - 通过和完成时条件满足，拒绝时订单已完成，条件更新影响0行
+        when(orderDao.updateStateFrom(OrderService.STATE_WAIT, 1, OrderService.CONFIRM_FROM)).thenReturn(1);
+        when(orderDao.updateStateFrom(OrderService.STATE_FINISH, 1, OrderService.FINISH_FROM)).thenReturn(1);
+        when(orderDao.updateStateFrom(OrderService.STATE_REJECT, 1, OrderService.REJECT_FROM)).thenReturn(0);
+        when(orderDao.existsById(1)).thenReturn(true);
         
         // 第一次确认
         orderService.confirmOrder(1);
         
-        // 验证状态被更新
-        verify(orderDao, times(1)).updateState(OrderService.STATE_WAIT, 1);
-        
-        // 修改订单状态模拟第一次更新
-        order.setState(OrderService.STATE_WAIT);
-        
         // 第二次完成
         orderService.finishOrder(1);
         
-        // 验证第二次更新
-        verify(orderDao, times(1)).updateState(OrderService.STATE_FINISH, 1);
+        // 第三次尝试拒绝（已经是完成状态） - 应被拒绝
+        assertThrows(IllegalStateException.class, () -> orderService.rejectOrder(1));
         
-        // 第三次尝试拒绝（已经是完成状态） - 应该仍然能更新，但实际应该防止这种情况
-        orderService.rejectOrder(1);
+        // 验证没有先查询订单，拒绝失败时不释放时段
+        verify(orderDao, never()).findByOrderID(anyInt());
+        verify(orderDao, never()).updateState(anyInt(), anyInt());
+        verify(orderSlotDao, never()).releaseByOrderID(anyInt());
+    }
+    
+    @Test
+    @DisplayName("测试confirmOrder - 订单不存在")
+    void confirmOrder_OrderNotFound() {
+        when(orderDao.updateStateFrom(eq(OrderService.STATE_WAIT), eq(999), anyCollection())).thenReturn(0);
+        when(orderDao.existsById(999)).thenReturn(false);
+        
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> orderService.confirmOrder(999));
         
-        // 验证第三次更新 - 这种情况下不应该被允许，但当前实现会允许
-        verify(orderDao, times(1)).updateState(OrderService.STATE_REJECT, 1);
+        assertEquals("订单不存在", exception.getMessage());
     }
     
     @Test
@@ -172,7 +227,7 @@ class OrderServiceImplTest {
         venue.setVenueName("测试场馆");
         venue.setPrice(100);
         
-        when(venueDao.findByVenueName("测试场馆")).thenReturn(venue);
+        when(venueService.findByVenueName("测试场馆")).thenReturn(venue);
         when(orderDao.findByOrderID(1)).thenReturn(order);
         
         try {
@@ -201,7 +256,7 @@ class OrderServiceImplTest {
     @DisplayName("测试超大小时数 - 应被拒绝但被接受并导致整数溢出")
     void submit_HugeHours_ShouldBeRejected() {
         // 设置模拟行为
-        when(venueDao.findByVenueName("测试场馆")).thenReturn(testVenue);
+        when(venueService.findByVenueName("测试场馆")).thenReturn(testVenue);
         
         try {
             // 执行测试 - 使用非常大的小时数
@@ -234,7 +289,7 @@ class OrderServiceImplTest {
     void updateOrder_InvalidOrderID() {
         // 设置模拟行为 - findByOrderID应该返回null表示订单不存在
         when(orderDao.findByOrderID(0)).thenReturn(null);
-        when(venueDao.findByVenueName(anyString())).thenReturn(testVenue);
+        when(venueService.findByVenueName(anyString())).thenReturn(testVenue);
         
         // 执行测试并验证异常 - 但目前实现不会检查订单是否存在就直接使用
         // 应该抛出NullPointerException，但现有代码不会进行此项检查
@@ -248,7 +303,7 @@ class OrderServiceImplTest {
     void updateOrder_OrderNotFound_ShouldThrowException() {
         // 设置模拟行为 - 返回null表示订单不存在
         when(orderDao.findByOrderID(999)).thenReturn(null);
-        when(venueDao.findByVenueName("测试场馆")).thenReturn(testVenue);
+        when(venueService.findByVenueName("测试场馆")).thenReturn(testVenue);
         
         try {
             orderService.updateOrder(999, "测试场馆", now.plusDays(1), 2, "test");
@@ -273,6 +328,8 @@ class OrderServiceImplTest {
         completedOrder.setState(OrderService.STATE_FINISH); // 已完成状态
         
         when(orderDao.findByOrderID(5)).thenReturn(completedOrder);
+        when(orderDao.updateStateFrom(eq(OrderService.STATE_REJECT), eq(5), anyCollection())).thenReturn(0);
+        when(orderDao.existsById(5)).thenReturn(true);
         
         try {
             // 执行测试 - 尝试拒绝一个已完成的订单，应该失败
@@ -295,7 +352,7 @@ class OrderServiceImplTest {
     @DisplayName("测试过去时间 - 不应接受过去的预订时间")
     void submit_PastStartTime_ShouldBeRejected() {
         // 设置模拟行为
-        when(venueDao.findByVenueName("测试场馆")).thenReturn(testVenue);
+        when(venueService.findByVenueName("测试场馆")).thenReturn(testVenue);
         
         // 过去的时间 - 一周前
         LocalDateTime pastTime = now.minusDays(7);
@@ -321,7 +378,7 @@ class OrderServiceImplTest {
     @DisplayName("测试并发订单冲突 - 系统未检测场馆时间冲突")
     void submit_ConcurrentBooking_ShouldDetectConflict() {
         // 设置模拟行为
-        when(venueDao.findByVenueName("测试场馆")).thenReturn(testVenue);
+        when(venueService.findByVenueName("测试场馆")).thenReturn(testVenue);
         
         // 模拟查询返回冲突订单
         List<Order> conflictingOrders = new ArrayList<>();
@@ -351,7 +408,7 @@ class OrderServiceImplTest {
     @DisplayName("测试时间边界 - 不应接受营业时间外的预订")
     void submit_OutsideBusinessHours_ShouldBeRejected() {
         // 设置模拟行为
-        when(venueDao.findByVenueName("测试场馆")).thenReturn(testVenue);
+        when(venueService.findByVenueName("测试场馆")).thenReturn(testVenue);
         
         // 测试场馆的营业时间是9:00-22:00
         // 创建一个超出营业时间的预订 - 晚上23:00
@@ -373,4 +430,484 @@ class OrderServiceImplTest {
                       "异常消息应该明确说明预订时间必须在营业时间范围内");
         }
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("测试提交订单 - 按小时占用时段")
+    void submit_ClaimsEveryHourSlot() {
+        when(venueService.findByVenueName("测试场馆")).thenReturn(testVenue);
+        LocalDateTime startTime = now.plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+        orderService.submit("测试场馆", startTime, 3, "test");
+
+        verify(orderSlotDao).claim(1, startTime, 0);
+        verify(orderSlotDao).claim(1, startTime.plusHours(1), 0);
+        verify(orderSlotDao).claim(1, startTime.plusHours(2), 0);
+        verify(availabilityService).addOrder(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("测试提交订单 - 时段已被占用时抛出OrderConflictException")
+    void submit_SlotTaken_ShouldThrowConflict() {
+        when(venueService.findByVenueName("测试场馆")).thenReturn(testVenue);
+        doThrow(new DataIntegrityViolationException("Duplicate entry"))
+                .when(orderSlotDao).claim(anyInt(), any(LocalDateTime.class), anyInt());
+
+        OrderConflictException exception = assertThrows(OrderConflictException.class, () -> {
+            orderService.submit("测试场馆", now.plusDays(1), 2, "test");
+        });
+
+        assertEquals("所选时间段已被预订", exception.getMessage());
+        verify(availabilityService, never()).addOrder(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("测试修改订单 - 只为不再占用的时段通知候补队列")
+    void updateOrder_PublishesReleasedSlots() {
+        LocalDateTime start = now.plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        when(venueService.findByVenueName("测试场馆")).thenReturn(testVenue);
+        when(orderDao.findByOrderID(1)).thenReturn(testOrder);
+        when(orderSlotDao.findByOrderID(1)).thenReturn(Arrays.asList(
+                new OrderSlot(1, start, 1), new OrderSlot(1, start.plusHours(1), 1)));
+
+        orderService.updateOrder(1, "测试场馆", start.plusHours(1), 2, "test");
+
+        ArgumentCaptor<SlotsReleasedEvent> captor = ArgumentCaptor.forClass(SlotsReleasedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertEquals(Collections.singletonList(new OrderSlot(1, start, 1)), captor.getValue().getSlots());
+        verify(orderSlotDao).claim(1, start.plusHours(2), 1);
+    }
+
+    @Test
+    @DisplayName("测试修改订单 - 时段不变时不通知候补队列")
+    void updateOrder_SameSlotsNotPublished() {
+        LocalDateTime start = now.plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        when(venueService.findByVenueName("测试场馆")).thenReturn(testVenue);
+        when(orderDao.findByOrderID(1)).thenReturn(testOrder);
+        when(orderSlotDao.findByOrderID(1)).thenReturn(Collections.singletonList(new OrderSlot(1, start, 1)));
+
+        orderService.updateOrder(1, "测试场馆", start, 1, "test");
+
+        verify(eventPublisher, never()).publishEvent(any(SlotsReleasedEvent.class));
+    }
+
+    @Test
+    @DisplayName("测试删除订单 - 释放占用的时段")
+    void delOrder_ReleasesSlots() {
+        orderService.delOrder(1);
+
+        verify(orderSlotDao).releaseByOrderID(1);
+        verify(orderDao).deleteById(1);
+        verify(availabilityService).removeOrder(1);
+    }
+
+    @Test
+    @DisplayName("测试批量通过订单 - 一次查询一次更新并返回每个订单的结果")
+    void confirmOrders_MixedResults() {
+        Order finished = new Order();
+        finished.setOrderID(2);
+        finished.setState(OrderService.STATE_FINISH);
+        when(orderDao.findByOrderIDIn(Arrays.asList(1, 2, 3))).thenReturn(Arrays.asList(testOrder, finished));
+        when(orderDao.updateStateIn(eq(OrderService.STATE_WAIT), eq(Arrays.asList(1)), anyCollection())).thenReturn(1);
+
+        Map<Integer, TransitionResult> results = orderService.confirmOrders(Arrays.asList(1, 2, 3));
+
+        assertEquals(TransitionResult.SUCCESS, results.get(1));
+        assertEquals(TransitionResult.ILLEGAL_STATE, results.get(2));
+        assertEquals(TransitionResult.NOT_FOUND, results.get(3));
+        verify(orderDao, times(1)).findByOrderIDIn(anyCollection());
+        verify(orderDao, never()).updateState(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("测试批量变更订单 - 部分订单被并发修改时，已更新的订单仍为成功")
+    void confirmOrders_PartialUpdate() {
+        Order other = new Order();
+        other.setOrderID(2);
+        other.setState(OrderService.STATE_NO_AUDIT);
+        when(orderDao.findByOrderIDIn(Arrays.asList(1, 2))).thenReturn(Arrays.asList(testOrder, other));
+        when(orderDao.updateStateIn(eq(OrderService.STATE_WAIT), eq(Arrays.asList(1, 2)), anyCollection())).thenReturn(1);
+        when(orderDao.findIDsByState(Arrays.asList(1, 2), OrderService.STATE_WAIT)).thenReturn(Arrays.asList(1));
+
+        Map<Integer, TransitionResult> results = orderService.confirmOrders(Arrays.asList(1, 2));
+
+        assertEquals(TransitionResult.SUCCESS, results.get(1));
+        assertEquals(TransitionResult.ILLEGAL_STATE, results.get(2));
+        verify(orderDao, times(1)).findByOrderIDIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("测试批量通过订单 - 部分订单被并发修改时，只为已通过的订单计入使用汇总")
+    void confirmOrders_PartialUpdateAppliesUsage() {
+        Order other = new Order();
+        other.setOrderID(2);
+        other.setState(OrderService.STATE_NO_AUDIT);
+        when(orderDao.findByOrderIDIn(Arrays.asList(1, 2))).thenReturn(Arrays.asList(testOrder, other));
+        when(orderDao.updateStateIn(eq(OrderService.STATE_WAIT), eq(Arrays.asList(1, 2)), anyCollection())).thenReturn(1);
+        when(orderDao.findIDsByState(Arrays.asList(1, 2), OrderService.STATE_WAIT)).thenReturn(Arrays.asList(2));
+
+        orderService.confirmOrders(Arrays.asList(1, 2));
+
+        verify(venueUsageDao).apply(eq(Arrays.asList(2)), eq(1), anyCollection());
+    }
+
+    @Test
+    @DisplayName("测试批量拒绝订单 - 部分订单被并发修改时，已拒绝的订单仍释放时段")
+    void rejectOrders_PartialUpdateReleasesSlots() {
+        Order other = new Order();
+        other.setOrderID(2);
+        other.setState(OrderService.STATE_NO_AUDIT);
+        OrderSlot slot = new OrderSlot(1, now.plusDays(1), 1);
+        when(orderDao.findByOrderIDIn(Arrays.asList(1, 2))).thenReturn(Arrays.asList(testOrder, other));
+        when(orderDao.updateStateIn(eq(OrderService.STATE_REJECT), eq(Arrays.asList(1, 2)), anyCollection())).thenReturn(1);
+        when(orderDao.findIDsByState(Arrays.asList(1, 2), OrderService.STATE_REJECT)).thenReturn(Arrays.asList(1));
+        when(orderSlotDao.findByOrderIDIn(Arrays.asList(1))).thenReturn(Collections.singletonList(slot));
+
+        Map<Integer, TransitionResult> results = orderService.rejectOrders(Arrays.asList(1, 2));
+
+        assertEquals(TransitionResult.SUCCESS, results.get(1));
+        assertEquals(TransitionResult.ILLEGAL_STATE, results.get(2));
+        verify(orderSlotDao).releaseByOrderIDIn(Arrays.asList(1));
+        verify(availabilityService).removeOrder(1);
+        verify(availabilityService, never()).removeOrder(2);
+        verify(eventPublisher).publishEvent(any(SlotsReleasedEvent.class));
+    }
+
+    @Test
+    @DisplayName("测试批量拒绝订单 - 释放被拒绝订单的时段")
+    void rejectOrders_ReleasesSlots() {
+        when(orderDao.findByOrderIDIn(Arrays.asList(1))).thenReturn(Arrays.asList(testOrder));
+        when(orderDao.updateStateIn(eq(OrderService.STATE_REJECT), eq(Arrays.asList(1)), anyCollection())).thenReturn(1);
+
+        Map<Integer, TransitionResult> results = orderService.rejectOrders(Arrays.asList(1));
+
+        assertEquals(TransitionResult.SUCCESS, results.get(1));
+        verify(orderSlotDao).releaseByOrderIDIn(Arrays.asList(1));
+        verify(availabilityService).removeOrder(1);
+    }
+
+    @Test
+    @DisplayName("测试批量提交订单 - 一次批量插入订单和时段")
+    void submitAll_InsertsInBatch() {
+        LocalDateTime startTime = now.plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        Order first = new Order(0, "user1", 1, 0, null, startTime, 2, 0);
+        Order second = new Order(0, "user2", 1, 0, null, startTime.plusHours(2), 1, 0);
+        when(venueService.findByVenueIDs(anyCollection())).thenReturn(Collections.singletonMap(1, testVenue));
+
+        orderService.submitAll(Arrays.asList(first, second));
+
+        assertEquals(OrderService.STATE_NO_AUDIT, first.getState());
+        assertEquals(200, first.getTotal());
+        assertEquals(100, second.getTotal());
+        verify(orderBatchDao, times(1)).insertOrders(anyList());
+        verify(orderBatchDao, times(1)).insertSlots(argThat(slots -> slots.size() == 3));
+        verify(orderDao, never()).save(any(Order.class));
+        verify(availabilityService, times(2)).addOrder(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("测试批量提交订单 - 时段冲突时抛出OrderConflictException")
+    void submitAll_SlotTaken_ShouldThrowConflict() {
+        Order order = new Order(0, "user1", 1, 0, null, now.plusDays(1), 2, 0);
+        when(venueService.findByVenueIDs(anyCollection())).thenReturn(Collections.singletonMap(1, testVenue));
+        doThrow(new DataIntegrityViolationException("Duplicate entry")).when(orderBatchDao).insertSlots(anyList());
+
+        assertThrows(OrderConflictException.class, () -> orderService.submitAll(Arrays.asList(order)));
+        verify(availabilityService, never()).addOrder(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("测试导入历史订单 - 保留状态，只为占用时段的订单登记时段")
+    void importOrders_KeepsStateAndSkipsRejectedSlots() {
+        LocalDateTime startTime = LocalDateTime.of(2020, 1, 2, 10, 0);
+        Order finished = new Order(0, "user1", 1, OrderService.STATE_FINISH, startTime.minusDays(1), startTime, 2, 150);
+        Order rejected = new Order(0, "user2", 1, OrderService.STATE_REJECT, startTime.minusDays(1), startTime, 1, 100);
+        doAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            orders.get(0).setOrderID(11);
+            orders.get(1).setOrderID(12);
+            return null;
+        }).when(orderBatchDao).insertOrders(anyList());
+
+        orderService.importOrders(Arrays.asList(finished, rejected));
+
+        assertEquals(OrderService.STATE_FINISH, finished.getState());
+        assertEquals(150, finished.getTotal());
+        verify(orderBatchDao).insertSlots(argThat(slots -> slots.size() == 2));
+        verify(venueUsageDao).apply(eq(Arrays.asList(11, 12)), eq(1), anyCollection());
+        verify(availabilityService, times(1)).addOrder(finished);
+        verify(venueService, never()).findByVenueIDs(anyCollection());
+    }
+
+    @Test
+    @DisplayName("测试查看用户订单 - order表填满本页时不查询归档表内容")
+    void findUserOrder_FullHotPage() {
+        Pageable pageable = PageRequest.of(0, 1);
+        when(orderDao.findAllByUserID("test", pageable)).thenReturn(new PageImpl<>(Arrays.asList(testOrder), pageable, 3));
+        when(orderArchiveDao.countByUserID("test")).thenReturn(2L);
+
+        Page<Order> page = orderService.findUserOrder("test", pageable);
+
+        assertEquals(5, page.getTotalElements());
+        verify(orderArchiveDao, never()).findUserOrders(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    @DisplayName("测试查看用户订单 - 最后一页由偏移算出总数，不统计归档表")
+    void findUserOrder_LastPageSkipsCount() {
+        Pageable pageable = PageRequest.of(0, 5);
+        OrderArchive archived = new OrderArchive(5, "test", 1, OrderService.STATE_FINISH, now.minusYears(1), now.minusYears(1), 2, 200);
+        when(orderDao.findAllByUserID("test", pageable)).thenReturn(new PageImpl<>(Arrays.asList(testOrder), pageable, 1));
+        when(orderArchiveDao.findUserOrders("test", 4, 0L)).thenReturn(Arrays.asList(archived));
+
+        Page<Order> page = orderService.findUserOrder("test", pageable);
+
+        assertEquals(2, page.getTotalElements());
+        assertEquals(5, page.getContent().get(1).getOrderID());
+        verify(orderArchiveDao, never()).countByUserID(anyString());
+    }
+
+    @Test
+    @DisplayName("测试游标分页查看用户订单 - 与归档订单按下单时间归并")
+    void findUserOrderCursor_MergesArchive() {
+        Order older = new Order(3, "test", 1, OrderService.STATE_FINISH, now.minusDays(30), now.minusDays(29), 1, 100);
+        OrderArchive archived = new OrderArchive(2, "test", 1, OrderService.STATE_FINISH, now.minusDays(10), now.minusDays(9), 1, 100);
+        when(orderDao.findByUserIDOrderByOrderTimeDescOrderIDDesc(eq("test"), any(Pageable.class)))
+                .thenReturn(Arrays.asList(testOrder, older));
+        when(orderArchiveDao.findUserOrders("test", 3, 0L)).thenReturn(Arrays.asList(archived));
+
+        CursorPage<Order> page = orderService.findUserOrder("test", null, 2);
+
+        assertEquals(Arrays.asList(1, 2), Arrays.asList(page.getContent().get(0).getOrderID(), page.getContent().get(1).getOrderID()));
+        assertEquals(CursorUtil.encode(archived.getOrderTime(), 2), page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("测试游标分页查看用户订单 - order表翻完后用同一游标继续读归档表")
+    void findUserOrderCursor_ContinuesIntoArchive() {
+        LocalDateTime time = now.minusDays(10);
+        OrderArchive first = new OrderArchive(2, "test", 1, OrderService.STATE_FINISH, now.minusDays(20), now.minusDays(19), 1, 100);
+        OrderArchive second = new OrderArchive(1, "test", 1, OrderService.STATE_FINISH, now.minusDays(40), now.minusDays(39), 1, 100);
+        when(orderDao.findByUserIDBefore(eq("test"), eq(time), eq(5), any(Pageable.class))).thenReturn(Collections.emptyList());
+        when(orderArchiveDao.findUserOrdersBefore("test", time, 5, 3)).thenReturn(Arrays.asList(first, second));
+
+        CursorPage<Order> page = orderService.findUserOrder("test", CursorUtil.encode(time, 5), 2);
+
+        assertEquals(2, page.getContent().size());
+        assertEquals(1, page.getContent().get(1).getOrderID());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("测试查看用户订单 - order表翻完后从归档表补齐")
+    void findUserOrderSlice_FillsFromArchive() {
+        Pageable pageable = PageRequest.of(0, 3);
+        OrderArchive archived = new OrderArchive(5, "test", 1, OrderService.STATE_FINISH, now.minusYears(1), now.minusYears(1), 2, 200);
+        when(orderDao.findSliceByUserID("test", pageable)).thenReturn(new SliceImpl<>(Arrays.asList(testOrder), pageable, false));
+        when(orderArchiveDao.findUserOrders("test", 2, 0L)).thenReturn(Arrays.asList(archived));
+
+        Slice<Order> slice = orderService.findUserOrderSlice("test", pageable);
+
+        assertEquals(2, slice.getNumberOfElements());
+        assertEquals(5, slice.getContent().get(1).getOrderID());
+        assertFalse(slice.hasNext());
+    }
+
+    @Test
+    @DisplayName("测试查看用户订单 - order表还有下一页时不访问归档表")
+    void findUserOrderSlice_HotOnly() {
+        Pageable pageable = PageRequest.of(0, 1);
+        when(orderDao.findSliceByUserID("test", pageable)).thenReturn(new SliceImpl<>(Arrays.asList(testOrder), pageable, true));
+
+        Slice<Order> slice = orderService.findUserOrderSlice("test", pageable);
+
+        assertTrue(slice.hasNext());
+        verify(orderArchiveDao, never()).findUserOrders(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    @DisplayName("测试归档订单 - 复制到归档表后删除并释放时段")
+    void archiveOrders_MovesBatch() {
+        LocalDateTime before = now.minusDays(180);
+        when(orderDao.findIDsToArchive(OrderService.ARCHIVE_STATES, before, 100)).thenReturn(Arrays.asList(1, 2));
+
+        int archived = orderService.archiveOrders(before, 100);
+
+        assertEquals(2, archived);
+        verify(orderArchiveDao).copyFromOrders(Arrays.asList(1, 2));
+        verify(orderSlotDao).releaseByOrderIDIn(Arrays.asList(1, 2));
+        verify(orderDao).deleteByOrderIDIn(Arrays.asList(1, 2));
+    }
+
+    @Test
+    @DisplayName("测试通过订单 - 计入场馆使用汇总")
+    void confirmOrder_AddsUsage() {
+        when(orderDao.updateStateFrom(OrderService.STATE_WAIT, 1, OrderService.CONFIRM_FROM)).thenReturn(1);
+
+        orderService.confirmOrder(1);
+
+        verify(venueUsageDao).apply(Collections.singletonList(1), 1, OrderService.USAGE_STATES);
+    }
+
+    @Test
+    @DisplayName("测试拒绝已审核订单 - 从场馆使用汇总中扣除")
+    void rejectOrder_ApprovedOrderRemovesUsage() {
+        when(orderDao.updateStateFrom(OrderService.STATE_REJECT, 1, Collections.singletonList(OrderService.STATE_WAIT))).thenReturn(1);
+
+        orderService.rejectOrder(1);
+
+        verify(venueUsageDao).apply(eq(Collections.singletonList(1)), eq(-1), anyCollection());
+        verify(orderSlotDao).releaseByOrderID(1);
+    }
+
+    @Test
+    @DisplayName("测试拒绝未审核订单 - 不影响场馆使用汇总")
+    void rejectOrder_PendingOrderKeepsUsage() {
+        when(orderDao.updateStateFrom(OrderService.STATE_REJECT, 1, Collections.singletonList(OrderService.STATE_NO_AUDIT))).thenReturn(1);
+
+        orderService.rejectOrder(1);
+
+        verify(venueUsageDao, never()).apply(anyCollection(), anyInt(), anyCollection());
+        verify(orderSlotDao).releaseByOrderID(1);
+    }
+
+    @Test
+    @DisplayName("测试批量拒绝订单 - 只扣除其中已审核的订单")
+    void rejectOrders_RemovesUsageOfApprovedOnly() {
+        Order approved = new Order();
+        approved.setOrderID(2);
+        approved.setState(OrderService.STATE_WAIT);
+        when(orderDao.lockByStateIn(Arrays.asList(1, 2), Collections.singletonList(OrderService.STATE_WAIT))).thenReturn(Arrays.asList(2));
+        when(orderDao.findByOrderIDIn(Arrays.asList(1, 2))).thenReturn(Arrays.asList(testOrder, approved));
+        when(orderDao.updateStateIn(eq(OrderService.STATE_REJECT), eq(Arrays.asList(1, 2)), anyCollection())).thenReturn(2);
+
+        orderService.rejectOrders(Arrays.asList(1, 2));
+
+        verify(venueUsageDao).apply(eq(Arrays.asList(2)), eq(-1), anyCollection());
+    }
+
+    @Test
+    @DisplayName("测试分页查询已审核订单 - 只查已审核和已完成状态")
+    void findAuditOrder() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(orderDao.findAllByStateIn(OrderService.AUDITED_STATES, pageable)).thenReturn(orderPage);
+
+        assertSame(orderPage, orderService.findAuditOrder(pageable));
+    }
+
+    @Test
+    @DisplayName("测试逐个处理已审核订单 - 处理后从持久化上下文移除")
+    void forEachAuditOrder() {
+        Order finished = new Order();
+        finished.setOrderID(2);
+        when(orderDao.streamByStateIn(OrderService.AUDITED_STATES)).thenReturn(Stream.of(testOrder, finished));
+        List<Integer> visited = new ArrayList<>();
+
+        orderService.forEachAuditOrder(order -> visited.add(order.getOrderID()));
+
+        assertEquals(Arrays.asList(testOrder.getOrderID(), 2), visited);
+        verify(entityManager).detach(testOrder);
+        verify(entityManager).detach(finished);
+    }
+
+    @Test
+    @DisplayName("测试拒绝订单 - 释放的时段通知候补队列")
+    void rejectOrder_PublishesReleasedSlots() {
+        List<OrderSlot> slots = Arrays.asList(new OrderSlot(1, now, 1), new OrderSlot(1, now.plusHours(1), 1));
+        when(orderDao.updateStateFrom(OrderService.STATE_REJECT, 1, Collections.singletonList(OrderService.STATE_NO_AUDIT))).thenReturn(1);
+        when(orderSlotDao.findByOrderID(1)).thenReturn(slots);
+
+        orderService.rejectOrder(1);
+
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof SlotsReleasedEvent
+                && ((SlotsReleasedEvent) event).getSlots().equals(slots)));
+    }
+
+    @Test
+    @DisplayName("测试删除订单 - 没有占用时段时不发布事件")
+    void delOrder_NoSlotsNoEvent() {
+        when(orderSlotDao.findByOrderID(1)).thenReturn(Collections.emptyList());
+
+        orderService.delOrder(1);
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("测试周期预订 - 一次查询冲突并批量写入全部订单")
+    void submitSeries_InsertsAllOccurrences() {
+        LocalDate monday = LocalDate.now().plusDays(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+        when(venueService.findByVenueName("测试场馆")).thenReturn(testVenue);
+        when(orderSlotDao.findTaken(eq(testVenue.getVenueID()), anyCollection())).thenReturn(Collections.emptyList());
+        when(orderSeriesDao.save(any(OrderSeries.class))).thenAnswer(invocation -> {
+            OrderSeries series = invocation.getArgument(0);
+            series.setSeriesID(9);
+            return series;
+        });
+
+        OrderSeries series = orderService.submitSeries("测试场馆", DayOfWeek.MONDAY, LocalTime.of(10, 0), 2,
+                monday, monday.plusWeeks(3), "user1");
+
+        assertEquals(9, series.getSeriesID());
+        verify(orderSlotDao, times(1)).findTaken(eq(testVenue.getVenueID()), argThat(slots -> slots.size() == 8));
+        verify(orderBatchDao, times(1)).insertOrders(argThat(orders -> orders.size() == 4
+                && orders.get(3).getStartTime().equals(monday.plusWeeks(3).atTime(10, 0))
+                && orders.get(0).getState() == OrderService.STATE_NO_AUDIT));
+        verify(orderBatchDao, times(1)).insertSlots(argThat(slots -> slots.size() == 8));
+        verify(orderBatchDao, times(1)).insertSeriesItems(eq(9), argThat(orders -> orders.size() == 4));
+        verify(venueService, times(1)).findByVenueName("测试场馆");
+        verify(venueService, never()).findByVenueIDs(anyCollection());
+    }
+
+    @Test
+    @DisplayName("测试周期预订 - 任一时段被占用时整体失败")
+    void submitSeries_ConflictRejectsWholeSeries() {
+        LocalDate monday = LocalDate.now().plusDays(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+        when(venueService.findByVenueName("测试场馆")).thenReturn(testVenue);
+        when(orderSlotDao.findTaken(eq(testVenue.getVenueID()), anyCollection()))
+                .thenReturn(Collections.singletonList(monday.plusWeeks(1).atTime(11, 0)));
+
+        OrderConflictException e = assertThrows(OrderConflictException.class, () -> orderService.submitSeries("测试场馆",
+                DayOfWeek.MONDAY, LocalTime.of(10, 0), 2, monday, monday.plusWeeks(3), "user1"));
+
+        assertTrue(e.getMessage().contains(monday.plusWeeks(1).toString()));
+        verify(orderBatchDao, never()).insertOrders(anyList());
+        verify(orderSeriesDao, never()).save(any(OrderSeries.class));
+    }
+
+    @Test
+    @DisplayName("测试周期预订 - 日期范围无效或次数过多应被拒绝")
+    void submitSeries_InvalidRange() {
+        LocalDate today = LocalDate.now();
+        when(venueService.findByVenueName("测试场馆")).thenReturn(testVenue);
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.submitSeries("测试场馆",
+                DayOfWeek.MONDAY, LocalTime.of(10, 0), 2, today.plusDays(7), today, "user1"));
+        assertThrows(IllegalArgumentException.class, () -> orderService.submitSeries("测试场馆",
+                DayOfWeek.MONDAY, LocalTime.of(10, 0), 2, today, today.plusYears(2), "user1"));
+        verify(orderBatchDao, never()).insertOrders(anyList());
+    }
+
+    @Test
+    @DisplayName("测试取消周期预订 - 只能取消自己的周期预订")
+    void cancelSeries_OtherUser() {
+        OrderSeries series = new OrderSeries();
+        series.setSeriesID(9);
+        series.setUserID("user1");
+        when(orderSeriesDao.findById(9)).thenReturn(Optional.of(series));
+
+        assertThrows(RuntimeException.class, () -> orderService.cancelSeries(9, "user2"));
+        verify(orderSeriesDao, never()).findOrderIDs(anyInt());
+    }
+
+    @Test
+    @DisplayName("测试通过周期预订 - 批量通过系列中的订单")
+    void confirmSeries() {
+        when(orderSeriesDao.findOrderIDs(9)).thenReturn(Arrays.asList(1));
+        when(orderDao.findByOrderIDIn(Arrays.asList(1))).thenReturn(Arrays.asList(testOrder));
+        when(orderDao.updateStateIn(eq(OrderService.STATE_WAIT), eq(Arrays.asList(1)), anyCollection())).thenReturn(1);
+
+        Map<Integer, TransitionResult> results = orderService.confirmSeries(9);
+
+        assertEquals(TransitionResult.SUCCESS, results.get(1));
+    }
+}
@@ -0,0 +1,142 @@
+package com.demo.service.impl;
+
+import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.entity.vo.SubmissionTicket;
+import com.demo.exception.OrderConflictException;
+import com.demo.exception.SubmitQueueFullException;
+import com.demo.service.OrderService;
+import com.demo.service.VenueService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrderSubmitServiceImplTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private VenueService venueService;
+
+    @InjectMocks
+    private OrderSubmitServiceImpl orderSubmitService;
+
+    private LocalDateTime startTime;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(orderSubmitService, "enabled", true);
+        ReflectionTestUtils.setField(orderSubmitService, "capacity", 10);
+        ReflectionTestUtils.setField(orderSubmitService, "batchSize", 5);
+        ReflectionTestUtils.setField(orderSubmitService, "ticketTtlSeconds", 600L);
+        ReflectionTestUtils.setField(orderSubmitService, "shutdownTimeoutSeconds", 5L);
+        startTime = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setVenueName("测试场馆");
+        venue.setPrice(100);
+        when(venueService.findByVenueName("测试场馆")).thenReturn(venue);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        orderSubmitService.stop();
+    }
+
+    private SubmissionTicket await(SubmissionTicket ticket, String userID) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            SubmissionTicket current = orderSubmitService.findTicket(ticket.getTicketID(), userID);
+            if (!SubmissionTicket.STATE_PENDING.equals(current.getState())) {
+                return current;
+            }
+            Thread.sleep(100);
+        }
+        fail("提交未在规定时间内完成");
+        return null;
+    }
+
+    @Test
+    @DisplayName("测试异步提交订单 - 写线程批量写入后凭证变为成功")
+    void enqueue_WrittenByWriter() throws InterruptedException {
+        doAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            orders.get(0).setOrderID(42);
+            return null;
+        }).when(orderService).submitAll(anyList());
+        orderSubmitService.start();
+
+        SubmissionTicket ticket = orderSubmitService.enqueue("测试场馆", startTime, 2, "user1");
+        assertEquals(SubmissionTicket.STATE_PENDING, ticket.getState());
+
+        SubmissionTicket result = await(ticket, "user1");
+        assertEquals(SubmissionTicket.STATE_SUCCESS, result.getState());
+        assertEquals(42, result.getOrderID());
+    }
+
+    @Test
+    @DisplayName("测试异步提交订单 - 整批失败后逐个重试，冲突的订单失败")
+    void enqueue_BatchFailsThenRetriedSingly() throws InterruptedException {
+        doThrow(new OrderConflictException("所选时间段已被预订")).when(orderService).submitAll(anyList());
+        orderSubmitService.start();
+
+        SubmissionTicket ticket = orderSubmitService.enqueue("测试场馆", startTime, 2, "user1");
+
+        SubmissionTicket result = await(ticket, "user1");
+        assertEquals(SubmissionTicket.STATE_FAILED, result.getState());
+        assertEquals("所选时间段已被预订", result.getMessage());
+        verify(orderService, atLeast(2)).submitAll(anyList());
+    }
+
+    @Test
+    @DisplayName("测试查询其他用户的凭证 - 返回null")
+    void findTicket_OtherUser() {
+        orderSubmitService.start();
+
+        SubmissionTicket ticket = orderSubmitService.enqueue("测试场馆", startTime, 2, "user1");
+
+        assertNull(orderSubmitService.findTicket(ticket.getTicketID(), "user2"));
+    }
+
+    @Test
+    @DisplayName("测试未开启提交队列 - 不启动写线程，提交被拒绝")
+    void start_Disabled() {
+        ReflectionTestUtils.setField(orderSubmitService, "enabled", false);
+        orderSubmitService.start();
+
+        assertNull(ReflectionTestUtils.getField(orderSubmitService, "writer"));
+        assertThrows(SubmitQueueFullException.class, () -> orderSubmitService.enqueue("测试场馆", startTime, 2, "user1"));
+    }
+
+    @Test
+    @DisplayName("测试写线程 - 为守护线程")
+    void start_WriterIsDaemon() {
+        orderSubmitService.start();
+
+        assertTrue(((Thread) ReflectionTestUtils.getField(orderSubmitService, "writer")).isDaemon());
+    }
+
+    @Test
+    @DisplayName("测试队列已满 - 抛出SubmitQueueFullException")
+    void enqueue_QueueFull() throws InterruptedException {
+        ReflectionTestUtils.setField(orderSubmitService, "capacity", 1);
+        orderSubmitService.start();
+        orderSubmitService.stop();
+
+        assertThrows(SubmitQueueFullException.class, () -> orderSubmitService.enqueue("测试场馆", startTime, 2, "user1"));
+    }
+}
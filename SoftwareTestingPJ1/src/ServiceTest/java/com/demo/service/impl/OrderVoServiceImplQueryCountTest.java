@@ -0,0 +1,89 @@
+package com.demo.service.impl;
+
+import com.demo.dao.OrderDao;
+import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.entity.vo.OrderVo;
+import com.demo.service.OrderService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 在内存数据库上统计returnVo实际执行的SQL条数
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database=h2",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({OrderVoServiceImpl.class, VenueServiceImpl.class})
+class OrderVoServiceImplQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderDao orderDao;
+
+    @Autowired
+    private OrderVoServiceImpl orderVoService;
+
+    private Statistics statistics;
+
+    private int[] venueIDs;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        venueIDs = new int[3];
+        for (int i = 0; i < venueIDs.length; i++) {
+            Venue venue = new Venue(0, "场馆" + i, "", 100, "", "", "09:00", "22:00");
+            venueIDs[i] = entityManager.persistAndGetId(venue, Integer.class);
+        }
+    }
+
+    private long statementsForOrders(int count) {
+        orderDao.deleteAll();
+        for (int i = 0; i < count; i++) {
+            entityManager.persist(new Order(0, "user" + i, venueIDs[i % venueIDs.length], OrderService.STATE_WAIT,
+                    LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 100));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        List<Order> orders = orderDao.findAll();
+
+        statistics.clear();
+        List<OrderVo> vos = orderVoService.returnVo(orders);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(count, vos.size());
+        assertTrue(vos.stream().allMatch(vo -> vo.getVenueName() != null));
+        return statements;
+    }
+
+    @Test
+    @DisplayName("测试订单VO列表 - SQL条数与订单数量无关")
+    void returnVo_ConstantStatementCount() {
+        long few = statementsForOrders(3);
+        // 场馆已进入缓存前后各测一次，缓存命中时不再查询
+        long many = statementsForOrders(50);
+
+        assertTrue(few <= 1, "3个订单执行了" + few + "条SQL");
+        assertTrue(many <= 1, "50个订单执行了" + many + "条SQL");
+    }
+}
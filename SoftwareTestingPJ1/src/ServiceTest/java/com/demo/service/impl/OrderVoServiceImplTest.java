@@ -1,11 +1,11 @@
 package com.demo.service.impl;
 
 import com.demo.dao.OrderDao;
-import com.demo.dao.VenueDao;
 import com.demo.entity.Order;
 import com.demo.entity.Venue;
 import com.demo.entity.vo.OrderVo;
 import com.demo.service.OrderService;
+import com.demo.service.VenueService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,9 +15,11 @@ import org.mockito.MockitoAnnotations;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class OrderVoServiceImplTest {
@@ -26,7 +28,7 @@ class OrderVoServiceImplTest {
     private OrderDao orderDao;
 
     @Mock
-    private VenueDao venueDao;
+    private VenueService venueService;
 
     @InjectMocks
     private OrderVoServiceImpl orderVoService;
@@ -68,7 +70,7 @@ class OrderVoServiceImplTest {
     void returnOrderVoByOrderID_Success() {
         // 设置模拟行为
         when(orderDao.findByOrderID(1)).thenReturn(testOrder);
-        when(venueDao.findByVenueID(1)).thenReturn(testVenue);
+        when(venueService.findByVenueID(1)).thenReturn(testVenue);
         
         // 执行测试
         OrderVo result = orderVoService.returnOrderVoByOrderID(1);
@@ -85,33 +87,44 @@ class OrderVoServiceImplTest {
         
         // 验证交互
         verify(orderDao, times(1)).findByOrderID(1);
-        verify(venueDao, times(1)).findByVenueID(1);
+        verify(venueService, times(1)).findByVenueID(1);
     }
 
     @Test
     @DisplayName("测试将订单列表转换为OrderVo列表 - 正常情况")
     void returnVo_Success() {
         // 准备测试数据
+        Order second = new Order();
+        second.setOrderID(2);
+        second.setUserID("test2");
+        second.setVenueID(1);
+        second.setState(OrderService.STATE_WAIT);
+        second.setStartTime(now.plusDays(2));
+        second.setHours(1);
+        second.setTotal(100);
         List<Order> orderList = new ArrayList<>();
         orderList.add(testOrder);
-        
+        orderList.add(second);
+
         // 设置模拟行为
-        when(orderDao.findByOrderID(1)).thenReturn(testOrder);
-        when(venueDao.findByVenueID(1)).thenReturn(testVenue);
-        
+        when(venueService.findByVenueIDs(anySet())).thenReturn(Collections.singletonMap(1, testVenue));
+
         // 执行测试
         List<OrderVo> result = orderVoService.returnVo(orderList);
-        
+
         // 验证结果
         assertNotNull(result);
-        assertEquals(1, result.size());
+        assertEquals(2, result.size());
         assertEquals(1, result.get(0).getOrderID());
         assertEquals("test", result.get(0).getUserID());
         assertEquals("测试场馆", result.get(0).getVenueName());
-        
-        // 验证交互
-        verify(orderDao, times(1)).findByOrderID(1);
-        verify(venueDao, times(1)).findByVenueID(1);
+        assertEquals(2, result.get(1).getOrderID());
+        assertEquals("测试场馆", result.get(1).getVenueName());
+
+        // 验证交互：整个列表只批量取一次场馆，不再回查订单
+        verify(venueService, times(1)).findByVenueIDs(Collections.singleton(1));
+        verifyNoMoreInteractions(venueService);
+        verifyNoMoreInteractions(orderDao);
     }
 
     @Test
@@ -128,7 +141,7 @@ class OrderVoServiceImplTest {
         assertEquals(0, result.size());
         
         // 验证交互
-        verify(orderDao, never()).findByOrderID(anyInt());
-        verify(venueDao, never()).findByVenueID(anyInt());
+        verifyNoMoreInteractions(orderDao);
+        verifyNoMoreInteractions(venueService);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.demo.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelQueryServiceImplTest {
+
+    private ParallelQueryServiceImpl parallelQueryService;
+
+    @BeforeEach
+    void setUp() {
+        parallelQueryService = new ParallelQueryServiceImpl();
+        ReflectionTestUtils.setField(parallelQueryService, "threads", 2);
+        ReflectionTestUtils.setField(parallelQueryService, "queueCapacity", 10);
+        ReflectionTestUtils.setField(parallelQueryService, "timeoutMs", 2000L);
+        parallelQueryService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelQueryService.stop();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("测试并发查询 - 两个查询同时执行")
+    void supply_RunsConcurrently() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CompletableFuture<Boolean> first = parallelQueryService.supply(() -> await(bothStarted));
+        CompletableFuture<Boolean> second = parallelQueryService.supply(() -> await(bothStarted));
+
+        assertTrue(parallelQueryService.await(first));
+        assertTrue(parallelQueryService.await(second));
+    }
+
+    @Test
+    @DisplayName("测试并发查询 - 请求上下文不传到查询线程")
+    void supply_DoesNotPropagateRequestContext() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRequestURI("/message_list");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        assertNull(parallelQueryService.await(parallelQueryService.supply(RequestContextHolder::getRequestAttributes)));
+    }
+
+    @Test
+    @DisplayName("测试等待结果 - 超时后中断正在执行的查询")
+    void await_TimeoutInterruptsQuery() throws InterruptedException {
+        ReflectionTestUtils.setField(parallelQueryService, "timeoutMs", 100L);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<Boolean> future = parallelQueryService.supply(() -> {
+            try {
+                return new CountDownLatch(1).await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                return false;
+            }
+        });
+
+        assertThrows(RuntimeException.class, () -> parallelQueryService.await(future));
+        assertTrue(future.isCancelled());
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("测试等待结果 - 超时抛出异常，查询异常原样抛出")
+    void await_TimeoutAndFailure() {
+        ReflectionTestUtils.setField(parallelQueryService, "timeoutMs", 100L);
+        CountDownLatch never = new CountDownLatch(1);
+        RuntimeException timeout = assertThrows(RuntimeException.class,
+                () -> parallelQueryService.await(parallelQueryService.supply(() -> await(never))));
+        assertEquals("查询超时", timeout.getMessage());
+        never.countDown();
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> parallelQueryService.await(parallelQueryService.supply(() -> {
+                    throw new IllegalStateException("留言状态转换不允许");
+                })));
+        assertEquals("留言状态转换不允许", failure.getMessage());
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.demo.service.impl;
+
+import com.demo.config.RateLimitProperties;
+import com.demo.entity.vo.RateLimitStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitServiceImplTest {
+
+    private RateLimitServiceImpl rateLimitService;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Rule order = new RateLimitProperties.Rule();
+        order.setPath("/addOrder.do");
+        order.setCapacity(3);
+        order.setPerSecond(0.01);
+        order.setGlobalCapacity(5);
+        order.setGlobalPerSecond(0.01);
+        RateLimitProperties.Rule register = new RateLimitProperties.Rule();
+        register.setPath("/register.do");
+        register.setCapacity(1);
+        register.setPerSecond(0.01);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRules(Arrays.asList(order, register));
+
+        rateLimitService = new RateLimitServiceImpl();
+        ReflectionTestUtils.setField(rateLimitService, "properties", properties);
+        rateLimitService.init();
+    }
+
+    @Test
+    @DisplayName("测试单个用户限流 - 超过容量后拒绝，其他用户不受影响")
+    void tryAcquire_PerClient() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimitService.tryAcquire("/addOrder.do", "user:a"));
+        }
+        assertEquals(100, rateLimitService.tryAcquire("/addOrder.do", "user:a"));
+        assertEquals(0, rateLimitService.tryAcquire("/addOrder.do", "user:b"));
+    }
+
+    @Test
+    @DisplayName("测试全局限流 - 所有客户端合计超过全局容量后拒绝")
+    void tryAcquire_Global() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimitService.tryAcquire("/addOrder.do", "ip:" + i));
+        }
+        assertTrue(rateLimitService.tryAcquire("/addOrder.do", "ip:9") > 0);
+
+        RateLimitStats stats = rateLimitService.findStats().get(0);
+        assertEquals(5, stats.getAllowed());
+        assertEquals(1, stats.getRejectedByGlobal());
+        assertEquals(0, stats.getRejectedByClient());
+    }
+
+    @Test
+    @DisplayName("测试全局限流 - 被全局令牌桶拒绝的请求不占用客户端的令牌")
+    void tryAcquire_GlobalRejectRefundsClient() {
+        for (int i = 0; i < 5; i++) {
+            rateLimitService.tryAcquire("/addOrder.do", "ip:" + i);
+        }
+        for (int i = 0; i < 4; i++) {
+            assertTrue(rateLimitService.tryAcquire("/addOrder.do", "user:a") > 0);
+        }
+
+        RateLimitStats stats = rateLimitService.findStats().get(0);
+        assertEquals(4, stats.getRejectedByGlobal());
+        assertEquals(0, stats.getRejectedByClient());
+        // user:a的令牌桶已退还为满，被丢弃
+        rateLimitService.evictIdle();
+        assertEquals(5, rateLimitService.findStats().get(0).getClients());
+    }
+
+    @Test
+    @DisplayName("测试未配置的路径 - 直接放行")
+    void tryAcquire_NoRule() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, rateLimitService.tryAcquire("/getOrderList.do", "user:a"));
+        }
+    }
+
+    @Test
+    @DisplayName("测试限流计数 - 按接口统计，已装满的令牌桶被丢弃")
+    void findStats() {
+        rateLimitService.tryAcquire("/register.do", "ip:1");
+        rateLimitService.tryAcquire("/register.do", "ip:1");
+
+        List<RateLimitStats> stats = rateLimitService.findStats();
+        assertEquals(2, stats.size());
+        assertEquals("/register.do", stats.get(1).getPath());
+        assertEquals(1, stats.get(1).getAllowed());
+        assertEquals(1, stats.get(1).getRejectedByClient());
+        assertEquals(1, stats.get(1).getClients());
+
+        rateLimitService.evictIdle();
+        assertEquals(1, rateLimitService.findStats().get(1).getClients());
+    }
+}
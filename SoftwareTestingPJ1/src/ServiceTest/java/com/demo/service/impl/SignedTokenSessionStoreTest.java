@@ -0,0 +1,68 @@
+package com.demo.service.impl;
+
+import com.demo.entity.vo.SessionPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignedTokenSessionStoreTest {
+
+    private static final String KEY = "0123456789abcdef0123456789abcdef";
+
+    private SignedTokenSessionStore sessionStore;
+
+    private SessionPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        sessionStore = newStore(KEY);
+        principal = new SessionPrincipal(1, "user1", "测试:用户", null, 0);
+    }
+
+    private static SignedTokenSessionStore newStore(String key) {
+        SignedTokenSessionStore store = new SignedTokenSessionStore();
+        ReflectionTestUtils.setField(store, "signingKey", key);
+        ReflectionTestUtils.setField(store, "ttlSeconds", 600L);
+        store.init();
+        return store;
+    }
+
+    @Test
+    @DisplayName("测试签名令牌 - 校验签名后还原用户身份")
+    void createFind() {
+        String token = sessionStore.create(principal);
+
+        assertEquals(principal, sessionStore.find(token));
+        assertEquals(principal, newStore(KEY).find(token));
+    }
+
+    @Test
+    @DisplayName("测试签名令牌 - 内容或签名被修改、密钥不同时无效")
+    void find_Tampered() {
+        String token = sessionStore.create(principal);
+        String admin = sessionStore.create(new SessionPrincipal(1, "user1", "测试:用户", null, 1));
+        String forged = admin.substring(0, admin.indexOf('.')) + token.substring(token.indexOf('.'));
+
+        assertNull(sessionStore.find(forged));
+        assertNull(sessionStore.find(token + "x"));
+        assertNull(sessionStore.find("abc"));
+        assertNull(newStore(KEY.replace('0', '1')).find(token));
+    }
+
+    @Test
+    @DisplayName("测试签名令牌 - 过期后无效")
+    void find_Expired() {
+        ReflectionTestUtils.setField(sessionStore, "ttlSeconds", 0L);
+
+        assertNull(sessionStore.find(sessionStore.create(principal)));
+    }
+
+    @Test
+    @DisplayName("测试签名密钥 - 少于32字节时拒绝启动")
+    void init_ShortKey() {
+        assertThrows(IllegalStateException.class, () -> newStore("short"));
+    }
+}
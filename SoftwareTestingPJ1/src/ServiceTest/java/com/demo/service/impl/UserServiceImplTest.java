@@ -2,6 +2,7 @@ package com.demo.service.impl;
 
 import com.demo.dao.UserDao;
 import com.demo.entity.User;
+import com.demo.entity.vo.UserProfile;
 import com.demo.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,9 +17,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -40,6 +45,8 @@ class UserServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(userService, "capacity", 10);
+        ReflectionTestUtils.setField(userService, "expireSeconds", 300L);
         
         // 创建普通用户
         normalUser = new User();
@@ -361,4 +368,46 @@ class UserServiceImplTest {
                       "系统应该明确说明用户ID已存在");
         }
     }
-} 
\ No newline at end of file
+
+    // 用户展示信息缓存测试
+
+    @Test
+    @DisplayName("测试用户展示信息缓存 - 已缓存的用户不再查询数据库")
+    void findProfiles_Cached() {
+        when(userDao.findByUserIDIn(anyCollection())).thenReturn(Collections.singletonList(normalUser));
+
+        Map<String, UserProfile> first = userService.findProfiles(Arrays.asList("test", "missing"));
+        UserProfile second = userService.findProfile("test");
+
+        assertEquals("Test User", first.get("test").getUserName());
+        assertFalse(first.containsKey("missing"));
+        assertEquals("Test User", second.getUserName());
+        verify(userDao, times(1)).findByUserIDIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("测试用户展示信息缓存 - 修改用户后重新读取，包括修改了userID")
+    void findProfile_InvalidatedByUpdate() {
+        when(userDao.findByUserIDIn(anyCollection())).thenReturn(Collections.singletonList(normalUser));
+        userService.findProfile("test");
+
+        User renamed = new User(1, "test2", "New Name", "password", null, null, 0, "new.jpg");
+        userService.updateUser(renamed);
+        when(userDao.findByUserIDIn(anyCollection())).thenReturn(Collections.emptyList());
+
+        assertNull(userService.findProfile("test"));
+        verify(userDao, times(2)).findByUserIDIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("测试用户展示信息缓存 - 删除用户后不再返回缓存")
+    void findProfile_InvalidatedByDelete() {
+        when(userDao.findByUserIDIn(anyCollection())).thenReturn(Collections.singletonList(normalUser));
+        userService.findProfile("test");
+
+        userService.delByID(1);
+        when(userDao.findByUserIDIn(anyCollection())).thenReturn(Collections.emptyList());
+
+        assertNull(userService.findProfile("test"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.demo.service.impl;
+
+import com.demo.dao.VenueUsageDao;
+import com.demo.entity.VenueUsage;
+import com.demo.entity.vo.VenueDailyUsage;
+import com.demo.entity.vo.VenueHeatmap;
+import com.demo.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class VenueReportServiceImplTest {
+
+    @Mock
+    private VenueUsageDao venueUsageDao;
+
+    @Mock
+    private OrderService orderService;
+
+    @InjectMocks
+    private VenueReportServiceImpl venueReportService;
+
+    private LocalDate from;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        from = LocalDate.of(2020, 1, 1);
+        when(venueUsageDao.findByVenueIDAndUsageDateBetween(1, from, from.plusDays(2))).thenReturn(Arrays.asList(
+                new VenueUsage(1, from, 10, 1, 1, 150),
+                new VenueUsage(1, from, 11, 1, 0, 100),
+                new VenueUsage(1, from.plusDays(2), 9, 2, 2, 200)));
+    }
+
+    @Test
+    @DisplayName("测试按天汇总营收 - 没有订单的日期为0")
+    void findDailyUsage() {
+        List<VenueDailyUsage> daily = venueReportService.findDailyUsage(1, from, from.plusDays(2));
+
+        assertEquals(3, daily.size());
+        assertEquals(250, daily.get(0).getRevenue());
+        assertEquals(2, daily.get(0).getBookedHours());
+        assertEquals(1, daily.get(0).getOrders());
+        assertEquals(0, daily.get(1).getRevenue());
+        assertEquals(200, daily.get(2).getRevenue());
+    }
+
+    @Test
+    @DisplayName("测试占用热力图 - 按天和小时展开")
+    void findHeatmap() {
+        VenueHeatmap heatmap = venueReportService.findHeatmap(1, from, from.plusDays(2));
+
+        assertEquals(3, heatmap.getBookedHours().length);
+        assertEquals(1, heatmap.getBookedHours()[0][10]);
+        assertEquals(2, heatmap.getBookedHours()[2][9]);
+        assertEquals(0, heatmap.getBookedHours()[1][9]);
+    }
+
+    @Test
+    @DisplayName("测试查询范围 - 结束日期早于开始日期或范围过大应被拒绝")
+    void invalidRange() {
+        assertThrows(IllegalArgumentException.class, () -> venueReportService.findDailyUsage(1, from, from.minusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> venueReportService.findHeatmap(1, from, from.plusYears(2)));
+    }
+
+    @Test
+    @DisplayName("测试核对汇总 - 逐天重新计算")
+    void reconcile() {
+        int days = venueReportService.reconcile(from, from.plusDays(2));
+
+        assertEquals(3, days);
+        verify(orderService).reconcileUsage(from);
+        verify(orderService).reconcileUsage(from.plusDays(1));
+        verify(orderService).reconcileUsage(from.plusDays(2));
+    }
+}
@@ -2,19 +2,26 @@ package com.demo.service.impl;
 
 import com.demo.dao.VenueDao;
 import com.demo.entity.Venue;
+import com.demo.entity.vo.VenueCacheStats;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -25,6 +32,9 @@ class VenueServiceImplTest {
     @Mock
     private VenueDao venueDao;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private VenueServiceImpl venueService;
 
@@ -35,6 +45,8 @@ class VenueServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(venueService, "capacity", 10);
+        ReflectionTestUtils.setField(venueService, "expireSeconds", 600L);
 
         // 创建测试场馆
         testVenue = new Venue();
@@ -60,7 +72,7 @@ class VenueServiceImplTest {
     @DisplayName("测试根据ID查询场馆 - 场馆存在")
     void findByVenueID_VenueExists() {
         // 设置模拟行为
-        when(venueDao.getOne(1)).thenReturn(testVenue);
+        when(venueDao.findByVenueID(1)).thenReturn(testVenue);
 
         // 执行测试
         Venue result = venueService.findByVenueID(1);
@@ -74,8 +86,8 @@ class VenueServiceImplTest {
     @Test
     @DisplayName("测试根据ID查询场馆 - 场馆不存在")
     void findByVenueID_VenueNotExists() {
-        // 设置模拟行为 - 不存在的场馆ID抛出异常
-        when(venueDao.getOne(999)).thenThrow(new javax.persistence.EntityNotFoundException("Venue not found"));
+        // 设置模拟行为 - 不存在的场馆ID查不到记录
+        when(venueDao.findByVenueID(999)).thenReturn(null);
         
         // 执行测试并验证异常
         assertThrows(javax.persistence.EntityNotFoundException.class, () -> {
@@ -87,7 +99,7 @@ class VenueServiceImplTest {
     @DisplayName("测试根据ID查询场馆 - ID为负数")
     void findByVenueID_NegativeID() {
         // 设置模拟行为 - 负数ID抛出异常
-        when(venueDao.getOne(-1)).thenThrow(new IllegalArgumentException("ID must be positive"));
+        when(venueDao.findByVenueID(-1)).thenThrow(new IllegalArgumentException("ID must be positive"));
         
         // 执行测试并验证异常
         assertThrows(IllegalArgumentException.class, () -> {
@@ -99,7 +111,7 @@ class VenueServiceImplTest {
     @DisplayName("测试根据ID查询场馆 - ID为0")
     void findByVenueID_ZeroID() {
         // 设置模拟行为 - ID为0抛出异常
-        when(venueDao.getOne(0)).thenThrow(new IllegalArgumentException("ID must be positive"));
+        when(venueDao.findByVenueID(0)).thenThrow(new IllegalArgumentException("ID must be positive"));
         
         // 执行测试并验证异常
         assertThrows(IllegalArgumentException.class, () -> {
@@ -107,6 +119,79 @@ class VenueServiceImplTest {
         });
     }
     
+    // 场馆缓存测试
+
+    @Test
+    @DisplayName("测试场馆缓存 - 重复查询只读一次库，返回的是副本")
+    void findByVenueID_Cached() {
+        when(venueDao.findByVenueID(1)).thenReturn(testVenue);
+
+        Venue first = venueService.findByVenueID(1);
+        first.setPrice(999);
+        Venue second = venueService.findByVenueID(1);
+        Venue byName = venueService.findByVenueName("测试场馆");
+
+        assertEquals(100, second.getPrice());
+        assertEquals(1, byName.getVenueID());
+        verify(venueDao, times(1)).findByVenueID(1);
+        verify(venueDao, never()).findByVenueName(anyString());
+        VenueCacheStats stats = venueService.findCacheStats();
+        assertEquals(1, stats.getSize());
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+    }
+
+    @Test
+    @DisplayName("测试场馆缓存 - 修改和删除场馆后重新读库")
+    void cache_InvalidatedByWrites() {
+        when(venueDao.findByVenueID(1)).thenReturn(testVenue);
+        venueService.findByVenueID(1);
+
+        Venue renamed = new Venue(1, "改名后的场馆", null, 150, null, null, null, null);
+        venueService.update(renamed);
+        when(venueDao.findByVenueID(1)).thenReturn(renamed);
+        when(venueDao.findByVenueName("测试场馆")).thenReturn(null);
+
+        assertEquals(150, venueService.findByVenueID(1).getPrice());
+        assertNull(venueService.findByVenueName("测试场馆"));
+
+        venueService.delById(1);
+        when(venueDao.findByVenueID(1)).thenReturn(null);
+        assertThrows(javax.persistence.EntityNotFoundException.class, () -> venueService.findByVenueID(1));
+        assertEquals(2, venueService.findCacheStats().getInvalidations());
+    }
+
+    @Test
+    @DisplayName("测试批量查询场馆 - 只查询未缓存的场馆")
+    void findByVenueIDs_LoadsMissingOnly() {
+        Venue other = new Venue(2, "其他场馆", null, 80, null, null, null, null);
+        when(venueDao.findByVenueID(1)).thenReturn(testVenue);
+        when(venueDao.findAllById(anyIterable())).thenReturn(Collections.singletonList(other));
+        venueService.findByVenueID(1);
+
+        Map<Integer, Venue> result = venueService.findByVenueIDs(Arrays.asList(1, 2));
+
+        assertEquals("测试场馆", result.get(1).getVenueName());
+        assertEquals("其他场馆", result.get(2).getVenueName());
+        verify(venueDao, times(1)).findAllById(new HashSet<>(Collections.singletonList(2)));
+    }
+
+    @Test
+    @DisplayName("测试场馆缓存 - 超过容量时淘汰最久未使用的场馆")
+    void cache_BoundedByCapacity() {
+        ReflectionTestUtils.setField(venueService, "capacity", 1);
+        Venue other = new Venue(2, "其他场馆", null, 80, null, null, null, null);
+        when(venueDao.findByVenueID(1)).thenReturn(testVenue);
+        when(venueDao.findByVenueID(2)).thenReturn(other);
+
+        venueService.findByVenueID(1);
+        venueService.findByVenueID(2);
+        venueService.findByVenueID(1);
+
+        verify(venueDao, times(2)).findByVenueID(1);
+        assertEquals(1, venueService.findCacheStats().getSize());
+    }
+
     // 根据名称查询场馆测试
     
     @Test
@@ -0,0 +1,58 @@
+package com.demo.service.impl;
+
+import com.demo.dao.WaitlistDao;
+import com.demo.entity.OrderSlot;
+import com.demo.entity.Waitlist;
+import com.demo.event.SlotsReleasedEvent;
+import com.demo.exception.OrderConflictException;
+import com.demo.service.WaitlistService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WaitlistPromoterTest {
+
+    @Mock
+    private WaitlistDao waitlistDao;
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @InjectMocks
+    private WaitlistPromoter waitlistPromoter;
+
+    private LocalDateTime slotStart;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        slotStart = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    @DisplayName("测试时段释放 - 按登记顺序转换，冲突的候补跳过")
+    void onSlotsReleased() {
+        Waitlist first = new Waitlist(1, "user1", 1, slotStart, 3, WaitlistService.STATE_WAITING, 0, LocalDateTime.now());
+        Waitlist second = new Waitlist(2, "user2", 1, slotStart, 2, WaitlistService.STATE_WAITING, 0, LocalDateTime.now());
+        when(waitlistDao.findOverlapping(eq(1), eq(WaitlistService.STATE_WAITING), eq(slotStart), eq(slotStart.plusHours(2)), any(LocalDateTime.class)))
+                .thenReturn(Arrays.asList(first, second));
+        when(waitlistService.promote(1)).thenThrow(new OrderConflictException("所选时间段已被预订"));
+        when(waitlistService.promote(2)).thenReturn(42);
+
+        waitlistPromoter.onSlotsReleased(new SlotsReleasedEvent(Arrays.asList(
+                new OrderSlot(1, slotStart.plusHours(1), 7), new OrderSlot(1, slotStart, 7))));
+
+        verify(waitlistService).promote(1);
+        verify(waitlistService).promote(2);
+        verify(waitlistDao, times(1)).findOverlapping(anyInt(), anyInt(), any(), any(), any());
+    }
+}
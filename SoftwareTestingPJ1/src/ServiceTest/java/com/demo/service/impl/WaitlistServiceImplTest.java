@@ -0,0 +1,138 @@
+package com.demo.service.impl;
+
+import com.demo.dao.WaitlistDao;
+import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.entity.Waitlist;
+import com.demo.exception.OrderConflictException;
+import com.demo.service.AvailabilityService;
+import com.demo.service.OrderService;
+import com.demo.service.VenueService;
+import com.demo.service.WaitlistService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WaitlistServiceImplTest {
+
+    @Mock
+    private WaitlistDao waitlistDao;
+
+    @Mock
+    private VenueService venueService;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @InjectMocks
+    private WaitlistServiceImpl waitlistService;
+
+    private LocalDateTime startTime;
+    private Waitlist waitlist;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        startTime = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setVenueName("测试场馆");
+        when(venueService.findByVenueName("测试场馆")).thenReturn(venue);
+        when(waitlistDao.save(any(Waitlist.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        waitlist = new Waitlist(5, "user1", 1, startTime, 2, WaitlistService.STATE_WAITING, 0, LocalDateTime.now());
+        when(waitlistDao.findById(5)).thenReturn(Optional.of(waitlist));
+    }
+
+    @Test
+    @DisplayName("测试登记候补 - 时段已被占用时登记成功")
+    void join_SlotTaken() {
+        when(availabilityService.findBusySlots(1, startTime.toLocalDate())).thenReturn(1 << 11);
+
+        Waitlist joined = waitlistService.join("user1", "测试场馆", startTime, 2);
+
+        assertEquals(WaitlistService.STATE_WAITING, joined.getState());
+        assertEquals(1, joined.getVenueID());
+        verify(waitlistDao).save(any(Waitlist.class));
+    }
+
+    @Test
+    @DisplayName("测试登记候补 - 时段空闲时应直接预订")
+    void join_SlotFree() {
+        when(availabilityService.findBusySlots(1, startTime.toLocalDate())).thenReturn(1 << 9);
+
+        assertThrows(IllegalArgumentException.class, () -> waitlistService.join("user1", "测试场馆", startTime, 2));
+        verify(waitlistDao, never()).save(any(Waitlist.class));
+    }
+
+    @Test
+    @DisplayName("测试登记候补 - 重复登记返回已有的候补")
+    void join_Duplicate() {
+        when(availabilityService.findBusySlots(1, startTime.toLocalDate())).thenReturn(1 << 10);
+        when(waitlistDao.findByUserIDAndVenueIDAndStartTimeAndHoursAndState("user1", 1, startTime, 2, WaitlistService.STATE_WAITING))
+                .thenReturn(waitlist);
+
+        assertSame(waitlist, waitlistService.join("user1", "测试场馆", startTime, 2));
+        verify(waitlistDao, never()).save(any(Waitlist.class));
+    }
+
+    @Test
+    @DisplayName("测试取消候补 - 只能取消自己的候补")
+    void cancel() {
+        when(waitlistDao.updateStateFrom(WaitlistService.STATE_CANCELLED, 0, 5, WaitlistService.STATE_WAITING)).thenReturn(1);
+
+        waitlistService.cancel(5, "user1");
+        assertThrows(RuntimeException.class, () -> waitlistService.cancel(5, "user2"));
+        verify(waitlistDao, times(1)).updateStateFrom(anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("测试候补转订单 - 创建未审核订单并记录orderID")
+    void promote() {
+        when(waitlistDao.updateStateFrom(WaitlistService.STATE_PROMOTED, 0, 5, WaitlistService.STATE_WAITING)).thenReturn(1);
+        doAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            orders.get(0).setOrderID(42);
+            return null;
+        }).when(orderService).submitAll(anyList());
+
+        assertEquals(42, waitlistService.promote(5));
+
+        verify(orderService).submitAll(argThat(orders -> orders.size() == 1
+                && "user1".equals(orders.get(0).getUserID()) && orders.get(0).getHours() == 2));
+        verify(waitlistDao).updateStateFrom(WaitlistService.STATE_PROMOTED, 42, 5, WaitlistService.STATE_PROMOTED);
+    }
+
+    @Test
+    @DisplayName("测试候补转订单 - 已取消的候补不下单")
+    void promote_AlreadyHandled() {
+        when(waitlistDao.updateStateFrom(WaitlistService.STATE_PROMOTED, 0, 5, WaitlistService.STATE_WAITING)).thenReturn(0);
+
+        assertEquals(0, waitlistService.promote(5));
+        verify(orderService, never()).submitAll(anyList());
+    }
+
+    @Test
+    @DisplayName("测试候补转订单 - 时段仍被占用时抛出冲突异常")
+    void promote_StillTaken() {
+        when(waitlistDao.updateStateFrom(WaitlistService.STATE_PROMOTED, 0, 5, WaitlistService.STATE_WAITING)).thenReturn(1);
+        doThrow(new OrderConflictException("所选时间段已被预订")).when(orderService).submitAll(anyList());
+
+        assertThrows(OrderConflictException.class, () -> waitlistService.promote(5));
+    }
+}
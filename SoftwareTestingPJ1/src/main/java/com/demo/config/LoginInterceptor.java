@@ -0,0 +1,40 @@
+package com.demo.config;
+
+import com.demo.entity.vo.SessionPrincipal;
+import com.demo.exception.LoginException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+/**
+ * 需要用户登录的接口统一在这里检查，登录用户放在请求属性LOGIN_USER中，
+ * 控制器用@RequestAttribute(LoginInterceptor.LOGIN_USER)取得
+ */
+@Component
+public class LoginInterceptor implements HandlerInterceptor {
+    public static final String LOGIN_USER="loginUser";
+
+    /**
+     * 需要登录的路径，新增需要登录的接口时加在这里
+     */
+    static final String[] PATHS={
+            "/order_manage","/getOrderList.do","/addOrder.do","/modifyOrder",
+            "/addOrderSeries.do","/getOrderSeries.do","/cancelOrderSeries.do","/getSubmitTicket.do",
+            "/message_list","/message/findUserList",
+            "/waitlist/**"
+    };
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        HttpSession session=request.getSession(false);
+        Object user=session==null ? null : session.getAttribute("user");
+        if(!(user instanceof SessionPrincipal)) {
+            throw new LoginException("请登录！");
+        }
+        request.setAttribute(LOGIN_USER,user);
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+package com.demo.config;
+
+import com.demo.entity.vo.SessionPrincipal;
+import com.demo.service.RateLimitService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+/**
+ * 在进入控制器之前限流，超过限额的请求直接返回429，不再访问数据库
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+    @Autowired
+    private RateLimitService rateLimitService;
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        String path=request.getRequestURI().substring(request.getContextPath().length());
+        long retryAfter=rateLimitService.tryAcquire(path,clientKey(request));
+        if(retryAfter==0) {
+            return true;
+        }
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER,String.valueOf(retryAfter));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write("请求过于频繁，请稍后再试");
+        return false;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        HttpSession session=request.getSession(false);
+        Object user=session==null ? null : session.getAttribute("user");
+        if(user!=null) {
+            return "user:"+((SessionPrincipal) user).getUserID();
+        }
+        if(properties.isTrustForwardedFor()) {
+            String forwardedFor=request.getHeader("X-Forwarded-For");
+            if(forwardedFor!=null&&!forwardedFor.isEmpty()) {
+                return "ip:"+forwardedFor.split(",")[0].trim();
+            }
+        }
+        return "ip:"+request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,50 @@
+package com.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 写接口的限流配置，对应application.yml中的demo.rate-limit
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "demo.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled=true;
+
+    /**
+     * 为true时按X-Forwarded-For的第一个地址识别未登录的客户端，只应在可信的反向代理之后开启
+     */
+    private boolean trustForwardedFor=false;
+
+    private List<Rule> rules=new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        /**
+         * 接口路径，支持Ant风格通配符
+         */
+        private String path;
+
+        /**
+         * 每个用户（未登录时每个IP）的令牌桶容量，即允许的突发请求数
+         */
+        private int capacity=10;
+
+        /**
+         * 每个用户每秒补充的令牌数
+         */
+        private double perSecond=1;
+
+        /**
+         * 所有客户端共用的令牌桶容量和补充速度
+         */
+        private int globalCapacity=200;
+
+        private double globalPerSecond=50;
+    }
+}
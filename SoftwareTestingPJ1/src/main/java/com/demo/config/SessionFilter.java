@@ -0,0 +1,291 @@
+package com.demo.config;
+
+import com.demo.entity.vo.SessionPrincipal;
+import com.demo.service.SessionStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.*;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * 会话中的"user"、"admin"两个属性改为保存在SessionStore中，浏览器只持有DEMO_SESSION令牌，
+ * 控制器和页面仍通过request.getSession()读写，不需要修改。其他属性照旧保存在容器的会话中。
+ * 每个请求最多调用一次SessionStore.find。
+ */
+@Component
+public class SessionFilter extends OncePerRequestFilter {
+    public static final String COOKIE_NAME="DEMO_SESSION";
+
+    private static final String USER="user";
+    private static final String ADMIN="admin";
+    private static final String BEARER="Bearer ";
+
+    @Autowired
+    private SessionStore sessionStore;
+
+    @Value("${demo.session.ttl-seconds:43200}")
+    private int ttlSeconds;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(new SessionRequest(request,response),response);
+    }
+
+    /**
+     * 令牌可以放在Cookie中，也可以由非浏览器客户端放在Authorization: Bearer请求头中
+     */
+    private static String readToken(HttpServletRequest request) {
+        String authorization=request.getHeader(HttpHeaders.AUTHORIZATION);
+        if(authorization!=null&&authorization.startsWith(BEARER)) {
+            return authorization.substring(BEARER.length()).trim();
+        }
+        Cookie[] cookies=request.getCookies();
+        if(cookies!=null) {
+            for(Cookie cookie:cookies){
+                if(COOKIE_NAME.equals(cookie.getName())&&!cookie.getValue().isEmpty()) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isPrincipalName(String name) {
+        return USER.equals(name)||ADMIN.equals(name);
+    }
+
+    private class SessionRequest extends HttpServletRequestWrapper {
+        private final HttpServletResponse response;
+        private final PrincipalSession session=new PrincipalSession(this);
+
+        private String token;
+        private SessionPrincipal principal;
+        private boolean resolved;
+
+        SessionRequest(HttpServletRequest request, HttpServletResponse response) {
+            super(request);
+            this.response=response;
+        }
+
+        @Override
+        public HttpSession getSession() {
+            return getSession(true);
+        }
+
+        @Override
+        public HttpSession getSession(boolean create) {
+            if(create||principal()!=null||super.getSession(false)!=null) {
+                return session;
+            }
+            return null;
+        }
+
+        HttpSession containerSession(boolean create) {
+            return super.getSession(create);
+        }
+
+        /**
+         * 第一次用到时才按令牌查找，静态资源等不读会话的请求不访问SessionStore
+         */
+        SessionPrincipal principal() {
+            if(!resolved) {
+                resolved=true;
+                token=readToken((HttpServletRequest) getRequest());
+                principal=token==null ? null : sessionStore.find(token);
+                if(principal==null) {
+                    token=null;
+                }
+            }
+            return principal;
+        }
+
+        SessionPrincipal principal(String name) {
+            SessionPrincipal principal=principal();
+            if(principal==null) {
+                return null;
+            }
+            return principal.isAdmin()==ADMIN.equals(name) ? principal : null;
+        }
+
+        /**
+         * 每次写入都换新令牌，登录前拿到的令牌不能在登录后继续使用
+         */
+        void savePrincipal(SessionPrincipal principal) {
+            if(principal()!=null) {
+                sessionStore.remove(token);
+            }
+            token=sessionStore.create(principal);
+            writeCookie(token,ttlSeconds);
+            this.principal=principal;
+        }
+
+        void removePrincipal() {
+            if(principal()!=null) {
+                sessionStore.remove(token);
+                writeCookie("",0);
+            }
+            token=null;
+            principal=null;
+        }
+
+        private void writeCookie(String value, int maxAge) {
+            Cookie cookie=new Cookie(COOKIE_NAME,value);
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setSecure(isSecure());
+            cookie.setMaxAge(maxAge);
+            response.addCookie(cookie);
+        }
+    }
+
+    /**
+     * "user"、"admin"只读写SessionStore，其余属性和方法交给容器的会话
+     */
+    private static class PrincipalSession implements HttpSession {
+        private final SessionRequest request;
+
+        PrincipalSession(SessionRequest request) {
+            this.request=request;
+        }
+
+        private HttpSession container() {
+            return request.containerSession(true);
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            if(isPrincipalName(name)) {
+                return request.principal(name);
+            }
+            HttpSession session=request.containerSession(false);
+            return session==null ? null : session.getAttribute(name);
+        }
+
+        @Override
+        public Enumeration<String> getAttributeNames() {
+            Set<String> names=new LinkedHashSet<>();
+            HttpSession session=request.containerSession(false);
+            if(session!=null) {
+                names.addAll(Collections.list(session.getAttributeNames()));
+            }
+            SessionPrincipal principal=request.principal();
+            if(principal!=null) {
+                names.add(principal.isAdmin() ? ADMIN : USER);
+            }
+            return Collections.enumeration(names);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            if(value==null) {
+                removeAttribute(name);
+                return;
+            }
+            if(isPrincipalName(name)) {
+                if(!(value instanceof SessionPrincipal)) {
+                    throw new IllegalArgumentException("会话中的"+name+"只能保存SessionPrincipal");
+                }
+                request.savePrincipal((SessionPrincipal) value);
+                return;
+            }
+            container().setAttribute(name,value);
+        }
+
+        @Override
+        public void removeAttribute(String name) {
+            if(isPrincipalName(name)) {
+                if(request.principal(name)!=null) {
+                    request.removePrincipal();
+                }
+                return;
+            }
+            HttpSession session=request.containerSession(false);
+            if(session!=null) {
+                session.removeAttribute(name);
+            }
+        }
+
+        @Override
+        public void invalidate() {
+            request.removePrincipal();
+            HttpSession session=request.containerSession(false);
+            if(session!=null) {
+                session.invalidate();
+            }
+        }
+
+        @Override
+        public String getId() {
+            return container().getId();
+        }
+
+        @Override
+        public long getCreationTime() {
+            return container().getCreationTime();
+        }
+
+        @Override
+        public long getLastAccessedTime() {
+            return container().getLastAccessedTime();
+        }
+
+        @Override
+        public ServletContext getServletContext() {
+            return request.getServletContext();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(int interval) {
+            container().setMaxInactiveInterval(interval);
+        }
+
+        @Override
+        public int getMaxInactiveInterval() {
+            return container().getMaxInactiveInterval();
+        }
+
+        @Override
+        @Deprecated
+        public HttpSessionContext getSessionContext() {
+            return container().getSessionContext();
+        }
+
+        @Override
+        @Deprecated
+        public Object getValue(String name) {
+            return getAttribute(name);
+        }
+
+        @Override
+        @Deprecated
+        public String[] getValueNames() {
+            return Collections.list(getAttributeNames()).toArray(new String[0]);
+        }
+
+        @Override
+        @Deprecated
+        public void putValue(String name, Object value) {
+            setAttribute(name,value);
+        }
+
+        @Override
+        @Deprecated
+        public void removeValue(String name) {
+            removeAttribute(name);
+        }
+
+        @Override
+        public boolean isNew() {
+            return container().isNew();
+        }
+    }
+}
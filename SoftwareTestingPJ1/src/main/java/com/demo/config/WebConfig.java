@@ -0,0 +1,29 @@
+package com.demo.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    @Autowired
+    private RateLimitProperties rateLimitProperties;
+
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    @Autowired
+    private LoginInterceptor loginInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if(rateLimitProperties.isEnabled()&&!rateLimitProperties.getRules().isEmpty()) {
+            String[] paths=rateLimitProperties.getRules().stream()
+                    .map(RateLimitProperties.Rule::getPath)
+                    .toArray(String[]::new);
+            registry.addInterceptor(rateLimitInterceptor).addPathPatterns(paths);
+        }
+        registry.addInterceptor(loginInterceptor).addPathPatterns(LoginInterceptor.PATHS);
+    }
+}
@@ -37,7 +37,7 @@ public class AdminMessageController {
     @ResponseBody
     public List<MessageVo> messageList(@RequestParam(value = "page",defaultValue = "1")int page){
         Pageable message_pageable= PageRequest.of(page-1,10, Sort.by("time").descending());
-        List<Message> messages=messageService.findWaitState(message_pageable).getContent();
+        List<Message> messages=messageService.findWaitStateSlice(message_pageable).getContent();
         return messageVoService.returnVo(messages);
     }
 
@@ -1,11 +1,13 @@
 package com.demo.controller.admin;
 
 import com.demo.entity.News;
+import com.demo.entity.vo.CursorPage;
 import com.demo.service.NewsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -45,10 +47,16 @@ public class AdminNewsController {
     @ResponseBody
     public List<News> newsList(@RequestParam(value = "page",defaultValue = "1")int page){
         Pageable news_pageable= PageRequest.of(page-1,10, Sort.by("time").descending());
-        Page<News> news=newsService.findAll(news_pageable);
+        Slice<News> news=newsService.findAllSlice(news_pageable);
         return news.getContent();
     }
 
+    @RequestMapping(value = "/newsList.do",params = "cursor")
+    @ResponseBody
+    public CursorPage<News> newsList(String cursor){
+        return newsService.findAll(cursor,10);
+    }
+
     @PostMapping("/delNews.do")
     @ResponseBody
     public boolean delNews(int newsID){
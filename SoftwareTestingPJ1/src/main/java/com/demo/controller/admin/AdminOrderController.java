@@ -1,21 +1,41 @@
 package com.demo.controller.admin;
 
 import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.entity.vo.CursorPage;
+import com.demo.entity.vo.ExpiryStats;
+import com.demo.entity.vo.ImportReport;
 import com.demo.entity.vo.OrderVo;
+import com.demo.entity.vo.TablePage;
+import com.demo.entity.vo.TransitionResult;
+import com.demo.service.OrderExpiryService;
+import com.demo.service.OrderImportService;
 import com.demo.service.OrderService;
 import com.demo.service.OrderVoService;
+import com.demo.service.VenueService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.*;
 
 @Controller
 public class AdminOrderController {
@@ -23,18 +43,81 @@ public class AdminOrderController {
     private OrderService orderService;
     @Autowired
     private OrderVoService orderVoService;
+    @Autowired
+    private OrderExpiryService orderExpiryService;
+    @Autowired
+    private OrderImportService orderImportService;
+    @Autowired
+    private VenueService venueService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final int AUDIT_PAGE_MAX=100;
+
+    private static final Set<String> AUDIT_SORT_FIELDS=new HashSet<>(Arrays.asList("orderID","venueID","startTime","hours","total","orderTime"));
 
     @GetMapping("/reservation_manage")
     public String reservation_manage(Model model){
-        List<Order> orders= orderService.findAuditOrder();
-        List<OrderVo> orderVos=orderVoService.returnVo(orders);
         Pageable order_pageable= PageRequest.of(0,10, Sort.by("orderTime").descending());
-        model.addAttribute("order_list",orderVos);
         model.addAttribute("total",orderService.findNoAuditOrder(order_pageable).getTotalPages());
 
         return "admin/reservation_manage";
     }
 
+    /**
+     * 订单统计表格的服务端分页，参数与bootstrap-table的limit/offset/sort/order一致
+     * @param limit
+     * @param offset
+     * @param sort
+     * @param order
+     * @return
+     */
+    @GetMapping("/admin/getAuditOrderList.do")
+    @ResponseBody
+    public TablePage<OrderVo> getAuditOrder(@RequestParam(value = "limit",defaultValue = "10")int limit,
+                                            @RequestParam(value = "offset",defaultValue = "0")int offset,
+                                            @RequestParam(value = "sort",defaultValue = "orderTime")String sort,
+                                            @RequestParam(value = "order",defaultValue = "desc")String order){
+        if(limit<1||limit>AUDIT_PAGE_MAX||offset<0) {
+            throw new IllegalArgumentException("分页参数无效");
+        }
+        if(!AUDIT_SORT_FIELDS.contains(sort)) {
+            sort="orderTime";
+        }
+        Sort.Direction direction="asc".equalsIgnoreCase(order)?Sort.Direction.ASC:Sort.Direction.DESC;
+        Pageable order_pageable= PageRequest.of(offset/limit,limit, Sort.by(direction,sort));
+        Page<Order> orders=orderService.findAuditOrder(order_pageable);
+        return new TablePage<>(orders.getTotalElements(),orderVoService.returnVo(orders.getContent()));
+    }
+
+    /**
+     * 以JSON数组流式导出全部已审核订单，订单边读边写，不在内存中汇总
+     * @return
+     */
+    @GetMapping(value = "/admin/auditOrders.json",produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAuditOrder(){
+        Map<Integer,String> venueNames=new HashMap<>();
+        for(Venue venue:venueService.findAll()){
+            venueNames.put(venue.getVenueID(),venue.getVenueName());
+        }
+        StreamingResponseBody body=out->{
+            JsonGenerator generator=objectMapper.getFactory().createGenerator(out);
+            generator.writeStartArray();
+            orderService.forEachAuditOrder(order->{
+                OrderVo vo=new OrderVo(order.getOrderID(),order.getUserID(),order.getVenueID(),venueNames.get(order.getVenueID()),
+                        order.getState(),order.getOrderTime(),order.getStartTime(),order.getHours(),order.getTotal());
+                try {
+                    generator.writeObject(vo);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+            generator.close();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     /**
      * 管理员查看未审核订单
      * @param page
@@ -44,10 +127,22 @@ public class AdminOrderController {
     @ResponseBody
     public List<OrderVo> getNoAuditOrder(@RequestParam(value = "page",defaultValue = "1")int page){
         Pageable order_pageable= PageRequest.of(page-1,10, Sort.by("orderTime").descending());
-        List<Order> orders=orderService.findNoAuditOrder(order_pageable).getContent();
+        List<Order> orders=orderService.findNoAuditOrderSlice(order_pageable).getContent();
         return orderVoService.returnVo(orders);
     }
 
+    /**
+     * 管理员按游标翻页查看未审核订单，cursor为空表示第一页
+     * @param cursor
+     * @return
+     */
+    @GetMapping(value = "/admin/getOrderList.do",params = "cursor")
+    @ResponseBody
+    public CursorPage<OrderVo> getNoAuditOrder(String cursor){
+        CursorPage<Order> orders=orderService.findNoAuditOrder(cursor,10);
+        return new CursorPage<>(orderVoService.returnVo(orders.getContent()),orders.getNextCursor());
+    }
+
     @PostMapping("/passOrder.do")
     @ResponseBody
     public boolean confirmOrder(int orderID) {
@@ -61,4 +156,128 @@ public class AdminOrderController {
         orderService.rejectOrder(orderID);
         return true;
     }
+
+    /**
+     * 批量通过订单
+     * @param orderIDs
+     * @return 每个订单的处理结果
+     */
+    @PostMapping("/passOrders.do")
+    @ResponseBody
+    public Map<Integer, TransitionResult> confirmOrders(@RequestParam("orderIDs") List<Integer> orderIDs) {
+        checkBatchSize(orderIDs);
+        return orderService.confirmOrders(orderIDs);
+    }
+
+    /**
+     * 批量驳回订单
+     * @param orderIDs
+     * @return 每个订单的处理结果
+     */
+    @PostMapping("/rejectOrders.do")
+    @ResponseBody
+    public Map<Integer, TransitionResult> rejectOrders(@RequestParam("orderIDs") List<Integer> orderIDs) {
+        checkBatchSize(orderIDs);
+        return orderService.rejectOrders(orderIDs);
+    }
+
+    /**
+     * 订单编号来自请求参数，数量超过上限时在查询数据库之前拒绝
+     */
+    private static void checkBatchSize(List<Integer> orderIDs) {
+        if(orderIDs.size()>OrderService.MAX_BATCH_ORDERS) {
+            throw new IllegalArgumentException("一次最多处理"+OrderService.MAX_BATCH_ORDERS+"个订单");
+        }
+    }
+
+    /**
+     * 通过场馆某天的全部未审核订单
+     * @param venueID
+     * @param date yyyy-MM-dd
+     * @return 每个订单的处理结果
+     */
+    @PostMapping("/passVenueOrders.do")
+    @ResponseBody
+    public Map<Integer, TransitionResult> confirmVenueOrders(int venueID, String date) {
+        return orderService.confirmVenueOrders(venueID,LocalDate.parse(date));
+    }
+
+    /**
+     * 驳回场馆某天的全部未审核订单
+     * @param venueID
+     * @param date yyyy-MM-dd
+     * @return 每个订单的处理结果
+     */
+    @PostMapping("/rejectVenueOrders.do")
+    @ResponseBody
+    public Map<Integer, TransitionResult> rejectVenueOrders(int venueID, String date) {
+        return orderService.rejectVenueOrders(venueID,LocalDate.parse(date));
+    }
+
+    /**
+     * 通过周期预订中全部未审核的订单
+     * @param seriesID
+     * @return 每个订单的处理结果
+     */
+    @PostMapping("/passOrderSeries.do")
+    @ResponseBody
+    public Map<Integer, TransitionResult> confirmSeries(int seriesID) {
+        return orderService.confirmSeries(seriesID);
+    }
+
+    /**
+     * 驳回周期预订中全部未完成的订单
+     * @param seriesID
+     * @return 每个订单的处理结果
+     */
+    @PostMapping("/rejectOrderSeries.do")
+    @ResponseBody
+    public Map<Integer, TransitionResult> rejectSeries(int seriesID) {
+        return orderService.rejectSeries(seriesID);
+    }
+
+    /**
+     * 查看过期订单清理任务的运行统计
+     * @return
+     */
+    @GetMapping("/admin/orderExpiryStats.do")
+    @ResponseBody
+    public ExpiryStats orderExpiryStats() {
+        return orderExpiryService.getStats();
+    }
+
+    /**
+     * 立即运行一次过期订单清理
+     * @return 本次运行后的统计
+     */
+    @PostMapping("/admin/expireOrders.do")
+    @ResponseBody
+    public ExpiryStats expireOrders() {
+        return orderExpiryService.expire();
+    }
+
+    /**
+     * 上传CSV导入历史订单，导入在后台进行
+     * @param file
+     * @return 导入报告
+     * @throws IOException
+     */
+    @PostMapping("/admin/importOrders.do")
+    @ResponseBody
+    public ImportReport importOrders(MultipartFile file) throws IOException {
+        try(InputStream in=file.getInputStream()) {
+            return orderImportService.start(in);
+        }
+    }
+
+    /**
+     * 查询订单导入的进度和出错的行
+     * @param importID
+     * @return
+     */
+    @GetMapping("/admin/getImportReport.do")
+    @ResponseBody
+    public ImportReport getImportReport(String importID) {
+        return orderImportService.findReport(importID);
+    }
 }
@@ -0,0 +1,138 @@
+package com.demo.controller.admin;
+
+import com.demo.entity.vo.RateLimitStats;
+import com.demo.entity.vo.VenueCacheStats;
+import com.demo.entity.vo.VenueDailyUsage;
+import com.demo.entity.vo.VenueHeatmap;
+import com.demo.service.OrderExportService;
+import com.demo.service.RateLimitService;
+import com.demo.service.VenueReportService;
+import com.demo.service.VenueService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+@Controller
+public class AdminReportController {
+    private static final Logger log=LoggerFactory.getLogger(AdminReportController.class);
+
+    @Autowired
+    private VenueReportService venueReportService;
+    @Autowired
+    private OrderExportService orderExportService;
+    @Autowired
+    private RateLimitService rateLimitService;
+    @Autowired
+    private VenueService venueService;
+
+    /**
+     * 按天查看场馆营收
+     * @param venueID
+     * @param from yyyy-MM-dd
+     * @param to yyyy-MM-dd，包含当天
+     * @return
+     */
+    @GetMapping("/admin/venueRevenue.do")
+    @ResponseBody
+    public List<VenueDailyUsage> venueRevenue(int venueID, String from, String to) {
+        return venueReportService.findDailyUsage(venueID,LocalDate.parse(from),LocalDate.parse(to));
+    }
+
+    /**
+     * 查看场馆占用热力图
+     * @param venueID
+     * @param from yyyy-MM-dd
+     * @param to yyyy-MM-dd，包含当天
+     * @return
+     */
+    @GetMapping("/admin/venueOccupancy.do")
+    @ResponseBody
+    public VenueHeatmap venueOccupancy(int venueID, String from, String to) {
+        return venueReportService.findHeatmap(venueID,LocalDate.parse(from),LocalDate.parse(to));
+    }
+
+    /**
+     * 按订单重新核对使用汇总
+     * @param from yyyy-MM-dd
+     * @param to yyyy-MM-dd，包含当天
+     * @return 核对的天数
+     */
+    @PostMapping("/admin/reconcileUsage.do")
+    @ResponseBody
+    public int reconcileUsage(String from, String to) {
+        return venueReportService.reconcile(LocalDate.parse(from),LocalDate.parse(to));
+    }
+
+    /**
+     * 以CSV导出开始日期在范围内的订单，边查边写，可用exportID取消
+     * @param from yyyy-MM-dd
+     * @param to yyyy-MM-dd，包含当天
+     * @param venueID 不传时导出全部场馆
+     * @param exportID 客户端生成的导出编号
+     * @return
+     */
+    @GetMapping("/admin/exportOrders.do")
+    public ResponseEntity<StreamingResponseBody> exportOrders(String from, String to, Integer venueID, String exportID) {
+        LocalDate fromDate=LocalDate.parse(from);
+        LocalDate toDate=LocalDate.parse(to);
+        if(toDate.isBefore(fromDate)) {
+            throw new IllegalArgumentException("导出日期范围无效");
+        }
+        StreamingResponseBody body=out->{
+            try {
+                orderExportService.exportCsv(fromDate,toDate,venueID,exportID,out);
+            } catch (CancellationException e) {
+                log.info("order export {} cancelled",exportID);
+            }
+        };
+        String filename="orders_"+from+"_"+to+".csv";
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text","csv",StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION,"attachment; filename=\""+filename+"\"")
+                .body(body);
+    }
+
+    /**
+     * 取消正在进行的订单导出
+     * @param exportID
+     * @return 导出不存在或已结束时返回false
+     */
+    @PostMapping("/admin/cancelExport.do")
+    @ResponseBody
+    public boolean cancelExport(String exportID) {
+        return orderExportService.cancel(exportID);
+    }
+
+    /**
+     * 查看写接口的限流计数
+     * @return
+     */
+    @GetMapping("/admin/rateLimitStats.do")
+    @ResponseBody
+    public List<RateLimitStats> rateLimitStats() {
+        return rateLimitService.findStats();
+    }
+
+    /**
+     * 查看场馆缓存的命中计数
+     * @return
+     */
+    @GetMapping("/admin/venueCacheStats.do")
+    @ResponseBody
+    public VenueCacheStats venueCacheStats() {
+        return venueService.findCacheStats();
+    }
+}
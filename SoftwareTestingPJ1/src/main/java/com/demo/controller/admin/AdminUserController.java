@@ -1,6 +1,7 @@
 package com.demo.controller.admin;
 
 import com.demo.entity.User;
+import com.demo.entity.vo.CursorPage;
 import com.demo.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -46,6 +47,12 @@ public class AdminUserController {
         return users.getContent();
     }
 
+    @GetMapping(value = "/userList.do",params = "cursor")
+    @ResponseBody
+    public CursorPage<User> userList(String cursor){
+        return userService.findByUserID(cursor,10);
+    }
+
 
     @GetMapping("/user_edit")
     public String user_edit(Model model,int id){
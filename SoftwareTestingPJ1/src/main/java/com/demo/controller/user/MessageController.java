@@ -1,25 +1,28 @@
 package com.demo.controller.user;
 
 import com.demo.entity.Message;
-import com.demo.entity.User;
+import com.demo.entity.vo.CursorPage;
 import com.demo.entity.vo.MessageVo;
+import com.demo.entity.vo.SessionPrincipal;
 import com.demo.service.MessageService;
 import com.demo.service.MessageVoService;
-import com.demo.exception.LoginException;
+import com.demo.service.ParallelQueryService;
+import com.demo.config.LoginInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
-import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class MessageController {
@@ -27,25 +30,23 @@ public class MessageController {
     private MessageService messageService;
     @Autowired
     private MessageVoService messageVoService;
+    @Autowired
+    private ParallelQueryService parallelQueryService;
 
     @GetMapping("/message_list")
-    public String message_list(Model model,HttpServletRequest request)throws Exception{
-        Pageable message_pageable= PageRequest.of(0,5, Sort.by("time").descending());
-        Page<Message> messages=messageService.findPassState(message_pageable);
-        List<MessageVo> message_list=messageVoService.returnVo(messages.getContent());
-
-        model.addAttribute("total",messages.getTotalPages());
-
-        Object user=request.getSession().getAttribute("user");
-        if(user==null) {
-            throw new LoginException("请登录！");
-        }
-        User loginUser=(User)user;
-
-            Pageable user_message_pageable = PageRequest.of(0,5, Sort.by("time").descending());
-            model.addAttribute("user_total",messageService.findByUser(loginUser.getUserID(),user_message_pageable).getTotalPages());
+    public String message_list(Model model,@RequestAttribute(LoginInterceptor.LOGIN_USER) SessionPrincipal loginUser)throws Exception{
 
+        Pageable message_pageable= PageRequest.of(0,5, Sort.by("time").descending());
+        Pageable user_message_pageable = PageRequest.of(0,5, Sort.by("time").descending());
+        // 两个分页查询互不依赖，并发执行
+        CompletableFuture<Page<Message>> messages=parallelQueryService.supply(()->messageService.findPassState(message_pageable));
+        CompletableFuture<List<MessageVo>> message_list=messages.thenApply(page->messageVoService.returnVo(page.getContent()));
+        CompletableFuture<Page<Message>> userMessages=parallelQueryService.supply(
+                ()->messageService.findByUser(loginUser.getUserID(),user_message_pageable));
 
+        model.addAttribute("total",parallelQueryService.await(messages).getTotalPages());
+        model.addAttribute("message_list",parallelQueryService.await(message_list));
+        model.addAttribute("user_total",parallelQueryService.await(userMessages).getTotalPages());
 
         return "message_list";
     }
@@ -56,29 +57,28 @@ public class MessageController {
     public List<MessageVo> message_list(@RequestParam(value = "page",defaultValue = "1")int page){
         System.out.println("success");
         Pageable message_pageable= PageRequest.of(page-1,5, Sort.by("time").descending());
-        Page<Message> messages=messageService.findPassState(message_pageable);
+        Slice<Message> messages=messageService.findPassStateSlice(message_pageable);
         List<MessageVo> message_list=messageVoService.returnVo(messages.getContent());
 
         return message_list;
     }
 
+    //按游标翻页，cursor为空表示第一页
+    @GetMapping(value = "/message/getMessageList",params = "cursor")
+    @ResponseBody
+    public CursorPage<MessageVo> message_list(String cursor){
+        CursorPage<Message> messages=messageService.findPassState(cursor,5);
+        return new CursorPage<>(messageVoService.returnVo(messages.getContent()),messages.getNextCursor());
+    }
+
     //User的留言不管是否通过都显示
     @GetMapping("/message/findUserList")
     @ResponseBody
-    public List<MessageVo> user_message_list(@RequestParam(value = "page",defaultValue = "1")int page,HttpServletRequest request){
+    public List<MessageVo> user_message_list(@RequestParam(value = "page",defaultValue = "1")int page,@RequestAttribute(LoginInterceptor.LOGIN_USER) SessionPrincipal loginUser){
         System.out.println("find user messages");
-//        if(request.getSession().getAttribute("user")!=null) {
-        Object user=request.getSession().getAttribute("user");
-        if(user==null) {
-            throw new LoginException("请登录！");
-        }
-        User loginUser=(User)user;
-
-            Pageable message_pageable = PageRequest.of(page - 1, 5, Sort.by("time").descending());
-            List<Message> user_messages = messageService.findByUser(loginUser.getUserID(), message_pageable).getContent();
-            return messageVoService.returnVo(user_messages);
-//        }
-//        return null;
+        Pageable message_pageable = PageRequest.of(page - 1, 5, Sort.by("time").descending());
+        List<Message> user_messages = messageService.findByUserSlice(loginUser.getUserID(), message_pageable).getContent();
+        return messageVoService.returnVo(user_messages);
     }
 
     @PostMapping("/sendMessage")
@@ -3,9 +3,9 @@ package com.demo.controller.user;
 import com.demo.entity.News;
 import com.demo.service.NewsService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -29,10 +29,10 @@ public class NewsController {
 
     @GetMapping("/news/getNewsList")
     @ResponseBody
-    public Page<News> news_list(@RequestParam(value = "page",defaultValue = "1")int page){
+    public Slice<News> news_list(@RequestParam(value = "page",defaultValue = "1")int page){
         System.out.println("success");
         Pageable news_pageable= PageRequest.of(page-1,5, Sort.by("time").descending());
-        return newsService.findAll(news_pageable);
+        return newsService.findAllSlice(news_pageable);
     }
 
     @GetMapping("/news_list")
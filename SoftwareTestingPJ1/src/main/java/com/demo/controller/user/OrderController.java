@@ -1,28 +1,44 @@
 package com.demo.controller.user;
 
 import com.demo.entity.Order;
-import com.demo.entity.User;
+import com.demo.entity.OrderSeries;
 import com.demo.entity.Venue;
+import com.demo.entity.vo.CursorPage;
 import com.demo.entity.vo.OrderVo;
+import com.demo.entity.vo.SessionPrincipal;
+import com.demo.entity.vo.SubmissionTicket;
+import com.demo.entity.vo.TransitionResult;
 import com.demo.entity.vo.VenueOrder;
+import com.demo.entity.vo.VenueSlots;
+import com.demo.service.AvailabilityService;
+import com.demo.service.IdempotencyService;
 import com.demo.service.OrderService;
+import com.demo.service.OrderSubmitService;
 import com.demo.service.OrderVoService;
 import com.demo.service.VenueService;
-import com.demo.exception.LoginException;
+import com.demo.config.LoginInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 public class OrderController {
@@ -32,15 +48,21 @@ public class OrderController {
     private OrderVoService orderVoService;
     @Autowired
     private VenueService venueService;
+    @Autowired
+    private AvailabilityService availabilityService;
+    @Autowired
+    private OrderSubmitService orderSubmitService;
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    private static final String IDEMPOTENCY_HEADER="Idempotency-Key";
+
+    @Value("${demo.order.submit-queue.enabled:false}")
+    private boolean submitQueueEnabled;
 
     @GetMapping("/order_manage")
-    public String order_manage(Model model,HttpServletRequest request){
+    public String order_manage(Model model,@RequestAttribute(LoginInterceptor.LOGIN_USER) SessionPrincipal loginUser){
         Pageable order_pageable = PageRequest.of(0,5, Sort.by("orderTime").descending());
-        Object user=request.getSession().getAttribute("user");
-        if(user==null) {
-            throw new LoginException("请登录！");
-        }
-        User loginUser=(User)user;
         Page<Order> page=orderService.findUserOrder(loginUser.getUserID(),order_pageable);
 
         model.addAttribute("total",page.getTotalPages());
@@ -62,29 +84,82 @@ public class OrderController {
 
     @GetMapping("/getOrderList.do")
     @ResponseBody
-    public List<OrderVo> order_list(@RequestParam(value = "page",defaultValue = "1")int page, HttpServletRequest request){
+    public List<OrderVo> order_list(@RequestParam(value = "page",defaultValue = "1")int page, @RequestAttribute(LoginInterceptor.LOGIN_USER) SessionPrincipal loginUser){
         Pageable order_pageable = PageRequest.of(page-1,5, Sort.by("orderTime").descending());
-        Object user=request.getSession().getAttribute("user");
-        if(user==null) {
-            throw new LoginException("请登录！");
-        }
-        User loginUser=(User)user;
-        Page<Order> page1=orderService.findUserOrder(loginUser.getUserID(),order_pageable);
+        Slice<Order> page1=orderService.findUserOrderSlice(loginUser.getUserID(),order_pageable);
         return orderVoService.returnVo(page1.getContent());
     }
 
+    /**
+     * 按游标翻页，cursor为空表示第一页
+     */
+    @GetMapping(value = "/getOrderList.do",params = "cursor")
+    @ResponseBody
+    public CursorPage<OrderVo> order_list(String cursor, @RequestAttribute(LoginInterceptor.LOGIN_USER) SessionPrincipal loginUser){
+        CursorPage<Order> orders=orderService.findUserOrder(loginUser.getUserID(),cursor,5);
+        return new CursorPage<>(orderVoService.returnVo(orders.getContent()),orders.getNextCursor());
+    }
+
+    /**
+     * 新建订单。带幂等键（表单字段idempotencyKey或请求头Idempotency-Key）的重复提交直接返回第一次的结果
+     */
     @PostMapping("/addOrder.do")
-    public void addOrder(String venueName, String date, String startTime, int hours,HttpServletRequest request, HttpServletResponse response) throws Exception {
+    public void addOrder(String venueName, String date, String startTime, int hours, String idempotencyKey, HttpServletRequest request, HttpServletResponse response, @RequestAttribute(LoginInterceptor.LOGIN_USER) SessionPrincipal loginUser) throws Exception {
         date=startTime+":00";
         DateTimeFormatter df = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         LocalDateTime ldt = LocalDateTime.parse(date,df);
-        Object user=request.getSession().getAttribute("user");
-        if(user==null) {
-            throw new LoginException("请登录！");
-        }
-        User loginUser=(User)user;
-        orderService.submit(venueName,ldt,hours,loginUser.getUserID());
-        response.sendRedirect("order_manage");
+        String target=idempotencyService.execute(loginUser.getUserID(),idempotencyKey(idempotencyKey,request),()->{
+            if(submitQueueEnabled) {
+                SubmissionTicket ticket=orderSubmitService.enqueue(venueName,ldt,hours,loginUser.getUserID());
+                return "order_manage?ticket="+ticket.getTicketID();
+            }
+            orderService.submit(venueName,ldt,hours,loginUser.getUserID());
+            return "order_manage";
+        });
+        response.sendRedirect(target);
+    }
+
+    private static String idempotencyKey(String idempotencyKey, HttpServletRequest request) {
+        return idempotencyKey!=null ? idempotencyKey : request.getHeader(IDEMPOTENCY_HEADER);
+    }
+
+    /**
+     * 周期预订：在日期范围内每周同一时段预订
+     * @param venueName
+     * @param weekday 1星期一 ... 7星期日
+     * @param startTime HH:mm
+     * @param hours
+     * @param from yyyy-MM-dd
+     * @param to yyyy-MM-dd，包含当天
+     * @param loginUser
+     * @return
+     */
+    @PostMapping("/addOrderSeries.do")
+    @ResponseBody
+    public OrderSeries addOrderSeries(String venueName, int weekday, String startTime, int hours, String from, String to, @RequestAttribute(LoginInterceptor.LOGIN_USER) SessionPrincipal loginUser) {
+        return orderService.submitSeries(venueName,DayOfWeek.of(weekday),LocalTime.parse(startTime),hours,
+                LocalDate.parse(from),LocalDate.parse(to),loginUser.getUserID());
+    }
+
+    @GetMapping("/getOrderSeries.do")
+    @ResponseBody
+    public List<OrderSeries> getOrderSeries(@RequestAttribute(LoginInterceptor.LOGIN_USER) SessionPrincipal loginUser) {
+        return orderService.findUserSeries(loginUser.getUserID());
+    }
+
+    /**
+     * 取消周期预订中尚未完成的订单
+     */
+    @PostMapping("/cancelOrderSeries.do")
+    @ResponseBody
+    public Map<Integer, TransitionResult> cancelOrderSeries(int seriesID, @RequestAttribute(LoginInterceptor.LOGIN_USER) SessionPrincipal loginUser) {
+        return orderService.cancelSeries(seriesID,loginUser.getUserID());
+    }
+
+    @GetMapping("/getSubmitTicket.do")
+    @ResponseBody
+    public SubmissionTicket getSubmitTicket(String ticketID, @RequestAttribute(LoginInterceptor.LOGIN_USER) SessionPrincipal loginUser) {
+        return orderSubmitService.findTicket(ticketID,loginUser.getUserID());
     }
 
     @PostMapping("/finishOrder.do")
@@ -104,17 +179,15 @@ public class OrderController {
 
     @PostMapping("/modifyOrder")
     @ResponseBody
-    public boolean modifyOrder(String venueName, String date, String startTime, int hours,int orderID, HttpServletRequest request, HttpServletResponse response) throws Exception {
+    public boolean modifyOrder(String venueName, String date, String startTime, int hours,int orderID, String idempotencyKey, HttpServletRequest request, HttpServletResponse response, @RequestAttribute(LoginInterceptor.LOGIN_USER) SessionPrincipal loginUser) throws Exception {
         date=startTime+":00";
         DateTimeFormatter df = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         LocalDateTime ldt = LocalDateTime.parse(date,df);
-        Object user=request.getSession().getAttribute("user");
-        if(user==null) {
-            throw new LoginException("请登录！");
-        }
-        User loginUser=(User)user;
-        orderService.updateOrder(orderID,venueName,ldt,hours,loginUser.getUserID());
-        response.sendRedirect("order_manage");
+        String target=idempotencyService.execute(loginUser.getUserID(),idempotencyKey(idempotencyKey,request),()->{
+            orderService.updateOrder(orderID,venueName,ldt,hours,loginUser.getUserID());
+            return "order_manage";
+        });
+        response.sendRedirect(target);
         return true;
     }
 
@@ -143,4 +216,31 @@ public class OrderController {
         return venueOrder;
 
     }
+
+    /**
+     * 查询场馆某天的占用时段，只返回掩码，不查询订单表
+     * @param venueName
+     * @param date yyyy-MM-dd
+     * @param excludeOrderID 修改订单时排除自身
+     * @return 场馆不存在时返回404，日期格式错误时返回400
+     */
+    @GetMapping("/order/getBusySlots.do")
+    @ResponseBody
+    public ResponseEntity<VenueSlots> getBusySlots(String venueName,String date,@RequestParam(value = "excludeOrderID",defaultValue = "0")int excludeOrderID){
+        Venue venue=venueService.findByVenueName(venueName);
+        if(venue==null) {
+            return ResponseEntity.notFound().build();
+        }
+        if(date==null) {
+            return ResponseEntity.badRequest().build();
+        }
+        LocalDate day;
+        try {
+            day=LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int busySlots=availabilityService.findBusySlots(venue.getVenueID(),day,excludeOrderID);
+        return ResponseEntity.ok(new VenueSlots(venue,busySlots));
+    }
 }
@@ -1,6 +1,7 @@
 package com.demo.controller.user;
 
 import com.demo.entity.User;
+import com.demo.entity.vo.SessionPrincipal;
 import com.demo.service.UserService;
 import com.demo.utils.FileUtil;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,12 +39,12 @@ public class UserController {
         User user=userService.checkLogin(userID,password);
         if(user!=null){
             if(user.getIsadmin()==0){
-                request.getSession().setAttribute("user",user);
+                request.getSession().setAttribute("user",SessionPrincipal.of(user));
                 System.out.println("user login!");
                 return "/index";
             }
             else if(user.getIsadmin()==1){
-                request.getSession().setAttribute("admin",user);
+                request.getSession().setAttribute("admin",SessionPrincipal.of(user));
                 System.out.println("admin login!");
                 return "/admin_index";
             }
@@ -95,8 +96,7 @@ public class UserController {
         }
 
         userService.updateUser(user);
-        request.getSession().removeAttribute("user");
-        request.getSession().setAttribute("user",user);
+        request.getSession().setAttribute("user",SessionPrincipal.of(user));
         response.sendRedirect("user_info");
     }
 
@@ -110,7 +110,12 @@ public class UserController {
     }
 
     @GetMapping("/user_info")
-    public String user_info(Model model){
+    public String user_info(Model model,HttpServletRequest request){
+        // 会话中只有用户名等少量字段，邮箱、电话按需查询
+        Object user=request.getSession().getAttribute("user");
+        if(user!=null) {
+            model.addAttribute("profile",userService.findByUserID(((SessionPrincipal) user).getUserID()));
+        }
         return "user_info";
     }
 }
@@ -0,0 +1,50 @@
+package com.demo.controller.user;
+
+import com.demo.config.LoginInterceptor;
+import com.demo.entity.Waitlist;
+import com.demo.entity.vo.SessionPrincipal;
+import com.demo.service.WaitlistService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+@Controller
+public class WaitlistController {
+    @Autowired
+    private WaitlistService waitlistService;
+
+    /**
+     * 所选时段已被预订时登记候补，时段释放后自动转为未审核订单
+     * @param venueName
+     * @param startTime yyyy-MM-dd HH:mm
+     * @param hours
+     * @param loginUser
+     * @return
+     */
+    @PostMapping("/waitlist/join.do")
+    @ResponseBody
+    public Waitlist join(String venueName, String startTime, int hours, @RequestAttribute(LoginInterceptor.LOGIN_USER) SessionPrincipal loginUser) {
+        LocalDateTime ldt=LocalDateTime.parse(startTime+":00",DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        return waitlistService.join(loginUser.getUserID(),venueName,ldt,hours);
+    }
+
+    @PostMapping("/waitlist/cancel.do")
+    @ResponseBody
+    public boolean cancel(int waitID, @RequestAttribute(LoginInterceptor.LOGIN_USER) SessionPrincipal loginUser) {
+        waitlistService.cancel(waitID,loginUser.getUserID());
+        return true;
+    }
+
+    @GetMapping("/waitlist/getWaitlist.do")
+    @ResponseBody
+    public List<Waitlist> getWaitlist(@RequestAttribute(LoginInterceptor.LOGIN_USER) SessionPrincipal loginUser) {
+        return waitlistService.findByUser(loginUser.getUserID());
+    }
+}
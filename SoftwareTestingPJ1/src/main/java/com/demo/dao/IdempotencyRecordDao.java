@@ -0,0 +1,48 @@
+package com.demo.dao;
+
+import com.demo.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+
+public interface IdempotencyRecordDao extends JpaRepository<IdempotencyRecord,String> {
+
+    /**
+     * 占用幂等键
+     * @return 1表示占用成功，0表示该键已存在
+     */
+    @Transactional
+    @Modifying
+    @Query(value="insert ignore into idempotency_record(idem_key,created_at) values (?1,?2)",nativeQuery =true)
+    int claim(String idemKey, LocalDateTime createdAt);
+
+    /**
+     * 重新占用已过期或处理超时的幂等键，条件判断和更新在同一条语句中完成，并发时只有一个请求成功
+     * @param expiredBefore 早于该时间创建的记录已过期
+     * @param staleBefore 早于该时间创建且没有结果的记录视为处理失败
+     * @return 1表示占用成功，0表示该键仍有效
+     */
+    @Transactional
+    @Modifying
+    @Query(value="update idempotency_record set result=null,created_at=?2 where idem_key=?1 " +
+            "and (created_at<?3 or (result is null and created_at<?4))",nativeQuery =true)
+    int reclaim(String idemKey, LocalDateTime createdAt, LocalDateTime expiredBefore, LocalDateTime staleBefore);
+
+    @Transactional
+    @Modifying
+    @Query(value="update idempotency_record set result=?3 where idem_key=?1 and created_at=?2",nativeQuery =true)
+    int complete(String idemKey, LocalDateTime createdAt, String result);
+
+    @Transactional
+    @Modifying
+    @Query(value="delete from idempotency_record where idem_key=?1 and created_at=?2 and result is null",nativeQuery =true)
+    int release(String idemKey, LocalDateTime createdAt);
+
+    @Transactional
+    @Modifying
+    @Query(value="delete from idempotency_record where created_at<?1 limit ?2",nativeQuery =true)
+    int deleteExpired(LocalDateTime before, int limit);
+}
@@ -3,11 +3,15 @@ package com.demo.dao;
 import com.demo.entity.Message;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface MessageDao extends JpaRepository<Message,Integer> {
     Message findByMessageID(int messageID);
@@ -16,9 +20,34 @@ public interface MessageDao extends JpaRepository<Message,Integer> {
     
     Page<Message> findAllByState(int state,Pageable pageable);
 
+    /**
+     * 不统计总数的分页，多查一行判断是否有下一页
+     */
+    Slice<Message> findSliceByUserID(String userID, Pageable pageable);
+
+    Slice<Message> findSliceByState(int state, Pageable pageable);
+
+    /**
+     * 游标分页：第一页按(time, messageID)倒序取，之后从上一页最后一行往后定位
+     */
+    List<Message> findByStateOrderByTimeDescMessageIDDesc(int state, Pageable pageable);
+
+    @Query("select m from Message m where m.state=?1 and (m.time<?2 or (m.time=?2 and m.messageID<?3)) " +
+            "order by m.time desc, m.messageID desc")
+    List<Message> findByStateBefore(int state, LocalDateTime time, int messageID, Pageable pageable);
+
     @Transactional
     @Modifying
     @Query(value="update Message o set o.state=?1 where o.messageID=?2",nativeQuery =true)
     void updateState(int state, int messageID);
 
+    /**
+     * 条件更新状态，只有当前状态在fromStates中才会更新
+     * @return 实际更新的行数，0表示留言不存在或当前状态不允许变更
+     */
+    @Transactional
+    @Modifying
+    @Query(value="update message o set o.state=?1 where o.messageID=?2 and o.state in ?3",nativeQuery =true)
+    int updateStateFrom(int state, int messageID, Collection<Integer> fromStates);
+
 }
@@ -1,8 +1,27 @@
 package com.demo.dao;
 
 import com.demo.entity.News;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface NewsDao extends JpaRepository<News,Integer> {
 
+    /**
+     * 不统计总数的分页，多查一行判断是否有下一页
+     */
+    @Query("select n from News n")
+    Slice<News> findSlice(Pageable pageable);
+
+    /**
+     * 游标分页：第一页按(time, newsID)倒序取，之后从上一页最后一行往后定位
+     */
+    List<News> findAllByOrderByTimeDescNewsIDDesc(Pageable pageable);
+
+    @Query("select n from News n where n.time<?1 or (n.time=?1 and n.newsID<?2) order by n.time desc, n.newsID desc")
+    List<News> findBefore(LocalDateTime time, int newsID, Pageable pageable);
 }
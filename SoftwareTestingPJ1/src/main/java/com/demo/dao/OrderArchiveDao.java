@@ -0,0 +1,39 @@
+package com.demo.dao;
+
+import com.demo.entity.OrderArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderArchiveDao extends JpaRepository<OrderArchive,Integer> {
+
+    long countByUserID(String userID);
+
+    /**
+     * 按下单时间倒序查看用户的归档订单，offset按归档表计算
+     */
+    @Query(value="select * from order_archive o where o.userID=?1 order by o.order_time desc, o.orderID desc limit ?2 offset ?3",nativeQuery =true)
+    List<OrderArchive> findUserOrders(String userID, int limit, long offset);
+
+    /**
+     * 游标分页：从(order_time, orderID)之后继续按下单时间倒序查看用户的归档订单
+     */
+    @Query(value="select * from order_archive o where o.userID=?1 and (o.order_time<?2 or (o.order_time=?2 and o.orderID<?3)) " +
+            "order by o.order_time desc, o.orderID desc limit ?4",nativeQuery =true)
+    List<OrderArchive> findUserOrdersBefore(String userID, LocalDateTime orderTime, int orderID, int limit);
+
+    /**
+     * 把order表中的订单复制到归档表
+     * @return 复制的行数
+     */
+    @Transactional
+    @Modifying
+    @Query(value="insert into order_archive(orderID,userID,venueID,state,order_time,start_time,hours,total) " +
+            "select o.orderID,o.userID,o.venueID,o.state,o.order_time,o.start_time,o.hours,o.total from `order` o where o.orderID in ?1",nativeQuery =true)
+    int copyFromOrders(Collection<Integer> orderIDs);
+}
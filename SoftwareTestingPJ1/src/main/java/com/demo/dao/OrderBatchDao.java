@@ -0,0 +1,93 @@
+package com.demo.dao;
+
+import com.demo.entity.Order;
+import com.demo.entity.OrderSlot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * 订单的JDBC批量写入。Order使用IDENTITY主键，Hibernate不会批量插入，
+ * 大批量写入时绕过JPA直接批量执行，并参与调用方的事务。
+ */
+@Repository
+public class OrderBatchDao {
+    private static final String INSERT_ORDER=
+            "insert into `order`(userID,venueID,state,order_time,start_time,hours,total) values (?,?,?,?,?,?,?)";
+    private static final String INSERT_SLOT=
+            "insert into order_slot(venueID,slot_start,orderID) values (?,?,?)";
+    private static final String INSERT_SERIES_ITEM=
+            "insert into order_series_item(seriesID,orderID) values (?,?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 批量插入订单，并回填自增的orderID
+     * @param orders
+     */
+    public void insertOrders(List<Order> orders) {
+        if(orders.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try(PreparedStatement ps=connection.prepareStatement(INSERT_ORDER,Statement.RETURN_GENERATED_KEYS)) {
+                for(Order order:orders){
+                    ps.setString(1,order.getUserID());
+                    ps.setInt(2,order.getVenueID());
+                    ps.setInt(3,order.getState());
+                    ps.setTimestamp(4,order.getOrderTime()==null ? null : Timestamp.valueOf(order.getOrderTime()));
+                    ps.setTimestamp(5,Timestamp.valueOf(order.getStartTime()));
+                    ps.setInt(6,order.getHours());
+                    ps.setInt(7,order.getTotal());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try(ResultSet keys=ps.getGeneratedKeys()) {
+                    int i=0;
+                    while(keys.next()&&i<orders.size()){
+                        orders.get(i++).setOrderID(keys.getInt(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 批量占用时段，任一时段已被占用时抛出DataIntegrityViolationException
+     * @param slots
+     */
+    public void insertSlots(List<OrderSlot> slots) {
+        if(slots.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SLOT,slots,slots.size(),(ps,slot)->{
+            ps.setInt(1,slot.getVenueID());
+            ps.setTimestamp(2,Timestamp.valueOf(slot.getSlotStart()));
+            ps.setInt(3,slot.getOrderID());
+        });
+    }
+
+    /**
+     * 批量登记周期预订的订单
+     * @param seriesID
+     * @param orders 已回填orderID的订单
+     */
+    public void insertSeriesItems(int seriesID, List<Order> orders) {
+        if(orders.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SERIES_ITEM,orders,orders.size(),(ps,order)->{
+            ps.setInt(1,seriesID);
+            ps.setInt(2,order.getOrderID());
+        });
+    }
+}
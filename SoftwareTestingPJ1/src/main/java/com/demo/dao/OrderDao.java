@@ -3,29 +3,130 @@ package com.demo.dao;
 import com.demo.entity.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface OrderDao extends JpaRepository<Order,Integer> {
+    /**
+     * MySQL驱动遇到Integer.MIN_VALUE时逐行从服务器读取结果集，不依赖连接参数useCursorFetch
+     */
+    int STREAM_FETCH_SIZE=Integer.MIN_VALUE;
 
     Order findByOrderID(int orderID);
 
     Page<Order> findAllByState(int state,Pageable pageable);
 
+    /**
+     * 不统计总数的分页，多查一行判断是否有下一页
+     */
+    Slice<Order> findSliceByState(int state, Pageable pageable);
+
     List<Order> findByVenueIDAndStartTimeIsBetween(int venueID, LocalDateTime startTime, LocalDateTime startTime2);
 
-    @Query(value = "select * from `order` o where o.state = ?1 or o.state = ?2 ", nativeQuery = true)
-    List<Order> findAudit(int state1,int state2);
+    List<Order> findByStartTimeGreaterThanEqualAndStateIn(LocalDateTime startTime, Collection<Integer> states);
+
+    Page<Order> findAllByStateIn(Collection<Integer> states, Pageable pageable);
+
+    /**
+     * 逐行读取订单，需在事务内使用并关闭。读完或关闭之前，同一连接上不能执行其他查询
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = ""+STREAM_FETCH_SIZE))
+    @Query("select o from Order o where o.state in ?1 order by o.orderID")
+    Stream<Order> streamByStateIn(Collection<Integer> states);
 
     Page<Order> findAllByUserID(String userID, Pageable pageable);
 
+    Slice<Order> findSliceByUserID(String userID, Pageable pageable);
+
+    /**
+     * 游标分页：第一页按(order_time, orderID)倒序取，之后从上一页最后一行往后定位
+     */
+    List<Order> findByUserIDOrderByOrderTimeDescOrderIDDesc(String userID, Pageable pageable);
+
+    @Query("select o from Order o where o.userID=?1 and (o.orderTime<?2 or (o.orderTime=?2 and o.orderID<?3)) " +
+            "order by o.orderTime desc, o.orderID desc")
+    List<Order> findByUserIDBefore(String userID, LocalDateTime orderTime, int orderID, Pageable pageable);
+
+    List<Order> findByStateOrderByOrderTimeDescOrderIDDesc(int state, Pageable pageable);
+
+    @Query("select o from Order o where o.state=?1 and (o.orderTime<?2 or (o.orderTime=?2 and o.orderID<?3)) " +
+            "order by o.orderTime desc, o.orderID desc")
+    List<Order> findByStateBefore(int state, LocalDateTime orderTime, int orderID, Pageable pageable);
+
+    List<Order> findByOrderIDIn(Collection<Integer> orderIDs);
+
+    List<Order> findByVenueIDAndStateAndStartTimeBetween(int venueID, int state, LocalDateTime startTime, LocalDateTime startTime2);
+
     @Transactional
     @Modifying
     @Query(value="update `order` o set o.state=?1 where o.orderID=?2",nativeQuery =true)
     void updateState(int state, int orderID);
+
+    /**
+     * 把已结束（start_time+hours不晚于now）的订单从fromState变更为state，每次最多limit行，避免长时间锁表
+     * @return 实际更新的行数
+     */
+    @Transactional
+    @Modifying
+    @Query(value="update `order` set state=?1 where state=?2 and date_add(start_time,interval hours hour)<=?3 limit ?4",nativeQuery =true)
+    int updateStateElapsed(int state, int fromState, LocalDateTime now, int limit);
+
+    /**
+     * 查询开始时间不晚于time且仍处于state的订单号，每次最多limit个
+     */
+    @Query(value="select o.orderID from `order` o where o.state=?1 and o.start_time<=?2 order by o.orderID limit ?3",nativeQuery =true)
+    List<Integer> findIDsByStateStartedBefore(int state, LocalDateTime time, int limit);
+
+    /**
+     * 查询可以归档的订单号：状态在states中且开始时间早于before，每次最多limit个
+     */
+    @Query(value="select o.orderID from `order` o where o.state in ?1 and o.start_time<?2 order by o.orderID limit ?3",nativeQuery =true)
+    List<Integer> findIDsToArchive(Collection<Integer> states, LocalDateTime before, int limit);
+
+    @Transactional
+    @Modifying
+    @Query(value="delete from `order` where orderID in ?1",nativeQuery =true)
+    int deleteByOrderIDIn(Collection<Integer> orderIDs);
+
+    long countByUserID(String userID);
+
+    /**
+     * 锁定当前状态在states中的订单，返回这些订单号
+     */
+    @Query(value="select o.orderID from `order` o where o.orderID in ?1 and o.state in ?2 for update",nativeQuery =true)
+    List<Integer> lockByStateIn(Collection<Integer> orderIDs, Collection<Integer> states);
+
+    /**
+     * 查询其中当前状态为state的订单号，直接查表，不经过持久化上下文中已加载的实体
+     */
+    @Query(value="select o.orderID from `order` o where o.orderID in ?1 and o.state=?2",nativeQuery =true)
+    List<Integer> findIDsByState(Collection<Integer> orderIDs, int state);
+
+    /**
+     * 条件更新状态，只有当前状态在fromStates中才会更新
+     * @return 实际更新的行数，0表示订单不存在或当前状态不允许变更
+     */
+    @Transactional
+    @Modifying
+    @Query(value="update `order` o set o.state=?1 where o.orderID=?2 and o.state in ?3",nativeQuery =true)
+    int updateStateFrom(int state, int orderID, Collection<Integer> fromStates);
+
+    /**
+     * 批量变更状态，只更新当前状态在fromStates中的订单
+     * @return 实际更新的行数
+     */
+    @Transactional
+    @Modifying
+    @Query(value="update `order` o set o.state=?1 where o.orderID in ?2 and o.state in ?3",nativeQuery =true)
+    int updateStateIn(int state, Collection<Integer> orderIDs, Collection<Integer> fromStates);
 }
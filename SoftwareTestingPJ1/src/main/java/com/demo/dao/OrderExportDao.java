@@ -0,0 +1,55 @@
+package com.demo.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 订单导出的只读流式查询。fetchSize为Integer.MIN_VALUE时MySQL驱动逐行从服务器读取结果集，
+ * 逐行交给回调处理，不在内存中保留结果。回调中不能在同一连接上执行其他查询。
+ */
+@Repository
+public class OrderExportDao {
+    public static final int FETCH_SIZE=Integer.MIN_VALUE;
+
+    private static final String COLUMNS=
+            "o.orderID,o.userID,o.venueID,v.venue_name,o.state,o.order_time,o.start_time,o.hours,o.total";
+    private static final String SELECT_ORDERS=
+            "select "+COLUMNS+" from `order` o join venue v on v.venueID=o.venueID " +
+            "where o.start_time>=? and o.start_time<? and (? is null or o.venueID=?) " +
+            "union all " +
+            "select "+COLUMNS+" from order_archive o join venue v on v.venueID=o.venueID " +
+            "where o.start_time>=? and o.start_time<? and (? is null or o.venueID=?) " +
+            "order by start_time,orderID";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 按开始时间顺序逐行读取订单（含归档订单），结果集列依次为
+     * orderID,userID,venueID,venue_name,state,order_time,start_time,hours,total
+     * @param from 开始时间下限（含）
+     * @param to 开始时间上限（不含）
+     * @param venueID 为null时导出全部场馆
+     * @param handler 回调中抛出异常即中止查询
+     */
+    public void streamOrders(LocalDateTime from, LocalDateTime to, Integer venueID, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps=connection.prepareStatement(SELECT_ORDERS,ResultSet.TYPE_FORWARD_ONLY,ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            for(int offset=0;offset<8;offset+=4){
+                ps.setTimestamp(offset+1,Timestamp.valueOf(from));
+                ps.setTimestamp(offset+2,Timestamp.valueOf(to));
+                ps.setObject(offset+3,venueID);
+                ps.setObject(offset+4,venueID);
+            }
+            return ps;
+        },handler);
+    }
+}
@@ -0,0 +1,15 @@
+package com.demo.dao;
+
+import com.demo.entity.OrderSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface OrderSeriesDao extends JpaRepository<OrderSeries,Integer> {
+
+    List<OrderSeries> findByUserIDOrderByCreatedAtDesc(String userID);
+
+    @Query(value="select i.orderID from order_series_item i where i.seriesID=?1 order by i.orderID",nativeQuery =true)
+    List<Integer> findOrderIDs(int seriesID);
+}
@@ -0,0 +1,43 @@
+package com.demo.dao;
+
+import com.demo.entity.OrderSlot;
+import com.demo.entity.OrderSlotKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderSlotDao extends JpaRepository<OrderSlot, OrderSlotKey> {
+
+    List<OrderSlot> findByOrderID(int orderID);
+
+    List<OrderSlot> findByOrderIDIn(Collection<Integer> orderIDs);
+
+    /**
+     * 一次查询场馆的多个时段中已被占用的时段
+     */
+    @Query("select s.slotStart from OrderSlot s where s.venueID=?1 and s.slotStart in ?2")
+    List<LocalDateTime> findTaken(int venueID, Collection<LocalDateTime> slotStarts);
+
+    /**
+     * 占用时段，时段已被占用时违反主键约束抛出DataIntegrityViolationException
+     */
+    @Transactional
+    @Modifying
+    @Query(value="insert into order_slot(venueID,slot_start,orderID) values (?1,?2,?3)",nativeQuery =true)
+    void claim(int venueID, LocalDateTime slotStart, int orderID);
+
+    @Transactional
+    @Modifying
+    @Query(value="delete from order_slot where orderID=?1",nativeQuery =true)
+    void releaseByOrderID(int orderID);
+
+    @Transactional
+    @Modifying
+    @Query(value="delete from order_slot where orderID in ?1",nativeQuery =true)
+    void releaseByOrderIDIn(Collection<Integer> orderIDs);
+}
@@ -5,10 +5,23 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface UserDao extends JpaRepository<User,Integer> {
     User findByUserIDAndPassword(String userID, String password);
     User findByUserID(String userID);
+
+    /**
+     * 批量查出一页留言/订单涉及的用户，避免逐条查询
+     */
+    List<User> findByUserIDIn(Collection<String> userIDs);
     Page<User> findAllByIsadmin(int isadmin, Pageable pageable);
+
+    /**
+     * 游标分页：按id升序，从上一页最后一个id往后取
+     */
+    List<User> findByIsadminAndIdGreaterThanOrderByIdAsc(int isadmin, int id, Pageable pageable);
     int countByUserID(String userID);
     User findById(int id);
 }
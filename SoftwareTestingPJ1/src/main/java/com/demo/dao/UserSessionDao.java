@@ -0,0 +1,25 @@
+package com.demo.dao;
+
+import com.demo.entity.UserSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+
+public interface UserSessionDao extends JpaRepository<UserSession,String> {
+
+    @Query(value="select * from user_session where token=?1 and expires_at>?2",nativeQuery =true)
+    UserSession findValid(String token, LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query(value="delete from user_session where token=?1",nativeQuery =true)
+    int deleteByToken(String token);
+
+    @Transactional
+    @Modifying
+    @Query(value="delete from user_session where expires_at<=?1 limit ?2",nativeQuery =true)
+    int deleteExpired(LocalDateTime now, int limit);
+}
@@ -0,0 +1,60 @@
+package com.demo.dao;
+
+import com.demo.entity.VenueUsage;
+import com.demo.entity.VenueUsageKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.transaction.Transactional;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface VenueUsageDao extends JpaRepository<VenueUsage, VenueUsageKey> {
+    /**
+     * 0-23，把订单按小时展开
+     */
+    String HOURS="(select 0 n union all select 1 union all select 2 union all select 3 union all select 4 union all select 5 " +
+            "union all select 6 union all select 7 union all select 8 union all select 9 union all select 10 union all select 11 " +
+            "union all select 12 union all select 13 union all select 14 union all select 15 union all select 16 union all select 17 " +
+            "union all select 18 union all select 19 union all select 20 union all select 21 union all select 22 union all select 23)";
+
+    String ORDER_COLUMNS="venueID,start_time,hours,total";
+
+    List<VenueUsage> findByVenueIDAndUsageDateBetween(int venueID, LocalDate from, LocalDate to);
+
+    /**
+     * 把订单按小时计入汇总，sign为1时增加，为-1时扣除；只处理当前状态在states中的订单
+     */
+    @Transactional
+    @Modifying
+    @Query(value="insert into venue_usage(venueID,usage_date,usage_hour,booked_hours,orders,revenue) " +
+            "select o.venueID,date(date_add(o.start_time,interval h.n hour)),hour(date_add(o.start_time,interval h.n hour))," +
+            "?2,if(h.n=0,?2,0),?2*(floor(o.total/o.hours)+if(h.n=0,mod(o.total,o.hours),0)) " +
+            "from `order` o join "+HOURS+" h on h.n<o.hours where o.orderID in ?1 and o.state in ?3 " +
+            "on duplicate key update booked_hours=booked_hours+values(booked_hours),orders=orders+values(orders),revenue=revenue+values(revenue)",
+            nativeQuery =true)
+    int apply(Collection<Integer> orderIDs, int sign, Collection<Integer> states);
+
+    @Transactional
+    @Modifying
+    @Query(value="delete from venue_usage where usage_date=?1",nativeQuery =true)
+    int deleteByUsageDate(LocalDate date);
+
+    /**
+     * 按订单表和归档表重新计算某天的汇总，调用前先删除当天的汇总
+     */
+    @Transactional
+    @Modifying
+    @Query(value="insert into venue_usage(venueID,usage_date,usage_hour,booked_hours,orders,revenue) " +
+            "select u.venueID,u.d,u.hr,sum(u.bh),sum(u.oc),sum(u.rv) from (" +
+            "select o.venueID,date(date_add(o.start_time,interval h.n hour)) d,hour(date_add(o.start_time,interval h.n hour)) hr," +
+            "1 bh,if(h.n=0,1,0) oc,floor(o.total/o.hours)+if(h.n=0,mod(o.total,o.hours),0) rv from (" +
+            "select "+ORDER_COLUMNS+" from `order` where state in ?2 and start_time>=date_sub(?1,interval 1 day) and start_time<date_add(?1,interval 1 day) " +
+            "union all select "+ORDER_COLUMNS+" from order_archive where state in ?2 and start_time>=date_sub(?1,interval 1 day) and start_time<date_add(?1,interval 1 day)" +
+            ") o join "+HOURS+" h on h.n<o.hours) u where u.d=?1 group by u.venueID,u.d,u.hr " +
+            "on duplicate key update booked_hours=values(booked_hours),orders=values(orders),revenue=values(revenue)",
+            nativeQuery =true)
+    int rebuildDay(LocalDate date, Collection<Integer> states);
+}
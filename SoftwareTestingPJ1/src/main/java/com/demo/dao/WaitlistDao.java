@@ -0,0 +1,33 @@
+package com.demo.dao;
+
+import com.demo.entity.Waitlist;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface WaitlistDao extends JpaRepository<Waitlist,Integer> {
+
+    List<Waitlist> findByUserIDOrderByCreatedAtDesc(String userID);
+
+    Waitlist findByUserIDAndVenueIDAndStartTimeAndHoursAndState(String userID, int venueID, LocalDateTime startTime, int hours, int state);
+
+    /**
+     * 按登记顺序查找与[from,to)重叠且尚未开始的候补
+     */
+    @Query(value="select * from waitlist w where w.venueID=?1 and w.state=?2 and w.start_time<?4 " +
+            "and w.start_time+interval w.hours hour>?3 and w.start_time>?5 order by w.created_at,w.waitID",nativeQuery =true)
+    List<Waitlist> findOverlapping(int venueID, int state, LocalDateTime from, LocalDateTime to, LocalDateTime now);
+
+    /**
+     * 仅当候补处于fromState时变更状态
+     * @return 更新的行数，0表示候补已被处理或取消
+     */
+    @Transactional
+    @Modifying
+    @Query(value="update waitlist set state=?1,orderID=?2 where waitID=?3 and state=?4",nativeQuery =true)
+    int updateStateFrom(int state, int orderID, int waitID, int fromState);
+}
@@ -0,0 +1,28 @@
+package com.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 带幂等键的请求的处理结果，多节点部署时代替内存中的记录。
+ * result为空表示请求正在处理。
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name="idempotency_record")
+public class IdempotencyRecord {
+    @Id
+    @Column(name="idem_key")
+    private String idemKey;
+
+    private String result;
+
+    @Column(name="created_at")
+    private LocalDateTime createdAt;
+}
@@ -30,7 +30,7 @@ public class Order {
     @Column(name="state")
     private int state;
 
-    @Column(name="order_time")
+    @Column(name="order_time",nullable=false)
     private LocalDateTime orderTime;
 
     @Column(name="start_time")
@@ -0,0 +1,46 @@
+package com.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 归档的历史订单，列与order表相同，orderID沿用原订单号。
+ * 已完成和已失效且开始时间早于归档期限的订单由定时任务从order表批量移入。
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name="order_archive")
+public class OrderArchive {
+    @Id
+    private int orderID;
+
+    private String userID;
+
+    private int venueID;
+
+    /**
+     * 3已完成 4失效
+     */
+    @Column(name="state")
+    private int state;
+
+    @Column(name="order_time",nullable=false)
+    private LocalDateTime orderTime;
+
+    @Column(name="start_time")
+    private LocalDateTime startTime;
+
+    private int hours;
+
+    private int total;
+
+    public Order toOrder() {
+        return new Order(orderID,userID,venueID,state,orderTime,startTime,hours,total);
+    }
+}
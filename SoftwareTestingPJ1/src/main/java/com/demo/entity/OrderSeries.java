@@ -0,0 +1,48 @@
+package com.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * 每周固定时段的周期预订，在[fromDate,toDate]内每周weekday生成一个订单，
+ * 订单与系列的对应关系保存在order_series_item表
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name="order_series")
+public class OrderSeries {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int seriesID;
+
+    private String userID;
+
+    private int venueID;
+
+    /**
+     * 1星期一 ... 7星期日
+     */
+    private int weekday;
+
+    @Column(name="start_time")
+    private LocalTime startTime;
+
+    private int hours;
+
+    @Column(name="from_date")
+    private LocalDate fromDate;
+
+    @Column(name="to_date")
+    private LocalDate toDate;
+
+    @Column(name="created_at")
+    private LocalDateTime createdAt;
+}
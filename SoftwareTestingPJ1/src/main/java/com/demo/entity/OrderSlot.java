@@ -0,0 +1,29 @@
+package com.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 订单占用的一小时时段，(venueID, slotStart)为主键，
+ * 同一场馆同一时段的第二个订单在插入时即被数据库拒绝
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(OrderSlotKey.class)
+@Table(name="order_slot")
+public class OrderSlot {
+    @Id
+    private int venueID;
+
+    @Id
+    @Column(name="slot_start")
+    private LocalDateTime slotStart;
+
+    private int orderID;
+}
@@ -0,0 +1,35 @@
+package com.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 登录会话，多节点部署时由各节点共用，请求可以落到任意节点
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name="user_session")
+public class UserSession {
+    @Id
+    private String token;
+
+    private int id;
+
+    private String userID;
+
+    @Column(name="user_name")
+    private String userName;
+
+    private String picture;
+
+    private int isadmin;
+
+    @Column(name="expires_at")
+    private LocalDateTime expiresAt;
+}
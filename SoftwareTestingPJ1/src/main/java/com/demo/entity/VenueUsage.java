@@ -0,0 +1,50 @@
+package com.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * 场馆每天每小时的使用汇总，只统计已审核和已完成的订单。
+ * 订单状态变更时增量维护，每天由定时任务按订单表重新核对。
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(VenueUsageKey.class)
+@Table(name="venue_usage")
+public class VenueUsage {
+    @Id
+    private int venueID;
+
+    @Id
+    @Column(name="usage_date")
+    private LocalDate usageDate;
+
+    /**
+     * 0-23，表示该小时到下一小时
+     */
+    @Id
+    @Column(name="usage_hour")
+    private int usageHour;
+
+    /**
+     * 被预订的小时数，同一时段有重叠订单时可能大于1
+     */
+    @Column(name="booked_hours")
+    private int bookedHours;
+
+    /**
+     * 在该小时开始的订单数
+     */
+    private int orders;
+
+    /**
+     * 订单金额按小时平摊，余数计入开始的小时
+     */
+    private int revenue;
+}
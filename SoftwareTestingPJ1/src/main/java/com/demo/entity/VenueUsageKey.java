@@ -0,0 +1,19 @@
+package com.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VenueUsageKey implements Serializable {
+    private int venueID;
+
+    private LocalDate usageDate;
+
+    private int usageHour;
+}
@@ -0,0 +1,44 @@
+package com.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 时段已被预订时用户登记的候补，时段释放后按登记顺序自动转为未审核订单
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name="waitlist")
+public class Waitlist {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int waitID;
+
+    private String userID;
+
+    private int venueID;
+
+    @Column(name="start_time")
+    private LocalDateTime startTime;
+
+    private int hours;
+
+    /**
+     * 1候补中 2已转为订单 3已取消
+     */
+    private int state;
+
+    /**
+     * 转为订单后的orderID
+     */
+    private int orderID;
+
+    @Column(name="created_at")
+    private LocalDateTime createdAt;
+}
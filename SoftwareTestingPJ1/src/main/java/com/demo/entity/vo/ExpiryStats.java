@@ -0,0 +1,35 @@
+package com.demo.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 过期订单清理任务的运行统计
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpiryStats {
+    private LocalDateTime lastRunAt;
+
+    private long lastDurationMillis;
+
+    /**
+     * 上次运行变更为已完成的订单数
+     */
+    private int lastFinished;
+
+    /**
+     * 上次运行因未审核而失效的订单数
+     */
+    private int lastRejected;
+
+    private long runs;
+
+    private long totalFinished;
+
+    private long totalRejected;
+}
@@ -0,0 +1,46 @@
+package com.demo.entity.vo;
+
+import com.demo.entity.News;
+import com.demo.entity.Venue;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 首页展示的数据，生成后不再修改，多个请求共用同一份
+ */
+public class HomepageSnapshot {
+    private final List<Venue> venueList;
+
+    private final List<News> newsList;
+
+    private final List<MessageVo> messageList;
+
+    /**
+     * 生成时间，毫秒
+     */
+    private final long builtAt;
+
+    public HomepageSnapshot(List<Venue> venueList, List<News> newsList, List<MessageVo> messageList, long builtAt) {
+        this.venueList=Collections.unmodifiableList(venueList);
+        this.newsList=Collections.unmodifiableList(newsList);
+        this.messageList=Collections.unmodifiableList(messageList);
+        this.builtAt=builtAt;
+    }
+
+    public List<Venue> getVenueList() {
+        return venueList;
+    }
+
+    public List<News> getNewsList() {
+        return newsList;
+    }
+
+    public List<MessageVo> getMessageList() {
+        return messageList;
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+}
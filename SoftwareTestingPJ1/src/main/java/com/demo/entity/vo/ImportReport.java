@@ -0,0 +1,39 @@
+package com.demo.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 订单导入的进度和错误报告，导入进行中可反复查询
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportReport {
+    public static final String STATE_RUNNING="RUNNING";
+    public static final String STATE_DONE="DONE";
+    public static final String STATE_FAILED="FAILED";
+
+    private String importID;
+
+    private String state;
+
+    /**
+     * 已读取的数据行数，不含表头
+     */
+    private int rows;
+
+    private int imported;
+
+    private int failed;
+
+    /**
+     * 出错的行，格式为“第n行：原因”，最多保留demo.order.import.max-errors条
+     */
+    private List<String> errors;
+
+    private String message;
+}
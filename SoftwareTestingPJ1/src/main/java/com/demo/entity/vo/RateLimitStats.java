@@ -0,0 +1,32 @@
+package com.demo.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 单个限流接口的计数
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitStats {
+    private String path;
+
+    private long allowed;
+
+    /**
+     * 超过单个用户限额被拒绝的请求数
+     */
+    private long rejectedByClient;
+
+    /**
+     * 超过全局限额被拒绝的请求数
+     */
+    private long rejectedByGlobal;
+
+    /**
+     * 当前保留令牌桶的客户端数
+     */
+    private int clients;
+}
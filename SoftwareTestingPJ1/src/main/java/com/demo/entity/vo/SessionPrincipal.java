@@ -0,0 +1,86 @@
+package com.demo.entity.vo;
+
+import com.demo.entity.User;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * 登录后保存在会话中的用户身份，只有页面和权限判断需要的字段，不含密码。
+ * 生成后不再修改，修改资料后重新生成并写回会话。
+ */
+public final class SessionPrincipal implements Serializable {
+    private static final long serialVersionUID=1L;
+
+    private final int id;
+
+    private final String userID;
+
+    private final String userName;
+
+    private final String picture;
+
+    /**
+     * 0普通用户 1管理员
+     */
+    private final int isadmin;
+
+    public SessionPrincipal(int id, String userID, String userName, String picture, int isadmin) {
+        this.id=id;
+        this.userID=userID;
+        this.userName=userName;
+        this.picture=picture;
+        this.isadmin=isadmin;
+    }
+
+    public static SessionPrincipal of(User user) {
+        return new SessionPrincipal(user.getId(),user.getUserID(),user.getUserName(),user.getPicture(),user.getIsadmin());
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getUserID() {
+        return userID;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public String getPicture() {
+        return picture;
+    }
+
+    public int getIsadmin() {
+        return isadmin;
+    }
+
+    public boolean isAdmin() {
+        return isadmin==1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this==o) {
+            return true;
+        }
+        if(!(o instanceof SessionPrincipal)) {
+            return false;
+        }
+        SessionPrincipal that=(SessionPrincipal) o;
+        return id==that.id&&isadmin==that.isadmin&&Objects.equals(userID,that.userID)&&Objects.equals(userName,that.userName)
+                &&Objects.equals(picture,that.picture);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id,userID,userName,picture,isadmin);
+    }
+
+    @Override
+    public String toString() {
+        return "SessionPrincipal{id="+id+", userID='"+userID+"', userName='"+userName+"', isadmin="+isadmin+"}";
+    }
+}
@@ -0,0 +1,25 @@
+package com.demo.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 异步提交订单的凭证，用户凭ticketID轮询提交结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionTicket {
+    public static final String STATE_PENDING="PENDING";
+    public static final String STATE_SUCCESS="SUCCESS";
+    public static final String STATE_FAILED="FAILED";
+
+    private String ticketID;
+
+    private String state;
+
+    private int orderID;
+
+    private String message;
+}
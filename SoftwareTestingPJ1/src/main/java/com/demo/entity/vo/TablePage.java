@@ -0,0 +1,19 @@
+package com.demo.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * bootstrap-table服务端分页需要的格式
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TablePage<T> {
+    private long total;
+
+    private List<T> rows;
+}
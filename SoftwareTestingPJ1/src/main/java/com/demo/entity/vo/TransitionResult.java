@@ -0,0 +1,34 @@
+package com.demo.entity.vo;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * 订单、留言状态变更的结果
+ */
+public enum TransitionResult {
+    /**
+     * 状态变更成功
+     */
+    SUCCESS,
+    /**
+     * 记录不存在
+     */
+    NOT_FOUND,
+    /**
+     * 当前状态不允许该变更
+     */
+    ILLEGAL_STATE;
+
+    /**
+     * 根据条件更新影响的行数判断结果，只有未更新时才检查记录是否存在
+     * @param updated
+     * @param exists
+     * @return
+     */
+    public static TransitionResult of(int updated, BooleanSupplier exists) {
+        if(updated>0) {
+            return SUCCESS;
+        }
+        return exists.getAsBoolean() ? ILLEGAL_STATE : NOT_FOUND;
+    }
+}
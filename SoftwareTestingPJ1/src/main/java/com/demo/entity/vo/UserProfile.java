@@ -0,0 +1,21 @@
+package com.demo.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 页面上展示用户所需的字段，不含密码、联系方式
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfile {
+    private int id;
+
+    private String userID;
+
+    private String userName;
+
+    private String picture;
+}
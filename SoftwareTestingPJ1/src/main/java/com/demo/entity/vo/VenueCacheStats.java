@@ -0,0 +1,27 @@
+package com.demo.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 场馆缓存的命中计数
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VenueCacheStats {
+    /**
+     * 当前缓存的场馆数
+     */
+    private int size;
+
+    private long hits;
+
+    private long misses;
+
+    /**
+     * 因新增、修改、删除场馆而失效的次数
+     */
+    private long invalidations;
+}
@@ -0,0 +1,23 @@
+package com.demo.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 场馆一天的营收和使用情况
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VenueDailyUsage {
+    private LocalDate date;
+
+    private int bookedHours;
+
+    private int orders;
+
+    private int revenue;
+}
@@ -0,0 +1,23 @@
+package com.demo.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 场馆占用热力图，bookedHours[i][h]为from之后第i天h点到h+1点被预订的小时数
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VenueHeatmap {
+    private int venueID;
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private int[][] bookedHours;
+}
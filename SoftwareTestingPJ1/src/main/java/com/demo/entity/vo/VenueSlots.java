@@ -0,0 +1,18 @@
+package com.demo.entity.vo;
+
+import com.demo.entity.Venue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VenueSlots {
+    Venue venue;
+
+    /**
+     * 时段掩码，第i位为1表示i点到i+1点已被预订
+     */
+    int busySlots;
+}
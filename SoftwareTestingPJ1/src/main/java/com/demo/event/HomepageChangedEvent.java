@@ -0,0 +1,16 @@
+package com.demo.event;
+
+/**
+ * 场馆、新闻或留言被修改，首页快照需要重新生成
+ */
+public class HomepageChangedEvent {
+    private final String source;
+
+    public HomepageChangedEvent(String source) {
+        this.source=source;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
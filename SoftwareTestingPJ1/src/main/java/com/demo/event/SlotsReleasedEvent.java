@@ -0,0 +1,20 @@
+package com.demo.event;
+
+import com.demo.entity.OrderSlot;
+
+import java.util.List;
+
+/**
+ * 订单被拒绝或删除后释放了时段，在订单事务提交后处理
+ */
+public class SlotsReleasedEvent {
+    private final List<OrderSlot> slots;
+
+    public SlotsReleasedEvent(List<OrderSlot> slots) {
+        this.slots=slots;
+    }
+
+    public List<OrderSlot> getSlots() {
+        return slots;
+    }
+}
@@ -0,0 +1,22 @@
+package com.demo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class OrderConflictException extends RuntimeException {
+    public OrderConflictException() {
+    }
+
+    public OrderConflictException(String message) {
+        super(message);
+    }
+
+    public OrderConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public OrderConflictException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,22 @@
+package com.demo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SubmitQueueFullException extends RuntimeException {
+    public SubmitQueueFullException() {
+    }
+
+    public SubmitQueueFullException(String message) {
+        super(message);
+    }
+
+    public SubmitQueueFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public SubmitQueueFullException(Throwable cause) {
+        super(cause);
+    }
+}
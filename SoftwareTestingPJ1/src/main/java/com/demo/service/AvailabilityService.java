@@ -0,0 +1,50 @@
+package com.demo.service;
+
+import com.demo.entity.Order;
+
+import java.time.LocalDate;
+
+public interface AvailabilityService {
+    /**
+     * 每天按小时划分的时段数
+     */
+    int SLOTS_PER_DAY=24;
+
+    /**
+     * 查询场馆某天的占用情况
+     *
+     * @param venueID
+     * @param date
+     * @return 时段掩码，第i位为1表示i点到i+1点已被预订
+     */
+    int findBusySlots(int venueID, LocalDate date);
+
+    /**
+     * 查询场馆某天的占用情况，忽略指定订单（修改订单时使用）
+     *
+     * @param venueID
+     * @param date
+     * @param excludeOrderID
+     * @return 时段掩码
+     */
+    int findBusySlots(int venueID, LocalDate date, int excludeOrderID);
+
+    /**
+     * 订单新建或变更后登记占用时段，未审核、已审核、已完成的订单占用时段
+     *
+     * @param order
+     */
+    void addOrder(Order order);
+
+    /**
+     * 订单被拒绝或删除后释放占用时段
+     *
+     * @param orderID
+     */
+    void removeOrder(int orderID);
+
+    /**
+     * 从数据库重建索引
+     */
+    void rebuild();
+}
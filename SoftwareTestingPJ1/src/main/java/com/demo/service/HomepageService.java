@@ -0,0 +1,22 @@
+package com.demo.service;
+
+import com.demo.entity.vo.HomepageSnapshot;
+
+public interface HomepageService {
+    /**
+     * 首页展示的场馆、新闻、留言条数
+     */
+    int SIZE=5;
+
+    /**
+     * 返回当前的首页快照，只有第一次调用时查询数据库
+     *
+     * @return
+     */
+    HomepageSnapshot current();
+
+    /**
+     * 在后台重新生成首页快照，生成期间仍返回旧的快照
+     */
+    void requestRebuild();
+}
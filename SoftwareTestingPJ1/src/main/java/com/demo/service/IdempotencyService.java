@@ -0,0 +1,21 @@
+package com.demo.service;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+    /**
+     * 客户端幂等键的最大长度
+     */
+    int MAX_KEY_LENGTH=64;
+
+    /**
+     * 按幂等键执行请求：同一用户同一键的重复请求不再执行action，直接返回第一次的结果；
+     * 第一次请求仍在处理时等待其结果。action抛出异常时不记录结果，允许客户端重试
+     *
+     * @param userID
+     * @param key 客户端生成的幂等键，为空时直接执行action
+     * @param action
+     * @return action的结果
+     */
+    String execute(String userID, String key, Supplier<String> action);
+}
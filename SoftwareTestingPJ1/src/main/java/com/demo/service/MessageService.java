@@ -1,8 +1,14 @@
 package com.demo.service;
 
 import com.demo.entity.Message;
+import com.demo.entity.vo.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 public interface MessageService {
 
@@ -10,6 +16,12 @@ public interface MessageService {
     int STATE_PASS=2;
     int STATE_REJECT=3;
 
+    /**
+     * 各状态变更允许的原状态
+     */
+    List<Integer> CONFIRM_FROM=Collections.unmodifiableList(Arrays.asList(STATE_NO_AUDIT,STATE_REJECT));
+    List<Integer> REJECT_FROM=Collections.unmodifiableList(Arrays.asList(STATE_NO_AUDIT,STATE_PASS));
+
     Message findById(int messageID);
 
     /**
@@ -19,6 +31,14 @@ public interface MessageService {
      */
      Page<Message> findByUser(String userID,Pageable pageable);
 
+    /**
+     * 不统计总数地分页查看用户留言，只返回是否有下一页
+     * @param userID
+     * @param pageable
+     * @return
+     */
+    Slice<Message> findByUserSlice(String userID, Pageable pageable);
+
     /**
      * 添加留言
      *
@@ -44,4 +64,26 @@ public interface MessageService {
 
     Page<Message> findPassState(Pageable pageable);
 
+    /**
+     * 按游标分页查看审核通过的留言
+     * @param cursor 上一页返回的nextCursor，第一页传null
+     * @param size
+     * @return
+     */
+    CursorPage<Message> findPassState(String cursor, int size);
+
+    /**
+     * 不统计总数地分页查看待审核的留言
+     * @param pageable
+     * @return
+     */
+    Slice<Message> findWaitStateSlice(Pageable pageable);
+
+    /**
+     * 不统计总数地分页查看审核通过的留言
+     * @param pageable
+     * @return
+     */
+    Slice<Message> findPassStateSlice(Pageable pageable);
+
 }
@@ -1,13 +1,30 @@
 package com.demo.service;
 
 import com.demo.entity.News;
+import com.demo.entity.vo.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable
         ;
+import org.springframework.data.domain.Slice;
 
 public interface NewsService {
     Page<News> findAll(Pageable pageable);
 
+    /**
+     * 按游标分页查看新闻，按时间倒序
+     * @param cursor 上一页返回的nextCursor，第一页传null
+     * @param size
+     * @return
+     */
+    CursorPage<News> findAll(String cursor, int size);
+
+    /**
+     * 不统计总数地分页查看新闻，只返回是否有下一页
+     * @param pageable
+     * @return
+     */
+    Slice<News> findAllSlice(Pageable pageable);
+
     News findById(int newsID);
 
     int create(News news);
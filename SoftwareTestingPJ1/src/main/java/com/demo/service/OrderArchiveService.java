@@ -0,0 +1,10 @@
+package com.demo.service;
+
+public interface OrderArchiveService {
+    /**
+     * 把开始时间早于归档期限的已完成、已失效订单分批移入归档表
+     *
+     * @return 本次归档的订单数
+     */
+    int archive();
+}
@@ -0,0 +1,19 @@
+package com.demo.service;
+
+import com.demo.entity.vo.ExpiryStats;
+
+public interface OrderExpiryService {
+    /**
+     * 把已结束的已审核订单变更为已完成，把到开始时间仍未审核的订单变更为失效
+     *
+     * @return 本次运行后的统计
+     */
+    ExpiryStats expire();
+
+    /**
+     * 查看运行统计
+     *
+     * @return
+     */
+    ExpiryStats getStats();
+}
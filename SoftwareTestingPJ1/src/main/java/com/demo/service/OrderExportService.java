@@ -0,0 +1,31 @@
+package com.demo.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface OrderExportService {
+    String HEADER="订单号,用户,场馆编号,场馆名称,状态,下单时间,开始时间,小时数,金额";
+
+    /**
+     * 把开始日期在[from,to]内的订单（含归档订单）以CSV写入输出流，边读边写
+     *
+     * @param from
+     * @param to
+     * @param venueID 为null时导出全部场馆
+     * @param exportID 客户端生成的导出编号，用于取消，可以为null
+     * @param out
+     * @return 导出的订单数
+     * @throws IOException 写出失败，例如客户端断开
+     * @throws java.util.concurrent.CancellationException 导出被取消
+     */
+    long exportCsv(LocalDate from, LocalDate to, Integer venueID, String exportID, OutputStream out) throws IOException;
+
+    /**
+     * 取消正在进行的导出
+     *
+     * @param exportID
+     * @return 导出不存在或已结束时返回false
+     */
+    boolean cancel(String exportID);
+}
@@ -0,0 +1,31 @@
+package com.demo.service;
+
+import com.demo.entity.vo.ImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface OrderImportService {
+    /**
+     * CSV表头，列依次为用户、场馆名称、状态、下单时间、开始时间、小时数、金额，
+     * 时间格式为yyyy-MM-dd HH:mm:ss，金额为空时按场馆价格计算
+     */
+    String HEADER="userID,venueName,state,orderTime,startTime,hours,total";
+
+    /**
+     * 保存上传的CSV并在后台开始导入
+     *
+     * @param csv
+     * @return 导入报告，凭importID查询进度
+     * @throws IOException 保存上传文件失败
+     */
+    ImportReport start(InputStream csv) throws IOException;
+
+    /**
+     * 查询导入进度和错误
+     *
+     * @param importID
+     * @return 导入不存在或报告已过期时返回null
+     */
+    ImportReport findReport(String importID);
+}
@@ -1,11 +1,22 @@
 package com.demo.service;
 
 import com.demo.entity.Order;
+import com.demo.entity.OrderSeries;
+import com.demo.entity.vo.CursorPage;
+import com.demo.entity.vo.TransitionResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface OrderService {
     int STATE_NO_AUDIT=1;
@@ -13,6 +24,48 @@ public interface OrderService {
     int STATE_FINISH=3;
     int STATE_REJECT=4;
 
+    /**
+     * 各状态变更允许的原状态：未审核才能通过，已审核才能完成，已完成和已失效的订单不能拒绝
+     */
+    List<Integer> CONFIRM_FROM=Collections.singletonList(STATE_NO_AUDIT);
+    List<Integer> FINISH_FROM=Collections.singletonList(STATE_WAIT);
+    List<Integer> REJECT_FROM=Collections.unmodifiableList(Arrays.asList(STATE_NO_AUDIT,STATE_WAIT));
+
+    /**
+     * 可以归档的订单状态
+     */
+    List<Integer> ARCHIVE_STATES=Collections.unmodifiableList(Arrays.asList(STATE_FINISH,STATE_REJECT));
+
+    /**
+     * 计入场馆使用汇总的订单状态
+     */
+    List<Integer> USAGE_STATES=Collections.unmodifiableList(Arrays.asList(STATE_WAIT,STATE_FINISH));
+
+    /**
+     * 预约管理中统计的订单状态
+     */
+    List<Integer> AUDITED_STATES=Collections.unmodifiableList(Arrays.asList(STATE_WAIT,STATE_FINISH));
+
+    /**
+     * 占用场馆时段的订单状态
+     */
+    List<Integer> OCCUPY_STATES=Collections.unmodifiableList(Arrays.asList(STATE_NO_AUDIT,STATE_WAIT,STATE_FINISH));
+
+    /**
+     * 单个订单最多预订的小时数
+     */
+    int MAX_HOURS=24;
+
+    /**
+     * 周期预订最多生成的订单数
+     */
+    int MAX_SERIES_OCCURRENCES=52;
+
+    /**
+     * 管理员批量审核接口一次最多提交的订单数，内部任务调用confirmOrders/rejectOrders时按此分组
+     */
+    int MAX_BATCH_ORDERS=100;
+
     /**
      * 根据orderID查看订单
      *
@@ -24,13 +77,76 @@ public interface OrderService {
 
     Page<Order> findNoAuditOrder(Pageable pageable);
 
-    List<Order> findAuditOrder();
+    /**
+     * 按游标分页查看未审核订单
+     * @param cursor 上一页返回的nextCursor，第一页传null
+     * @param size
+     * @return
+     */
+    CursorPage<Order> findNoAuditOrder(String cursor, int size);
+
+    /**
+     * 不统计总数地分页查看未审核订单，只返回是否有下一页
+     * @param pageable
+     * @return
+     */
+    Slice<Order> findNoAuditOrderSlice(Pageable pageable);
+
+    /**
+     * 分页查看已审核和已完成的订单
+     * @param pageable
+     * @return
+     */
+    Page<Order> findAuditOrder(Pageable pageable);
+
+    /**
+     * 逐个处理已审核和已完成的订单，订单从数据库游标中逐批读取，处理后即从持久化上下文移除，内存占用与订单数无关
+     * @param action
+     */
+    void forEachAuditOrder(Consumer<Order> action);
 
 
     List<Order> findDateOrder(int venueID, LocalDateTime startTime, LocalDateTime startTime2);
 
+    /**
+     * 查看用户订单，包括已归档的历史订单：先列出order表中的订单，翻过之后再从归档表中查询
+     * @param userID
+     * @param pageable
+     * @return
+     */
     Page<Order> findUserOrder(String userID,Pageable pageable);
 
+    /**
+     * 按游标分页查看用户订单
+     * @param userID
+     * @param cursor 上一页返回的nextCursor，第一页传null
+     * @param size
+     * @return
+     */
+    CursorPage<Order> findUserOrder(String userID, String cursor, int size);
+
+    /**
+     * 不统计总数地分页查看用户订单，只返回是否有下一页
+     * @param userID
+     * @param pageable
+     * @return
+     */
+    Slice<Order> findUserOrderSlice(String userID, Pageable pageable);
+
+    /**
+     * 把一批开始时间早于before的已完成、已失效订单移入归档表，并释放它们的时段记录
+     * @param before
+     * @param limit 每批最多归档的订单数
+     * @return 本批归档的订单数
+     */
+    int archiveOrders(LocalDateTime before, int limit);
+
+    /**
+     * 按订单表和归档表重新计算某天的场馆使用汇总，纠正增量维护产生的偏差
+     * @param date
+     */
+    void reconcileUsage(LocalDate date);
+
     void updateOrder(int orderID,String venueName, LocalDateTime startTime, int hours, String userID);
     /**
      * 新建订单
@@ -40,6 +156,21 @@ public interface OrderService {
      */
     void submit(String venueName, LocalDateTime startTime, int hours, String userID);
 
+    /**
+     * 在一个事务内批量新建订单，订单需已填写venueID、startTime、hours、userID，
+     * 成功后回填orderID；任一订单冲突时整批回滚
+     * @param orders
+     */
+    void submitAll(List<Order> orders);
+
+    /**
+     * 批量导入历史订单，保留订单原有的状态、下单时间和金额，在一个事务内批量写入
+     * 时段冲突时整批回滚并抛出OrderConflictException
+     *
+     * @param orders 写入后回填orderID
+     */
+    void importOrders(List<Order> orders);
+
     /**
      * 删除订单
      * @param orderID
@@ -63,4 +194,74 @@ public interface OrderService {
      * @param orderID
      */
     void rejectOrder(int orderID);
+
+    /**
+     * 批量通过订单，只有未审核的订单会被通过
+     * @param orderIDs
+     * @return 每个订单的处理结果
+     */
+    Map<Integer, TransitionResult> confirmOrders(List<Integer> orderIDs);
+
+    /**
+     * 批量拒绝订单，已完成和已失效的订单不会被拒绝
+     * @param orderIDs
+     * @return 每个订单的处理结果
+     */
+    Map<Integer, TransitionResult> rejectOrders(List<Integer> orderIDs);
+
+    /**
+     * 通过场馆某天的全部未审核订单
+     * @param venueID
+     * @param date
+     * @return 每个订单的处理结果
+     */
+    Map<Integer, TransitionResult> confirmVenueOrders(int venueID, LocalDate date);
+
+    /**
+     * 拒绝场馆某天的全部未审核订单
+     * @param venueID
+     * @param date
+     * @return 每个订单的处理结果
+     */
+    Map<Integer, TransitionResult> rejectVenueOrders(int venueID, LocalDate date);
+
+    /**
+     * 周期预订：在[from,to]内每周weekday的startTime预订hours小时。
+     * 一次查询检查全部时段，任一时段已被占用时整体失败，否则在一个事务内批量写入全部订单
+     * @param venueName
+     * @param weekday
+     * @param startTime
+     * @param hours
+     * @param from
+     * @param to
+     * @param userID
+     * @return 周期预订，orderIDs可通过findSeriesOrderIDs查询
+     */
+    OrderSeries submitSeries(String venueName, DayOfWeek weekday, LocalTime startTime, int hours, LocalDate from, LocalDate to, String userID);
+
+    List<OrderSeries> findUserSeries(String userID);
+
+    List<Integer> findSeriesOrderIDs(int seriesID);
+
+    /**
+     * 通过周期预订中全部未审核的订单
+     * @param seriesID
+     * @return 每个订单的处理结果
+     */
+    Map<Integer, TransitionResult> confirmSeries(int seriesID);
+
+    /**
+     * 拒绝周期预订中全部未完成的订单
+     * @param seriesID
+     * @return 每个订单的处理结果
+     */
+    Map<Integer, TransitionResult> rejectSeries(int seriesID);
+
+    /**
+     * 用户取消自己的周期预订，已完成的订单不受影响
+     * @param seriesID
+     * @param userID
+     * @return 每个订单的处理结果
+     */
+    Map<Integer, TransitionResult> cancelSeries(int seriesID, String userID);
 }
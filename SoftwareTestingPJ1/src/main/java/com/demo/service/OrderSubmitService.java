@@ -0,0 +1,27 @@
+package com.demo.service;
+
+import com.demo.entity.vo.SubmissionTicket;
+
+import java.time.LocalDateTime;
+
+public interface OrderSubmitService {
+    /**
+     * 订单进入提交队列，由后台线程批量写入
+     *
+     * @param venueName
+     * @param startTime
+     * @param hours
+     * @param userID
+     * @return 提交凭证，队列已满时抛出SubmitQueueFullException
+     */
+    SubmissionTicket enqueue(String venueName, LocalDateTime startTime, int hours, String userID);
+
+    /**
+     * 查询提交结果
+     *
+     * @param ticketID
+     * @param userID 只能查询自己的凭证
+     * @return 凭证不存在或已过期时返回null
+     */
+    SubmissionTicket findTicket(String ticketID, String userID);
+}
@@ -0,0 +1,27 @@
+package com.demo.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 页面上互不依赖的查询并发执行，页面耗时取决于最慢的查询而不是各查询之和
+ */
+public interface ParallelQueryService {
+    /**
+     * 在查询线程池中执行，查询线程上取不到发起请求的上下文，需要的参数（如当前用户）在调用前取出
+     *
+     * @param query
+     * @param <T>
+     * @return
+     */
+    <T> CompletableFuture<T> supply(Supplier<T> query);
+
+    /**
+     * 等待查询结果，超过超时时间后取消查询并抛出异常；查询抛出的RuntimeException原样抛出
+     *
+     * @param future
+     * @param <T>
+     * @return
+     */
+    <T> T await(CompletableFuture<T> future);
+}
@@ -0,0 +1,23 @@
+package com.demo.service;
+
+import com.demo.entity.vo.RateLimitStats;
+
+import java.util.List;
+
+public interface RateLimitService {
+    /**
+     * 为请求取令牌
+     *
+     * @param path 请求路径
+     * @param clientKey 用户或IP
+     * @return 0表示放行，否则为建议客户端等待的秒数
+     */
+    long tryAcquire(String path, String clientKey);
+
+    /**
+     * 查看各限流接口的计数
+     *
+     * @return
+     */
+    List<RateLimitStats> findStats();
+}
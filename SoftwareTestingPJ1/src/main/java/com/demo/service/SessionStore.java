@@ -0,0 +1,28 @@
+package com.demo.service;
+
+import com.demo.entity.vo.SessionPrincipal;
+
+/**
+ * 登录会话的存储，按demo.session.store选择实现：memory保存在本机内存中，只适合单节点；
+ * jdbc保存在user_session表中，多个节点共用，负载均衡不需要会话粘滞；
+ * signed把用户身份签名后放在令牌里，校验只需计算一次HMAC，不查询任何存储。
+ */
+public interface SessionStore {
+    /**
+     * 新建会话，过期时间从现在起计算
+     *
+     * @param principal
+     * @return 浏览器保存的令牌
+     */
+    String create(SessionPrincipal principal);
+
+    /**
+     * 查找未过期的会话
+     *
+     * @param token
+     * @return 不存在或已过期时返回null
+     */
+    SessionPrincipal find(String token);
+
+    void remove(String token);
+}
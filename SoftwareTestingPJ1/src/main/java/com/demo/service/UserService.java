@@ -1,9 +1,14 @@
 package com.demo.service;
 
 import com.demo.entity.User;
+import com.demo.entity.vo.CursorPage;
+import com.demo.entity.vo.UserProfile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.Map;
+
 public interface UserService {
     /**
      * 根据用户id查找用户
@@ -13,6 +18,22 @@ public interface UserService {
      */
     User findByUserID(String userID);
     User findById(int id);
+
+    /**
+     * 查看用户的展示信息（用户名、头像），优先取缓存
+     *
+     * @param userID
+     * @return 用户不存在时返回null
+     */
+    UserProfile findProfile(String userID);
+
+    /**
+     * 批量查看用户的展示信息，不存在的用户不在结果中
+     *
+     * @param userIDs
+     * @return userID到展示信息的映射
+     */
+    Map<String, UserProfile> findProfiles(Collection<String> userIDs);
     /**
      * 管理员分页查看用户
      *
@@ -21,6 +42,14 @@ public interface UserService {
      */
     Page<User> findByUserID(Pageable pageable);
 
+    /**
+     * 按游标分页查看普通用户，按id升序
+     * @param cursor 上一页返回的nextCursor，第一页传null
+     * @param size
+     * @return
+     */
+    CursorPage<User> findByUserID(String cursor, int size);
+
     /**
      * 检查登录
      *
@@ -0,0 +1,43 @@
+package com.demo.service;
+
+import com.demo.entity.vo.VenueDailyUsage;
+import com.demo.entity.vo.VenueHeatmap;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface VenueReportService {
+    /**
+     * 一次最多查询的天数
+     */
+    int MAX_DAYS=366;
+
+    /**
+     * 按天查看场馆营收
+     *
+     * @param venueID
+     * @param from
+     * @param to 包含当天
+     * @return 每天一条，没有订单的日期为0
+     */
+    List<VenueDailyUsage> findDailyUsage(int venueID, LocalDate from, LocalDate to);
+
+    /**
+     * 查看场馆每天每小时的占用热力图
+     *
+     * @param venueID
+     * @param from
+     * @param to 包含当天
+     * @return
+     */
+    VenueHeatmap findHeatmap(int venueID, LocalDate from, LocalDate to);
+
+    /**
+     * 按订单重新计算日期范围内的使用汇总
+     *
+     * @param from
+     * @param to 包含当天
+     * @return 核对的天数
+     */
+    int reconcile(LocalDate from, LocalDate to);
+}
@@ -1,10 +1,13 @@
 package com.demo.service;
 
 import com.demo.entity.Venue;
+import com.demo.entity.vo.VenueCacheStats;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface VenueService {
     /**
@@ -16,6 +19,14 @@ public interface VenueService {
     Venue findByVenueID(int id);
 
     Venue findByVenueName(String venueName);
+
+    /**
+     * 批量按id查看，不存在的场馆不在结果中
+     *
+     * @param ids
+     * @return 场馆id到场馆的映射
+     */
+    Map<Integer, Venue> findByVenueIDs(Collection<Integer> ids);
     /**
      * 分页查看所有场馆
      * @param pageable
@@ -47,4 +58,11 @@ public interface VenueService {
     void delById(int id);
 
     int countVenueName(String venueName);
+
+    /**
+     * 查看场馆缓存的命中计数
+     *
+     * @return
+     */
+    VenueCacheStats findCacheStats();
 }
@@ -0,0 +1,41 @@
+package com.demo.service;
+
+import com.demo.entity.Waitlist;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface WaitlistService {
+    int STATE_WAITING=1;
+    int STATE_PROMOTED=2;
+    int STATE_CANCELLED=3;
+
+    /**
+     * 登记候补，所选时段至少有一小时已被预订时才能登记；重复登记返回已有的候补
+     *
+     * @param userID
+     * @param venueName
+     * @param startTime
+     * @param hours
+     * @return
+     */
+    Waitlist join(String userID, String venueName, LocalDateTime startTime, int hours);
+
+    /**
+     * 取消自己的候补，已转为订单的候补不能取消
+     *
+     * @param waitID
+     * @param userID
+     */
+    void cancel(int waitID, String userID);
+
+    List<Waitlist> findByUser(String userID);
+
+    /**
+     * 把一个候补转为未审核订单，在独立的事务中执行，时段释放后由WaitlistPromoter按登记顺序调用
+     *
+     * @param waitID
+     * @return 新订单的orderID，候补已被处理或取消时返回0；时段仍被占用时抛出OrderConflictException
+     */
+    int promote(int waitID);
+}
@@ -0,0 +1,304 @@
+package com.demo.service.impl;
+
+import com.demo.dao.OrderDao;
+import com.demo.entity.Order;
+import com.demo.service.AvailabilityService;
+import com.demo.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 内存中的场馆时段占用索引，每个场馆每天一个24位掩码。
+ * 启动时从数据库加载今天及以后的订单，之后由OrderServiceImpl在订单变更时同步维护，
+ * 查询今天及以后的占用情况不再访问数据库。在事务中调用的变更等事务提交后才生效，回滚时不影响索引。
+ * 多节点部署时其他节点的变更不会通知本机，每个场馆每天的占用超过refresh-seconds后在查询时从数据库重新加载，
+ * 其他节点的变更最迟refresh-seconds后可见；为0时不重新加载，只适用于单节点。
+ */
+@Service
+public class AvailabilityServiceImpl implements AvailabilityService {
+    private static final List<Integer> OCCUPY_STATES=
+            Arrays.asList(OrderService.STATE_NO_AUDIT,OrderService.STATE_WAIT,OrderService.STATE_FINISH);
+
+    @Autowired
+    private OrderDao orderDao;
+
+    @Value("${demo.availability.refresh-seconds:30}")
+    private long refreshSeconds;
+
+    /**
+     * (venueID, epochDay) -> 当天各时段的占用
+     */
+    private final Map<Long, DaySlots> days=new ConcurrentHashMap<>();
+
+    /**
+     * orderID -> 已登记的订单时段，释放时无需再查询订单
+     */
+    private final Map<Integer, Booking> bookings=new ConcurrentHashMap<>();
+
+    /**
+     * 早于该日期的查询回退到数据库
+     */
+    private volatile LocalDate indexedFrom=LocalDate.MAX;
+
+    /**
+     * (venueID, epochDay) -> 上次从数据库重新加载的时间
+     */
+    private final Map<Long, Long> refreshedAt=new ConcurrentHashMap<>();
+
+    private volatile long rebuiltAt;
+
+    @PostConstruct
+    @Override
+    public synchronized void rebuild() {
+        // 前一天开始的订单可能跨过零点，一并加载
+        LocalDate from=LocalDate.now().minusDays(1);
+        List<Order> orders=orderDao.findByStartTimeGreaterThanEqualAndStateIn(from.atStartOfDay(),OCCUPY_STATES);
+        days.clear();
+        bookings.clear();
+        refreshedAt.clear();
+        rebuiltAt=System.currentTimeMillis();
+        indexedFrom=from.plusDays(1);
+        for(Order order:orders){
+            index(order.getOrderID(),bookingOf(order));
+        }
+    }
+
+    /**
+     * 每天零点后移除已过去的日期，之后这些日期的查询回退到数据库
+     */
+    @Scheduled(cron = "${demo.availability.evict-cron:0 5 0 * * ?}")
+    public synchronized void evictPastDays() {
+        LocalDate today=LocalDate.now();
+        if(!today.isAfter(indexedFrom)) {
+            return;
+        }
+        indexedFrom=today;
+        long todayKey=today.toEpochDay();
+        days.keySet().removeIf(key->(key&0xffffffffL)<todayKey);
+        refreshedAt.keySet().removeIf(key->(key&0xffffffffL)<todayKey);
+        bookings.values().removeIf(booking->!booking.endsAfter(today));
+    }
+
+    @Override
+    public int findBusySlots(int venueID, LocalDate date) {
+        if(date.isBefore(indexedFrom)) {
+            return loadBusySlots(venueID,date,0);
+        }
+        refreshIfStale(venueID,date);
+        DaySlots slots=days.get(key(venueID,date));
+        return slots==null ? 0 : slots.mask;
+    }
+
+    @Override
+    public synchronized int findBusySlots(int venueID, LocalDate date, int excludeOrderID) {
+        if(date.isBefore(indexedFrom)) {
+            return loadBusySlots(venueID,date,excludeOrderID);
+        }
+        refreshIfStale(venueID,date);
+        DaySlots slots=days.get(key(venueID,date));
+        if(slots==null) {
+            return 0;
+        }
+        Booking booking=bookings.get(excludeOrderID);
+        if(booking==null||booking.venueID!=venueID) {
+            return slots.mask;
+        }
+        return slots.maskWithout(booking.hoursOn(date));
+    }
+
+    private void refreshIfStale(int venueID, LocalDate date) {
+        if(refreshSeconds<=0) {
+            return;
+        }
+        long key=key(venueID,date);
+        long now=System.currentTimeMillis();
+        if(Math.max(refreshedAt.getOrDefault(key,0L),rebuiltAt)>=now-TimeUnit.SECONDS.toMillis(refreshSeconds)) {
+            return;
+        }
+        synchronized (this) {
+            if(date.isBefore(indexedFrom)||Math.max(refreshedAt.getOrDefault(key,0L),rebuiltAt)>=now-TimeUnit.SECONDS.toMillis(refreshSeconds)) {
+                return;
+            }
+            refresh(venueID,date);
+            refreshedAt.put(key,now);
+        }
+    }
+
+    /**
+     * 按数据库中的订单重新登记场馆当天的占用：数据库中已不占用当天的订单从索引中移除，其余按数据库替换
+     */
+    private void refresh(int venueID, LocalDate date) {
+        List<Order> orders=orderDao.findByVenueIDAndStartTimeIsBetween(venueID,
+                date.minusDays(1).atStartOfDay(),date.plusDays(1).atStartOfDay());
+        Set<Integer> occupying=new HashSet<>();
+        for(Order order:orders){
+            Booking booking=bookingOf(order);
+            if(booking!=null&&booking.hoursOn(date)!=0) {
+                occupying.add(order.getOrderID());
+                index(order.getOrderID(),booking);
+            }
+        }
+        for(Map.Entry<Integer, Booking> entry:bookings.entrySet()){
+            Booking booking=entry.getValue();
+            if(booking.venueID==venueID&&booking.hoursOn(date)!=0&&!occupying.contains(entry.getKey())) {
+                index(entry.getKey(),null);
+            }
+        }
+    }
+
+    @Override
+    public void addOrder(Order order) {
+        // 调用时即复制订单的时段，事务提交前订单实体可能还会被修改
+        int orderID=order.getOrderID();
+        Booking booking=bookingOf(order);
+        afterCommit(()->index(orderID,booking));
+    }
+
+    @Override
+    public void removeOrder(int orderID) {
+        afterCommit(()->index(orderID,null));
+    }
+
+    /**
+     * 有事务时在提交后执行，没有事务时立即执行
+     */
+    private static void afterCommit(Runnable action) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * 替换订单登记的时段，booking为null表示只移除
+     */
+    private synchronized void index(int orderID, Booking booking) {
+        Booking old=bookings.remove(orderID);
+        if(old!=null) {
+            old.apply(-1);
+        }
+        // 导入的历史订单等不涉及已索引日期的订单不登记
+        if(booking!=null&&booking.endsAfter(indexedFrom)) {
+            bookings.put(orderID,booking);
+            booking.apply(1);
+        }
+    }
+
+    private Booking bookingOf(Order order) {
+        if(order.getStartTime()==null||order.getHours()<=0||!OCCUPY_STATES.contains(order.getState())) {
+            return null;
+        }
+        return new Booking(order.getVenueID(),order.getStartTime().truncatedTo(ChronoUnit.HOURS),order.getHours());
+    }
+
+    private int loadBusySlots(int venueID, LocalDate date, int excludeOrderID) {
+        List<Order> orders=orderDao.findByVenueIDAndStartTimeIsBetween(venueID,
+                date.minusDays(1).atStartOfDay(),date.plusDays(1).atStartOfDay());
+        int mask=0;
+        for(Order order:orders){
+            if(order.getOrderID()==excludeOrderID||order.getStartTime()==null||!OCCUPY_STATES.contains(order.getState())) {
+                continue;
+            }
+            Booking booking=new Booking(order.getVenueID(),order.getStartTime().truncatedTo(ChronoUnit.HOURS),order.getHours());
+            mask|=booking.hoursOn(date);
+        }
+        return mask;
+    }
+
+    private static long key(int venueID, LocalDate date) {
+        return ((long) venueID<<32)|(date.toEpochDay()&0xffffffffL);
+    }
+
+    private class Booking {
+        private final int venueID;
+        private final LocalDateTime startTime;
+        private final int hours;
+
+        Booking(int venueID, LocalDateTime startTime, int hours) {
+            this.venueID=venueID;
+            this.startTime=startTime;
+            this.hours=Math.min(hours,SLOTS_PER_DAY*7);
+        }
+
+        void apply(int delta) {
+            LocalDateTime time=startTime;
+            for(int i=0;i<hours;i++,time=time.plusHours(1)){
+                if(time.toLocalDate().isBefore(indexedFrom)) {
+                    continue;
+                }
+                long key=key(venueID,time.toLocalDate());
+                DaySlots slots=days.computeIfAbsent(key,k->new DaySlots());
+                slots.add(time.getHour(),delta);
+                if(slots.mask==0&&delta<0) {
+                    days.remove(key);
+                }
+            }
+        }
+
+        boolean endsAfter(LocalDate date) {
+            return startTime.plusHours(hours).isAfter(date.atStartOfDay());
+        }
+
+        int hoursOn(LocalDate date) {
+            int mask=0;
+            LocalDateTime time=startTime;
+            for(int i=0;i<hours;i++){
+                if(time.toLocalDate().equals(date)) {
+                    mask|=1<<time.getHour();
+                }
+                time=time.plusHours(1);
+            }
+            return mask;
+        }
+    }
+
+    /**
+     * 同一时段可能存在重叠订单，按计数维护，计数大于0的时段对应掩码位为1
+     */
+    private static class DaySlots {
+        private final int[] counts=new int[SLOTS_PER_DAY];
+        private volatile int mask;
+
+        void add(int hour, int delta) {
+            counts[hour]=Math.max(0,counts[hour]+delta);
+            if(counts[hour]>0) {
+                mask|=1<<hour;
+            }
+            else {
+                mask&=~(1<<hour);
+            }
+        }
+
+        int maskWithout(int bookingMask) {
+            int result=mask;
+            for(int hour=0;hour<SLOTS_PER_DAY;hour++){
+                if((bookingMask&(1<<hour))!=0&&counts[hour]<=1) {
+                    result&=~(1<<hour);
+                }
+            }
+            return result;
+        }
+    }
+}
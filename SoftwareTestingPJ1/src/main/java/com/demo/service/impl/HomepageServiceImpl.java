@@ -0,0 +1,121 @@
+package com.demo.service.impl;
+
+import com.demo.entity.Message;
+import com.demo.entity.News;
+import com.demo.entity.Venue;
+import com.demo.entity.vo.HomepageSnapshot;
+import com.demo.entity.vo.MessageVo;
+import com.demo.event.HomepageChangedEvent;
+import com.demo.service.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 首页数据只在管理员修改场馆、新闻或审核留言时变化，因此预先生成快照，请求直接使用快照。
+ * 相关写操作发布HomepageChangedEvent，由单个后台线程重新生成，短时间内的多次修改合并为一次；
+ * 作者改名等不发布事件的变化，由max-staleness-seconds限定快照的最长使用时间，0表示不限。
+ */
+@Service
+public class HomepageServiceImpl implements HomepageService {
+    private static final Logger log=LoggerFactory.getLogger(HomepageServiceImpl.class);
+
+    @Autowired
+    private VenueService venueService;
+    @Autowired
+    private NewsService newsService;
+    @Autowired
+    private MessageService messageService;
+    @Autowired
+    private MessageVoService messageVoService;
+    @Autowired
+    private ParallelQueryService parallelQueryService;
+
+    @Value("${demo.homepage.max-staleness-seconds:300}")
+    private long maxStalenessSeconds;
+
+    private volatile HomepageSnapshot snapshot;
+
+    /**
+     * 已提交但还未开始的重新生成任务，有则不再重复提交
+     */
+    private final AtomicBoolean pending=new AtomicBoolean();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        executor=Executors.newSingleThreadExecutor(r->new Thread(r,"homepage-snapshot"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public HomepageSnapshot current() {
+        HomepageSnapshot current=snapshot;
+        if(current==null) {
+            synchronized (this) {
+                if(snapshot==null) {
+                    snapshot=build();
+                }
+                return snapshot;
+            }
+        }
+        if(maxStalenessSeconds>0&&current.getBuiltAt()+TimeUnit.SECONDS.toMillis(maxStalenessSeconds)<System.currentTimeMillis()) {
+            requestRebuild();
+        }
+        return current;
+    }
+
+    @Override
+    public void requestRebuild() {
+        if(!pending.compareAndSet(false,true)) {
+            return;
+        }
+        executor.execute(()->{
+            // 先清除标记，生成期间的修改会再提交一次
+            pending.set(false);
+            try {
+                snapshot=build();
+            } catch (RuntimeException e) {
+                log.error("failed to rebuild homepage snapshot",e);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChanged(HomepageChangedEvent event) {
+        requestRebuild();
+    }
+
+    HomepageSnapshot build() {
+        long builtAt=System.currentTimeMillis();
+        CompletableFuture<List<Venue>> venues=parallelQueryService.supply(
+                ()->venueService.findAll(PageRequest.of(0,SIZE,Sort.by("venueID").ascending())).getContent());
+        CompletableFuture<List<News>> news=parallelQueryService.supply(
+                ()->newsService.findAllSlice(PageRequest.of(0,SIZE,Sort.by("time").descending())).getContent());
+        CompletableFuture<List<MessageVo>> messages=parallelQueryService.supply(()->{
+            List<Message> passed=messageService.findPassStateSlice(PageRequest.of(0,SIZE,Sort.by("time").descending())).getContent();
+            return messageVoService.returnVo(passed);
+        });
+        return new HomepageSnapshot(parallelQueryService.await(venues),parallelQueryService.await(news),
+                parallelQueryService.await(messages),builtAt);
+    }
+}
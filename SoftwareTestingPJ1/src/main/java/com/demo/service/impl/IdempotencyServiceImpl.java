@@ -0,0 +1,180 @@
+package com.demo.service.impl;
+
+import com.demo.dao.IdempotencyRecordDao;
+import com.demo.entity.IdempotencyRecord;
+import com.demo.service.IdempotencyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 幂等键记录。默认保存在本机内存中，最多capacity条，超过ttl-seconds过期；
+ * 多节点部署时开启db-enabled，改用idempotency_record表，由主键冲突判断重复请求。
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+    private static final int PURGE_BATCH=1000;
+
+    @Autowired
+    private IdempotencyRecordDao idempotencyRecordDao;
+
+    @Value("${demo.idempotency.db-enabled:false}")
+    private boolean dbEnabled;
+
+    @Value("${demo.idempotency.capacity:10000}")
+    private int capacity;
+
+    @Value("${demo.idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    /**
+     * 重复请求等待第一次请求完成的最长时间
+     */
+    @Value("${demo.idempotency.wait-seconds:10}")
+    private long waitSeconds;
+
+    /**
+     * 数据库中处理中的记录超过这个时间仍没有结果，视为处理它的节点已失败，允许重新占用
+     */
+    @Value("${demo.idempotency.processing-timeout-seconds:300}")
+    private long processingTimeoutSeconds;
+
+    /**
+     * 处理中的记录不淘汰，否则重复请求会再执行一次；处理中的请求都在等待时数量可能暂时超过capacity
+     */
+    private final Map<String, Record> records=new LinkedHashMap<String, Record>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Record> eldest) {
+            Iterator<Record> iterator=values().iterator();
+            while(size()>capacity&&iterator.hasNext()){
+                if(iterator.next().isDone()) {
+                    iterator.remove();
+                }
+            }
+            return false;
+        }
+    };
+
+    @Override
+    public String execute(String userID, String key, Supplier<String> action) {
+        if(key==null||key.isEmpty()) {
+            return action.get();
+        }
+        if(key.length()>MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("幂等键无效");
+        }
+        String idemKey=userID+":"+key;
+        return dbEnabled ? executeInDb(idemKey,action) : executeInMemory(idemKey,action);
+    }
+
+    private String executeInMemory(String idemKey, Supplier<String> action) {
+        long now=System.currentTimeMillis();
+        Record record=new Record(now);
+        Record existing;
+        synchronized (records) {
+            existing=records.get(idemKey);
+            if(existing==null||existing.isDone()&&existing.expiredBefore(now-TimeUnit.SECONDS.toMillis(ttlSeconds))) {
+                records.put(idemKey,record);
+                existing=null;
+            }
+        }
+        if(existing!=null) {
+            return await(existing.result);
+        }
+        try {
+            String result=action.get();
+            record.result.complete(result);
+            return result;
+        } catch (RuntimeException|Error e) {
+            synchronized (records) {
+                records.remove(idemKey,record);
+            }
+            record.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private String await(CompletableFuture<String> result) {
+        try {
+            return result.get(waitSeconds,TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("请求正在处理，请勿重复提交");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("请求正在处理，请勿重复提交");
+        }
+    }
+
+    /**
+     * 键已存在时，过期的记录和处理超时（节点宕机等原因没有释放）的记录可以被重新占用。
+     * 保存结果和释放时带上占用时间，被别人重新占用后不会覆盖对方的记录
+     */
+    private String executeInDb(String idemKey, Supplier<String> action) {
+        // datetime列只保存到秒
+        LocalDateTime now=LocalDateTime.now().withNano(0);
+        if(idempotencyRecordDao.claim(idemKey,now)==0
+                &&idempotencyRecordDao.reclaim(idemKey,now,now.minusSeconds(ttlSeconds),now.minusSeconds(processingTimeoutSeconds))==0) {
+            IdempotencyRecord existing=idempotencyRecordDao.findById(idemKey).orElse(null);
+            if(existing!=null&&existing.getResult()!=null) {
+                return existing.getResult();
+            }
+            throw new RuntimeException("请求正在处理，请勿重复提交");
+        }
+        try {
+            String result=action.get();
+            idempotencyRecordDao.complete(idemKey,now,result);
+            return result;
+        } catch (RuntimeException|Error e) {
+            idempotencyRecordDao.release(idemKey,now);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${demo.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        if(dbEnabled) {
+            LocalDateTime before=LocalDateTime.now().minusSeconds(ttlSeconds);
+            while(idempotencyRecordDao.deleteExpired(before,PURGE_BATCH)==PURGE_BATCH){
+                // 分批删除，避免长时间锁表
+            }
+            return;
+        }
+        long before=System.currentTimeMillis()-TimeUnit.SECONDS.toMillis(ttlSeconds);
+        synchronized (records) {
+            records.values().removeIf(record->record.isDone()&&record.expiredBefore(before));
+        }
+    }
+
+    private static class Record {
+        private final CompletableFuture<String> result=new CompletableFuture<>();
+        private final long createdAt;
+
+        Record(long createdAt) {
+            this.createdAt=createdAt;
+        }
+
+        boolean isDone() {
+            return result.isDone();
+        }
+
+        boolean expiredBefore(long time) {
+            return createdAt<time;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.demo.service.impl;
+
+import com.demo.dao.UserSessionDao;
+import com.demo.entity.UserSession;
+import com.demo.entity.vo.SessionPrincipal;
+import com.demo.service.SessionStore;
+import com.demo.utils.TokenUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * 会话保存在user_session表中，所有节点共用，节点重启不影响已登录的用户
+ */
+@Service
+@ConditionalOnProperty(name="demo.session.store",havingValue="jdbc")
+public class JdbcSessionStore implements SessionStore {
+    @Autowired
+    private UserSessionDao userSessionDao;
+
+    @Value("${demo.session.ttl-seconds:43200}")
+    private long ttlSeconds;
+
+    @Value("${demo.session.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    @Override
+    public String create(SessionPrincipal principal) {
+        String token=TokenUtil.randomToken();
+        userSessionDao.save(new UserSession(token,principal.getId(),principal.getUserID(),principal.getUserName(),principal.getPicture(),
+                principal.getIsadmin(),LocalDateTime.now().plusSeconds(ttlSeconds)));
+        return token;
+    }
+
+    @Override
+    public SessionPrincipal find(String token) {
+        UserSession session=userSessionDao.findValid(token,LocalDateTime.now());
+        return session==null ? null
+                : new SessionPrincipal(session.getId(),session.getUserID(),session.getUserName(),session.getPicture(),session.getIsadmin());
+    }
+
+    @Override
+    public void remove(String token) {
+        userSessionDao.deleteByToken(token);
+    }
+
+    @Scheduled(fixedDelayString = "${demo.session.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        LocalDateTime now=LocalDateTime.now();
+        while(userSessionDao.deleteExpired(now,purgeBatchSize)==purgeBatchSize) {
+            // 分批删除，避免长时间锁表
+        }
+    }
+}
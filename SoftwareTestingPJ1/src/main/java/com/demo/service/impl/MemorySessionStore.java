@@ -0,0 +1,106 @@
+package com.demo.service.impl;
+
+import com.demo.entity.vo.SessionPrincipal;
+import com.demo.service.SessionStore;
+import com.demo.utils.TokenUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 会话保存在本机内存中，按令牌的哈希分成多个分片，各分片单独加锁，过期会话定时清理
+ */
+@Service
+@ConditionalOnProperty(name="demo.session.store",havingValue="memory",matchIfMissing=true)
+public class MemorySessionStore implements SessionStore {
+    @Value("${demo.session.ttl-seconds:43200}")
+    private long ttlSeconds;
+
+    @Value("${demo.session.shards:16}")
+    private int shardCount;
+
+    private Map<String, Entry>[] shards;
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void init() {
+        shards=new Map[shardCount];
+        for(int i=0;i<shardCount;i++){
+            shards[i]=new HashMap<>();
+        }
+    }
+
+    @Override
+    public String create(SessionPrincipal principal) {
+        String token=TokenUtil.randomToken();
+        Map<String, Entry> shard=shard(token);
+        synchronized (shard) {
+            shard.put(token,new Entry(principal,System.currentTimeMillis()+TimeUnit.SECONDS.toMillis(ttlSeconds)));
+        }
+        return token;
+    }
+
+    @Override
+    public SessionPrincipal find(String token) {
+        Map<String, Entry> shard=shard(token);
+        synchronized (shard) {
+            Entry entry=shard.get(token);
+            if(entry==null) {
+                return null;
+            }
+            if(entry.expireAt<=System.currentTimeMillis()) {
+                shard.remove(token);
+                return null;
+            }
+            return entry.principal;
+        }
+    }
+
+    @Override
+    public void remove(String token) {
+        Map<String, Entry> shard=shard(token);
+        synchronized (shard) {
+            shard.remove(token);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${demo.session.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        long now=System.currentTimeMillis();
+        for(Map<String, Entry> shard:shards){
+            synchronized (shard) {
+                shard.values().removeIf(entry->entry.expireAt<=now);
+            }
+        }
+    }
+
+    int size() {
+        int size=0;
+        for(Map<String, Entry> shard:shards){
+            synchronized (shard) {
+                size+=shard.size();
+            }
+        }
+        return size;
+    }
+
+    private Map<String, Entry> shard(String token) {
+        return shards[(token.hashCode()&Integer.MAX_VALUE)%shards.length];
+    }
+
+    private static class Entry {
+        private final SessionPrincipal principal;
+        private final long expireAt;
+
+        Entry(SessionPrincipal principal, long expireAt) {
+            this.principal=principal;
+            this.expireAt=expireAt;
+        }
+    }
+}
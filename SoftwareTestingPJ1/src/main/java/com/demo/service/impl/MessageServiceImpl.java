@@ -2,16 +2,27 @@ package com.demo.service.impl;
 
 import com.demo.dao.MessageDao;
 import com.demo.entity.Message;
+import com.demo.entity.vo.CursorPage;
+import com.demo.entity.vo.TransitionResult;
+import com.demo.event.HomepageChangedEvent;
 import com.demo.service.MessageService;
+import com.demo.utils.CursorUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class MessageServiceImpl implements MessageService {
     @Autowired
     private MessageDao messageDao;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Override
     public Message findById(int messageID) {
@@ -25,6 +36,11 @@ public class MessageServiceImpl implements MessageService {
         return page;
     }
 
+    @Override
+    public Slice<Message> findByUserSlice(String userID, Pageable pageable) {
+        return messageDao.findSliceByUserID(userID,pageable);
+    }
+
     @Override
     public int create(Message message) {
         return messageDao.save(message).getMessageID();
@@ -33,29 +49,25 @@ public class MessageServiceImpl implements MessageService {
     @Override
     public void delById(int messageID) {
         messageDao.deleteById(messageID);
+        eventPublisher.publishEvent(new HomepageChangedEvent("message"));
     }
 
     @Override
     public void update(Message message) {
         messageDao.save(message);
+        eventPublisher.publishEvent(new HomepageChangedEvent("message"));
     }
 
     @Override
     public void confirmMessage(int messageID) {
-        Message message=messageDao.findByMessageID(messageID);
-        if(message==null) {
-            throw new RuntimeException("留言不存在");
-        }
-        messageDao.updateState(STATE_PASS,message.getMessageID());
+        check(transition(messageID,STATE_PASS,CONFIRM_FROM));
+        eventPublisher.publishEvent(new HomepageChangedEvent("message"));
     }
 
     @Override
     public void rejectMessage(int messageID) {
-        Message message=messageDao.findByMessageID(messageID);
-        if(message==null) {
-            throw new RuntimeException("留言不存在");
-        }
-        messageDao.updateState(STATE_REJECT,message.getMessageID());
+        check(transition(messageID,STATE_REJECT,REJECT_FROM));
+        eventPublisher.publishEvent(new HomepageChangedEvent("message"));
     }
 
     @Override
@@ -68,4 +80,40 @@ public class MessageServiceImpl implements MessageService {
         return messageDao.findAllByState(STATE_PASS,pageable);
     }
 
+    @Override
+    public Slice<Message> findWaitStateSlice(Pageable pageable) {
+        return messageDao.findSliceByState(STATE_NO_AUDIT,pageable);
+    }
+
+    @Override
+    public Slice<Message> findPassStateSlice(Pageable pageable) {
+        return messageDao.findSliceByState(STATE_PASS,pageable);
+    }
+
+    @Override
+    public CursorPage<Message> findPassState(String cursor, int size) {
+        CursorUtil.Cursor after=CursorUtil.decode(cursor);
+        Pageable limit=PageRequest.of(0,size+1);
+        List<Message> messages=after==null
+                ? messageDao.findByStateOrderByTimeDescMessageIDDesc(STATE_PASS,limit)
+                : messageDao.findByStateBefore(STATE_PASS,after.getTime(),after.getId(),limit);
+        return CursorUtil.page(messages,size,message->CursorUtil.encode(message.getTime(),message.getMessageID()));
+    }
+
+    /**
+     * 单条条件更新完成状态变更，只有更新失败时才查询留言是否存在
+     */
+    private TransitionResult transition(int messageID, int state, List<Integer> fromStates) {
+        int updated=messageDao.updateStateFrom(state,messageID,fromStates);
+        return TransitionResult.of(updated,()->messageDao.existsById(messageID));
+    }
+
+    private static void check(TransitionResult result) {
+        if(result==TransitionResult.NOT_FOUND) {
+            throw new RuntimeException("留言不存在");
+        }
+        if(result==TransitionResult.ILLEGAL_STATE) {
+            throw new IllegalStateException("留言状态转换不允许");
+        }
+    }
 }
@@ -1,39 +1,53 @@
 package com.demo.service.impl;
 
 import com.demo.dao.MessageDao;
-import com.demo.dao.UserDao;
 import com.demo.entity.Message;
-import com.demo.entity.User;
 import com.demo.entity.vo.MessageVo;
+import com.demo.entity.vo.UserProfile;
 import com.demo.service.MessageVoService;
+import com.demo.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 @Service
 public class MessageVoServiceImpl implements MessageVoService {
     @Autowired
     private MessageDao messageDao;
     @Autowired
-    private UserDao userDao;
+    private UserService userService;
 
     @Override
     public MessageVo returnMessageVoByMessageID(int messageID) {
         Message message=messageDao.findByMessageID(messageID);
-        User user=userDao.findByUserID(message.getUserID());
-        MessageVo messageVo=new MessageVo(message.getMessageID(),user.getUserID(),message.getContent(),message.getTime(),user.getUserName(),user.getPicture(),message.getState());
-
-        return messageVo;
+        UserProfile user=userService.findProfile(message.getUserID());
+        return toVo(message,user);
     }
 
+    /**
+     * 直接使用已加载的留言，作者的用户名、头像按去重后的userID一次取出，
+     * 缓存未命中的作者合并为一条查询。
+     */
     @Override
     public List<MessageVo> returnVo(List<Message> messages) {
-        List<MessageVo> list=new ArrayList<>();
-        for(int i=0;i<messages.size();i++){
-            list.add(returnMessageVoByMessageID(messages.get(i).getMessageID()));
+        List<MessageVo> list=new ArrayList<>(messages.size());
+        if(messages.isEmpty()) {
+            return list;
+        }
+        Set<String> userIDs=new HashSet<>();
+        for(Message message:messages){
+            userIDs.add(message.getUserID());
+        }
+        Map<String, UserProfile> users=userService.findProfiles(userIDs);
+        for(Message message:messages){
+            list.add(toVo(message,users.get(message.getUserID())));
         }
         return list;
     }
+
+    private static MessageVo toVo(Message message, UserProfile user) {
+        return new MessageVo(message.getMessageID(),message.getUserID(),message.getContent(),message.getTime(),
+                user==null ? null : user.getUserName(),user==null ? null : user.getPicture(),message.getState());
+    }
 }
@@ -2,22 +2,47 @@ package com.demo.service.impl;
 
 import com.demo.dao.NewsDao;
 import com.demo.entity.News;
+import com.demo.entity.vo.CursorPage;
+import com.demo.event.HomepageChangedEvent;
 import com.demo.service.NewsService;
+import com.demo.utils.CursorUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
 
 @Service
 public class NewsServiceImpl implements NewsService {
     @Autowired
     private NewsDao newsDao;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Override
     public Page<News> findAll(Pageable pageable) {
         return newsDao.findAll(pageable);
     }
 
+    @Override
+    public Slice<News> findAllSlice(Pageable pageable) {
+        return newsDao.findSlice(pageable);
+    }
+
+    @Override
+    public CursorPage<News> findAll(String cursor, int size) {
+        CursorUtil.Cursor after=CursorUtil.decode(cursor);
+        Pageable limit=PageRequest.of(0,size+1);
+        List<News> news=after==null
+                ? newsDao.findAllByOrderByTimeDescNewsIDDesc(limit)
+                : newsDao.findBefore(after.getTime(),after.getId(),limit);
+        return CursorUtil.page(news,size,item->CursorUtil.encode(item.getTime(),item.getNewsID()));
+    }
+
     @Override
     public News findById(int newsID) {
         return newsDao.getOne(newsID);
@@ -25,16 +50,20 @@ public class NewsServiceImpl implements NewsService {
 
     @Override
     public int create(News news) {
-        return newsDao.save(news).getNewsID();
+        int newsID=newsDao.save(news).getNewsID();
+        eventPublisher.publishEvent(new HomepageChangedEvent("news"));
+        return newsID;
     }
 
     @Override
     public void delById(int newsID) {
         newsDao.deleteById(newsID);
+        eventPublisher.publishEvent(new HomepageChangedEvent("news"));
     }
 
     @Override
     public void update(News news) {
         newsDao.save(news);
+        eventPublisher.publishEvent(new HomepageChangedEvent("news"));
     }
 }
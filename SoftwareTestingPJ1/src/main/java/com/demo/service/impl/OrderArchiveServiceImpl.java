@@ -0,0 +1,62 @@
+package com.demo.service.impl;
+
+import com.demo.service.OrderArchiveService;
+import com.demo.service.OrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 定时归档历史订单，order表只保留进行中和近期的订单。
+ * 每批在OrderService.archiveOrders的一个事务内完成复制和删除。
+ */
+@Service
+public class OrderArchiveServiceImpl implements OrderArchiveService {
+    private static final Logger log=LoggerFactory.getLogger(OrderArchiveServiceImpl.class);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Value("${demo.order.archive.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 开始时间早于多少天前的订单被归档
+     */
+    @Value("${demo.order.archive.horizon-days:180}")
+    private int horizonDays;
+
+    @Value("${demo.order.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${demo.order.archive.max-batches:200}")
+    private int maxBatches;
+
+    @Scheduled(cron = "${demo.order.archive.cron:0 30 3 * * ?}")
+    public void scheduledArchive() {
+        if(enabled) {
+            int archived=archive();
+            log.info("archived {} orders",archived);
+        }
+    }
+
+    @Override
+    public synchronized int archive() {
+        LocalDateTime before=LocalDate.now().minusDays(horizonDays).atStartOfDay();
+        int archived=0;
+        for(int i=0;i<maxBatches;i++){
+            int count=orderService.archiveOrders(before,batchSize);
+            archived+=count;
+            if(count<batchSize) {
+                break;
+            }
+        }
+        return archived;
+    }
+}
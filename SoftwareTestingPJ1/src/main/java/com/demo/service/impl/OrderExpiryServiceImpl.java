@@ -0,0 +1,100 @@
+package com.demo.service.impl;
+
+import com.demo.dao.OrderDao;
+import com.demo.entity.vo.ExpiryStats;
+import com.demo.entity.vo.TransitionResult;
+import com.demo.service.OrderExpiryService;
+import com.demo.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 定时清理过期订单。每批用一条带limit的update变更，单批提交，不会长时间锁住订单表；
+ * 失效的订单通过OrderService.rejectOrders处理，同时释放占用的时段；每批再按MAX_BATCH_ORDERS分组调用，
+ * 每组的IN列表和事务都不会过大。
+ */
+@Service
+public class OrderExpiryServiceImpl implements OrderExpiryService {
+    @Autowired
+    private OrderDao orderDao;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Value("${demo.order.expiry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${demo.order.expiry.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * 每次运行最多处理的批数，剩余的留给下次运行
+     */
+    @Value("${demo.order.expiry.max-chunks:100}")
+    private int maxChunks;
+
+    private final ExpiryStats stats=new ExpiryStats();
+
+    @Scheduled(fixedDelayString = "${demo.order.expiry.interval-ms:300000}",
+            initialDelayString = "${demo.order.expiry.initial-delay-ms:60000}")
+    public void scheduledExpire() {
+        if(enabled) {
+            expire();
+        }
+    }
+
+    @Override
+    public synchronized ExpiryStats expire() {
+        long begin=System.currentTimeMillis();
+        LocalDateTime now=LocalDateTime.now();
+
+        int finished=0;
+        for(int i=0;i<maxChunks;i++){
+            int updated=orderDao.updateStateElapsed(OrderService.STATE_FINISH,OrderService.STATE_WAIT,now,chunkSize);
+            finished+=updated;
+            if(updated<chunkSize) {
+                break;
+            }
+        }
+
+        int rejected=0;
+        for(int i=0;i<maxChunks;i++){
+            List<Integer> orderIDs=orderDao.findIDsByStateStartedBefore(OrderService.STATE_NO_AUDIT,now,chunkSize);
+            if(orderIDs.isEmpty()) {
+                break;
+            }
+            for(int from=0;from<orderIDs.size();from+=OrderService.MAX_BATCH_ORDERS){
+                List<Integer> group=orderIDs.subList(from,Math.min(from+OrderService.MAX_BATCH_ORDERS,orderIDs.size()));
+                for(Map.Entry<Integer, TransitionResult> entry:orderService.rejectOrders(group).entrySet()){
+                    if(entry.getValue()==TransitionResult.SUCCESS) {
+                        rejected++;
+                    }
+                }
+            }
+            if(orderIDs.size()<chunkSize) {
+                break;
+            }
+        }
+
+        stats.setLastRunAt(now);
+        stats.setLastDurationMillis(System.currentTimeMillis()-begin);
+        stats.setLastFinished(finished);
+        stats.setLastRejected(rejected);
+        stats.setRuns(stats.getRuns()+1);
+        stats.setTotalFinished(stats.getTotalFinished()+finished);
+        stats.setTotalRejected(stats.getTotalRejected()+rejected);
+        return getStats();
+    }
+
+    @Override
+    public synchronized ExpiryStats getStats() {
+        return new ExpiryStats(stats.getLastRunAt(),stats.getLastDurationMillis(),stats.getLastFinished(),
+                stats.getLastRejected(),stats.getRuns(),stats.getTotalFinished(),stats.getTotalRejected());
+    }
+}
@@ -0,0 +1,115 @@
+package com.demo.service.impl;
+
+import com.demo.dao.OrderExportDao;
+import com.demo.service.OrderExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 以CSV流式导出订单。订单由OrderExportDao的只读游标逐行读出后立即写入响应，
+ * 内存占用与导出的行数无关；写出失败或导出被取消时抛出异常中止查询。
+ */
+@Service
+public class OrderExportServiceImpl implements OrderExportService {
+    private static final DateTimeFormatter TIME_FORMAT=DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] STATE_NAMES={"","未审核","已审核","已完成","失效"};
+
+    @Autowired
+    private OrderExportDao orderExportDao;
+
+    private final Map<String, AtomicBoolean> running=new ConcurrentHashMap<>();
+
+    @Override
+    public long exportCsv(LocalDate from, LocalDate to, Integer venueID, String exportID, OutputStream out) throws IOException {
+        if(from==null||to==null||to.isBefore(from)) {
+            throw new IllegalArgumentException("导出日期范围无效");
+        }
+        AtomicBoolean cancelled=new AtomicBoolean();
+        if(exportID!=null&&running.putIfAbsent(exportID,cancelled)!=null) {
+            throw new IllegalArgumentException("导出编号重复");
+        }
+        Writer writer=new BufferedWriter(new OutputStreamWriter(out,StandardCharsets.UTF_8));
+        long[] count={0};
+        try {
+            // BOM让Excel按UTF-8打开
+            writer.write('\uFEFF');
+            writer.write(HEADER);
+            writer.write("\r\n");
+            orderExportDao.streamOrders(from.atStartOfDay(),to.plusDays(1).atStartOfDay(),venueID,rs->{
+                if(cancelled.get()) {
+                    throw new CancellationException("导出已取消");
+                }
+                try {
+                    writer.write(String.valueOf(rs.getInt(1)));
+                    writer.write(',');
+                    writer.write(escape(rs.getString(2)));
+                    writer.write(',');
+                    writer.write(String.valueOf(rs.getInt(3)));
+                    writer.write(',');
+                    writer.write(escape(rs.getString(4)));
+                    writer.write(',');
+                    int state=rs.getInt(5);
+                    writer.write(state>0&&state<STATE_NAMES.length ? STATE_NAMES[state] : String.valueOf(state));
+                    writer.write(',');
+                    writer.write(format(rs.getTimestamp(6)));
+                    writer.write(',');
+                    writer.write(format(rs.getTimestamp(7)));
+                    writer.write(',');
+                    writer.write(String.valueOf(rs.getInt(8)));
+                    writer.write(',');
+                    writer.write(String.valueOf(rs.getInt(9)));
+                    writer.write("\r\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if(exportID!=null) {
+                running.remove(exportID,cancelled);
+            }
+        }
+        return count[0];
+    }
+
+    @Override
+    public boolean cancel(String exportID) {
+        AtomicBoolean cancelled=running.get(exportID);
+        if(cancelled==null) {
+            return false;
+        }
+        cancelled.set(true);
+        return true;
+    }
+
+    private static String format(Timestamp time) {
+        return time==null ? "" : time.toLocalDateTime().format(TIME_FORMAT);
+    }
+
+    /**
+     * 含逗号、引号或换行的值用引号括起，并把引号写成两个引号
+     */
+    static String escape(String value) {
+        if(value==null) {
+            return "";
+        }
+        if(value.indexOf(',')<0&&value.indexOf('"')<0&&value.indexOf('\n')<0&&value.indexOf('\r')<0) {
+            return value;
+        }
+        return "\""+value.replace("\"","\"\"")+"\"";
+    }
+}
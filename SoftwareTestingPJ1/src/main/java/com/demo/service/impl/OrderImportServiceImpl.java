@@ -0,0 +1,348 @@
+package com.demo.service.impl;
+
+import com.demo.dao.VenueDao;
+import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.entity.vo.ImportReport;
+import com.demo.exception.OrderConflictException;
+import com.demo.service.OrderImportService;
+import com.demo.service.OrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 从CSV批量导入历史订单。上传的文件先落到临时文件，由单个后台线程逐行读取，
+ * 场馆名称按导入开始时缓存的场馆表校验，每batch-size行通过OrderService.importOrders
+ * 一个事务批量写入；整批失败时逐行重试，把出错的行记入报告。
+ */
+@Service
+public class OrderImportServiceImpl implements OrderImportService {
+    private static final Logger log=LoggerFactory.getLogger(OrderImportServiceImpl.class);
+
+    private static final DateTimeFormatter TIME_FORMAT=DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final int COLUMN_COUNT=7;
+
+    private static final long STOP_WAIT_SECONDS=5;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private VenueDao venueDao;
+
+    @Value("${demo.order.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${demo.order.import.max-errors:100}")
+    private int maxErrors;
+
+    @Value("${demo.order.import.report-ttl-seconds:3600}")
+    private long reportTtlSeconds;
+
+    private final Map<String, Import> imports=new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        executor=Executors.newSingleThreadExecutor(r->new Thread(r,"order-import"));
+    }
+
+    /**
+     * 中断正在执行的导入，排队中的导入不再执行，二者都标记为失败，避免报告一直停留在RUNNING
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(STOP_WAIT_SECONDS,TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for(Import task:imports.values()){
+            task.finish(ImportReport.STATE_FAILED,"服务停止，导入中断");
+        }
+    }
+
+    @Override
+    public ImportReport start(InputStream csv) throws IOException {
+        purgeExpired();
+        Path file=Files.createTempFile("order-import",".csv");
+        try {
+            Files.copy(csv,file,StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        Import task=new Import();
+        imports.put(task.importID,task);
+        executor.execute(()->{
+            try {
+                run(task,file);
+            } finally {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("failed to delete {}",file,e);
+                }
+            }
+        });
+        return task.snapshot();
+    }
+
+    @Override
+    public ImportReport findReport(String importID) {
+        Import task=imports.get(importID);
+        return task==null ? null : task.snapshot();
+    }
+
+    void run(Import task, Path file) {
+        Map<String, Venue> venues=new HashMap<>();
+        for(Venue venue:venueDao.findAll()){
+            venues.put(venue.getVenueName(),venue);
+        }
+        try(BufferedReader reader=Files.newBufferedReader(file,StandardCharsets.UTF_8)) {
+            String header=reader.readLine();
+            if(header==null||!HEADER.equals(header.replace("\uFEFF","").trim())) {
+                task.finish(ImportReport.STATE_FAILED,"表头应为"+HEADER);
+                return;
+            }
+            List<Order> orders=new ArrayList<>(batchSize);
+            List<Integer> lines=new ArrayList<>(batchSize);
+            String line;
+            int lineNo=1;
+            while((line=reader.readLine())!=null){
+                if(Thread.currentThread().isInterrupted()) {
+                    task.finish(ImportReport.STATE_FAILED,"服务停止，导入中断");
+                    return;
+                }
+                int startLine=++lineNo;
+                // 引号内的换行属于字段内容，接着读下一行
+                String next;
+                while(!quotesClosed(line)&&(next=reader.readLine())!=null){
+                    lineNo++;
+                    line=line+"\n"+next;
+                }
+                if(line.trim().isEmpty()) {
+                    continue;
+                }
+                task.read();
+                try {
+                    orders.add(parse(line,venues));
+                    lines.add(startLine);
+                } catch (IllegalArgumentException e) {
+                    task.fail(startLine,e.getMessage());
+                    continue;
+                }
+                if(orders.size()>=batchSize) {
+                    write(task,orders,lines);
+                    orders.clear();
+                    lines.clear();
+                }
+            }
+            write(task,orders,lines);
+            task.finish(ImportReport.STATE_DONE,null);
+        } catch (IOException|RuntimeException e) {
+            log.error("order import {} failed",task.importID,e);
+            task.finish(ImportReport.STATE_FAILED,"导入中断");
+        }
+    }
+
+    private void write(Import task, List<Order> orders, List<Integer> lines) {
+        if(orders.isEmpty()) {
+            return;
+        }
+        try {
+            orderService.importOrders(orders);
+            task.imported(orders.size());
+        } catch (RuntimeException e) {
+            // 整批已回滚，逐行重新导入找出出错的行
+            for(int i=0;i<orders.size();i++){
+                Order order=orders.get(i);
+                order.setOrderID(0);
+                try {
+                    orderService.importOrders(Collections.singletonList(order));
+                    task.imported(1);
+                } catch (OrderConflictException|IllegalArgumentException ex) {
+                    task.fail(lines.get(i),ex.getMessage());
+                } catch (RuntimeException ex) {
+                    log.error("order import failed at line {}",lines.get(i),ex);
+                    task.fail(lines.get(i),"写入失败");
+                }
+            }
+        }
+    }
+
+    Order parse(String line, Map<String, Venue> venues) {
+        List<String> fields=split(line);
+        if(fields.size()!=COLUMN_COUNT) {
+            throw new IllegalArgumentException("应有"+COLUMN_COUNT+"列");
+        }
+        String[] columns=new String[COLUMN_COUNT];
+        for(int i=0;i<columns.length;i++){
+            columns[i]=fields.get(i).trim();
+        }
+        if(columns[0].isEmpty()) {
+            throw new IllegalArgumentException("用户不能为空");
+        }
+        Venue venue=venues.get(columns[1]);
+        if(venue==null) {
+            throw new IllegalArgumentException("场馆不存在："+columns[1]);
+        }
+        Order order=new Order();
+        order.setUserID(columns[0]);
+        order.setVenueID(venue.getVenueID());
+        order.setState(parseInt(columns[2],"状态"));
+        if(order.getState()<OrderService.STATE_NO_AUDIT||order.getState()>OrderService.STATE_REJECT) {
+            throw new IllegalArgumentException("状态无效："+columns[2]);
+        }
+        order.setOrderTime(parseTime(columns[3],"下单时间"));
+        order.setStartTime(parseTime(columns[4],"开始时间"));
+        order.setHours(parseInt(columns[5],"小时数"));
+        if(order.getHours()<1||order.getHours()>OrderService.MAX_HOURS) {
+            throw new IllegalArgumentException("小时数应在1到"+OrderService.MAX_HOURS+"之间");
+        }
+        order.setTotal(columns[6].isEmpty() ? order.getHours()*venue.getPrice() : parseInt(columns[6],"金额"));
+        if(order.getTotal()<0) {
+            throw new IllegalArgumentException("金额不能为负");
+        }
+        return order;
+    }
+
+    private static boolean quotesClosed(String line) {
+        int quotes=0;
+        for(int i=0;i<line.length();i++){
+            if(line.charAt(i)=='"') {
+                quotes++;
+            }
+        }
+        return quotes%2==0;
+    }
+
+    /**
+     * 按RFC 4180拆分一条记录：含逗号、引号或换行的字段用双引号括起，字段内的引号写成两个双引号，
+     * 与OrderExportServiceImpl.escape的输出一致
+     */
+    static List<String> split(String record) {
+        List<String> fields=new ArrayList<>(COLUMN_COUNT);
+        StringBuilder field=new StringBuilder();
+        boolean quoted=false;
+        int i=0;
+        while(i<record.length()){
+            char c=record.charAt(i++);
+            if(quoted) {
+                if(c!='"') {
+                    field.append(c);
+                } else if(i<record.length()&&record.charAt(i)=='"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted=false;
+                }
+            } else if(c==',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if(c=='"'&&field.toString().trim().isEmpty()) {
+                field.setLength(0);
+                quoted=true;
+            } else {
+                field.append(c);
+            }
+        }
+        if(quoted) {
+            throw new IllegalArgumentException("引号不匹配");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static int parseInt(String value, String column) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column+"无效："+value);
+        }
+    }
+
+    private static LocalDateTime parseTime(String value, String column) {
+        try {
+            return LocalDateTime.parse(value,TIME_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(column+"无效："+value);
+        }
+    }
+
+    private void purgeExpired() {
+        long expireBefore=System.currentTimeMillis()-TimeUnit.SECONDS.toMillis(reportTtlSeconds);
+        imports.values().removeIf(task->task.finishedBefore(expireBefore));
+    }
+
+    class Import {
+        private final String importID=UUID.randomUUID().toString();
+        private final List<String> errors=new ArrayList<>();
+
+        private String state=ImportReport.STATE_RUNNING;
+        private int rows;
+        private int imported;
+        private int failed;
+        private String message;
+        private long finishedAt;
+
+        synchronized void read() {
+            rows++;
+        }
+
+        synchronized void imported(int count) {
+            imported+=count;
+        }
+
+        synchronized void fail(int lineNo, String reason) {
+            failed++;
+            if(errors.size()<maxErrors) {
+                errors.add("第"+lineNo+"行："+reason);
+            }
+        }
+
+        /**
+         * 只有第一次结束有效，停止服务时标记的失败不会被后台线程覆盖
+         */
+        synchronized void finish(String state, String message) {
+            if(!ImportReport.STATE_RUNNING.equals(this.state)) {
+                return;
+            }
+            this.state=state;
+            this.message=message;
+            this.finishedAt=System.currentTimeMillis();
+        }
+
+        synchronized boolean finishedBefore(long time) {
+            return finishedAt>0&&finishedAt<time;
+        }
+
+        synchronized ImportReport snapshot() {
+            return new ImportReport(importID,state,rows,imported,failed,new ArrayList<>(errors),message);
+        }
+    }
+}
@@ -1,27 +1,84 @@
 package com.demo.service.impl;
 
+import com.demo.dao.OrderArchiveDao;
+import com.demo.dao.OrderBatchDao;
 import com.demo.dao.OrderDao;
+import com.demo.dao.OrderSeriesDao;
 
-import com.demo.dao.VenueDao;
+import com.demo.dao.OrderSlotDao;
+import com.demo.dao.VenueUsageDao;
 import com.demo.entity.Venue;
 import com.demo.entity.Order;
+import com.demo.entity.OrderArchive;
+import com.demo.entity.OrderSeries;
+import com.demo.entity.OrderSlot;
+import com.demo.entity.vo.CursorPage;
+import com.demo.entity.vo.TransitionResult;
+import com.demo.event.SlotsReleasedEvent;
+import com.demo.exception.OrderConflictException;
+import com.demo.service.AvailabilityService;
 import com.demo.service.OrderService;
+import com.demo.service.VenueService;
+import com.demo.utils.CursorUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.repository.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.Transactional;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class OrderServiceImpl implements OrderService {
+    private static final List<Integer> APPROVED=Collections.singletonList(STATE_WAIT);
+    private static final List<Integer> PENDING=Collections.singletonList(STATE_NO_AUDIT);
+
     @Autowired
     private OrderDao orderDao;
 
     @Autowired
-    private VenueDao venueDao;
+    private VenueService venueService;
+
+    @Autowired
+    private OrderSlotDao orderSlotDao;
+
+    @Autowired
+    private OrderBatchDao orderBatchDao;
+
+    @Autowired
+    private OrderArchiveDao orderArchiveDao;
+
+    @Autowired
+    private VenueUsageDao venueUsageDao;
+
+    @Autowired
+    private OrderSeriesDao orderSeriesDao;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
     public Order findById(int OrderID) {
@@ -35,14 +92,93 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public Page<Order> findUserOrder(String userID, Pageable pageable) {
-        return orderDao.findAllByUserID(userID,pageable);
+        Page<Order> hot=orderDao.findAllByUserID(userID,pageable);
+        List<Order> orders=withArchived(userID,pageable,hot.getContent(),hot.getTotalElements());
+        // 最后一页的总数可以由偏移直接算出，其余情况才统计归档表
+        return PageableExecutionUtils.getPage(orders,pageable,()->hot.getTotalElements()+orderArchiveDao.countByUserID(userID));
+    }
+
+    @Override
+    public Slice<Order> findUserOrderSlice(String userID, Pageable pageable) {
+        Slice<Order> hot=orderDao.findSliceByUserID(userID,pageable);
+        if(hot.hasNext()) {
+            return hot;
+        }
+        // order表已翻完，不足一页的部分从归档表补齐
+        long hotTotal=hot.hasContent() ? pageable.getOffset()+hot.getNumberOfElements() : orderDao.countByUserID(userID);
+        List<Order> orders=withArchived(userID,pageable,hot.getContent(),hotTotal);
+        long archivedOffset=Math.max(0,pageable.getOffset()-hotTotal)+(orders.size()-hot.getNumberOfElements());
+        boolean hasNext=orders.size()==pageable.getPageSize()
+                &&!orderArchiveDao.findUserOrders(userID,1,archivedOffset).isEmpty();
+        return new SliceImpl<>(orders,pageable,hasNext);
+    }
+
+    /**
+     * 当前页在order表中不足一页时，从归档表中按偏移取剩余的订单
+     */
+    private List<Order> withArchived(String userID, Pageable pageable, List<Order> hot, long hotTotal) {
+        int missing=pageable.getPageSize()-hot.size();
+        if(missing<=0) {
+            return hot;
+        }
+        List<Order> orders=new ArrayList<>(hot);
+        long offset=Math.max(0,pageable.getOffset()-hotTotal);
+        for(OrderArchive archive:orderArchiveDao.findUserOrders(userID,missing,offset)){
+            orders.add(archive.toOrder());
+        }
+        return orders;
+    }
+
+    /**
+     * order表和归档表用同一个(order_time, orderID)游标定位，两边各取size+1行后归并，
+     * 订单移入归档表后仍按原来的位置出现，游标不需要区分来自哪张表
+     */
+    @Override
+    public CursorPage<Order> findUserOrder(String userID, String cursor, int size) {
+        CursorUtil.Cursor after=CursorUtil.decode(cursor);
+        Pageable limit=PageRequest.of(0,size+1);
+        List<Order> hot=after==null
+                ? orderDao.findByUserIDOrderByOrderTimeDescOrderIDDesc(userID,limit)
+                : orderDao.findByUserIDBefore(userID,after.getTime(),after.getId(),limit);
+        List<OrderArchive> archived=after==null
+                ? orderArchiveDao.findUserOrders(userID,size+1,0)
+                : orderArchiveDao.findUserOrdersBefore(userID,after.getTime(),after.getId(),size+1);
+        List<Order> orders=new ArrayList<>(size+1);
+        int i=0;
+        int j=0;
+        while(orders.size()<=size&&(i<hot.size()||j<archived.size())){
+            if(j>=archived.size()||i<hot.size()&&newerThan(hot.get(i),archived.get(j))) {
+                orders.add(hot.get(i++));
+            } else {
+                orders.add(archived.get(j++).toOrder());
+            }
+        }
+        return CursorUtil.page(orders,size,order->CursorUtil.encode(order.getOrderTime(),order.getOrderID()));
+    }
+
+    /**
+     * 与order by order_time desc, orderID desc一致，MySQL倒序时NULL排在最后
+     */
+    private static boolean newerThan(Order order, OrderArchive archive) {
+        LocalDateTime time=order.getOrderTime();
+        LocalDateTime archiveTime=archive.getOrderTime();
+        if(!Objects.equals(time,archiveTime)) {
+            return archiveTime==null||time!=null&&time.isAfter(archiveTime);
+        }
+        return order.getOrderID()>archive.getOrderID();
     }
 
 
     @Override
+    @Transactional
     public void updateOrder(int orderID, String venueName, LocalDateTime startTime, int hours,String userID)  {
-        Venue venue =venueDao.findByVenueName(venueName);
+        checkHours(hours);
+        Venue venue =venueService.findByVenueName(venueName);
         Order order=orderDao.findByOrderID(orderID);
+        // 修改后需重新审核，先按原订单扣除使用汇总
+        if(USAGE_STATES.contains(order.getState())) {
+            venueUsageDao.apply(Collections.singletonList(orderID),-1,USAGE_STATES);
+        }
         order.setState(STATE_NO_AUDIT);
         order.setHours(hours);
         order.setVenueID(venue.getVenueID());
@@ -52,12 +188,20 @@ public class OrderServiceImpl implements OrderService {
         order.setTotal(hours* venue.getPrice());
 
         orderDao.save(order);
+        List<OrderSlot> released=new ArrayList<>(orderSlotDao.findByOrderID(orderID));
+        orderSlotDao.releaseByOrderID(orderID);
+        claimSlots(order);
+        // 修改后仍占用的时段不通知候补队列
+        released.removeAll(slotsOf(order));
+        publishReleased(released);
+        availabilityService.addOrder(order);
     }
 
     @Override
+    @Transactional
     public void submit(String venueName, LocalDateTime startTime, int hours, String userID) {
-
-        Venue venue =venueDao.findByVenueName(venueName);
+        checkHours(hours);
+        Venue venue =venueService.findByVenueName(venueName);
 
         Order order=new Order();
         order.setState(STATE_NO_AUDIT);
@@ -68,38 +212,233 @@ public class OrderServiceImpl implements OrderService {
         order.setUserID(userID);
         order.setTotal(hours* venue.getPrice());
         orderDao.save(order);
+        claimSlots(order);
+        availabilityService.addOrder(order);
+    }
+
+    @Override
+    @Transactional
+    public void submitAll(List<Order> orders) {
+        if(orders.isEmpty()) {
+            return;
+        }
+        Set<Integer> venueIDs=new HashSet<>();
+        for(Order order:orders){
+            checkHours(order.getHours());
+            venueIDs.add(order.getVenueID());
+        }
+        insertNew(orders,venueService.findByVenueIDs(venueIDs));
+    }
+
+    /**
+     * 批量写入新订单并占用时段，venues需包含全部订单的场馆
+     */
+    private void insertNew(List<Order> orders, Map<Integer, Venue> venues) {
+        LocalDateTime now=LocalDateTime.now();
+        for(Order order:orders){
+            Venue venue=venues.get(order.getVenueID());
+            if(venue==null) {
+                throw new RuntimeException("场馆不存在");
+            }
+            order.setState(STATE_NO_AUDIT);
+            order.setOrderTime(now);
+            order.setTotal(order.getHours()*venue.getPrice());
+        }
+        orderBatchDao.insertOrders(orders);
+
+        List<OrderSlot> slots=new ArrayList<>();
+        for(Order order:orders){
+            slots.addAll(slotsOf(order));
+        }
+        try {
+            orderBatchDao.insertSlots(slots);
+        } catch (DataIntegrityViolationException e) {
+            throw new OrderConflictException("所选时间段已被预订",e);
+        }
+        for(Order order:orders){
+            availabilityService.addOrder(order);
+        }
+    }
+
+    @Override
+    @Transactional
+    public OrderSeries submitSeries(String venueName, DayOfWeek weekday, LocalTime startTime, int hours, LocalDate from, LocalDate to, String userID) {
+        checkHours(hours);
+        if(from==null||to==null||to.isBefore(from)) {
+            throw new IllegalArgumentException("日期范围无效");
+        }
+        if(from.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("开始日期不能早于今天");
+        }
+        Venue venue=venueService.findByVenueName(venueName);
+        if(venue==null) {
+            throw new RuntimeException("场馆不存在");
+        }
+        List<Order> orders=new ArrayList<>();
+        List<LocalDateTime> slotStarts=new ArrayList<>();
+        for(LocalDate date=from.with(TemporalAdjusters.nextOrSame(weekday));!date.isAfter(to);date=date.plusWeeks(1)){
+            if(orders.size()==MAX_SERIES_OCCURRENCES) {
+                throw new IllegalArgumentException("周期预订最多"+MAX_SERIES_OCCURRENCES+"次");
+            }
+            Order order=new Order();
+            order.setUserID(userID);
+            order.setVenueID(venue.getVenueID());
+            order.setStartTime(date.atTime(startTime));
+            order.setHours(hours);
+            orders.add(order);
+            for(OrderSlot slot:slotsOf(order)){
+                slotStarts.add(slot.getSlotStart());
+            }
+        }
+        if(orders.isEmpty()) {
+            throw new IllegalArgumentException("日期范围内没有所选的星期");
+        }
+        // 一次查询找出全部已被占用的时段，有冲突时直接告知冲突的日期
+        List<LocalDateTime> taken=orderSlotDao.findTaken(venue.getVenueID(),slotStarts);
+        if(!taken.isEmpty()) {
+            Set<LocalDate> dates=new TreeSet<>();
+            for(LocalDateTime slot:taken){
+                dates.add(slot.toLocalDate());
+            }
+            throw new OrderConflictException("以下日期的时间段已被预订："+dates);
+        }
+
+        OrderSeries series=new OrderSeries();
+        series.setUserID(userID);
+        series.setVenueID(venue.getVenueID());
+        series.setWeekday(weekday.getValue());
+        series.setStartTime(startTime);
+        series.setHours(hours);
+        series.setFromDate(from);
+        series.setToDate(to);
+        series.setCreatedAt(LocalDateTime.now());
+        series=orderSeriesDao.save(series);
+
+        insertNew(orders,Collections.singletonMap(venue.getVenueID(),venue));
+        orderBatchDao.insertSeriesItems(series.getSeriesID(),orders);
+        return series;
+    }
+
+    @Override
+    public List<OrderSeries> findUserSeries(String userID) {
+        return orderSeriesDao.findByUserIDOrderByCreatedAtDesc(userID);
+    }
+
+    @Override
+    public List<Integer> findSeriesOrderIDs(int seriesID) {
+        return orderSeriesDao.findOrderIDs(seriesID);
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer, TransitionResult> confirmSeries(int seriesID) {
+        return confirmOrders(orderSeriesDao.findOrderIDs(seriesID));
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer, TransitionResult> rejectSeries(int seriesID) {
+        return rejectOrders(orderSeriesDao.findOrderIDs(seriesID));
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer, TransitionResult> cancelSeries(int seriesID, String userID) {
+        OrderSeries series=orderSeriesDao.findById(seriesID).orElse(null);
+        if(series==null||!series.getUserID().equals(userID)) {
+            throw new RuntimeException("周期预订不存在");
+        }
+        return rejectOrders(orderSeriesDao.findOrderIDs(seriesID));
+    }
+
+    @Override
+    @Transactional
+    public void importOrders(List<Order> orders) {
+        if(orders.isEmpty()) {
+            return;
+        }
+        for(Order order:orders){
+            checkHours(order.getHours());
+        }
+        orderBatchDao.insertOrders(orders);
+
+        List<OrderSlot> slots=new ArrayList<>();
+        List<Integer> orderIDs=new ArrayList<>();
+        for(Order order:orders){
+            orderIDs.add(order.getOrderID());
+            if(OCCUPY_STATES.contains(order.getState())) {
+                slots.addAll(slotsOf(order));
+            }
+        }
+        try {
+            orderBatchDao.insertSlots(slots);
+        } catch (DataIntegrityViolationException e) {
+            throw new OrderConflictException("所选时间段已被预订",e);
+        }
+        venueUsageDao.apply(orderIDs,1,USAGE_STATES);
+        for(Order order:orders){
+            if(OCCUPY_STATES.contains(order.getState())) {
+                availabilityService.addOrder(order);
+            }
+        }
+    }
+
+    @Override
+    @Transactional
+    public int archiveOrders(LocalDateTime before, int limit) {
+        List<Integer> orderIDs=orderDao.findIDsToArchive(ARCHIVE_STATES,before,limit);
+        if(orderIDs.isEmpty()) {
+            return 0;
+        }
+        orderArchiveDao.copyFromOrders(orderIDs);
+        orderSlotDao.releaseByOrderIDIn(orderIDs);
+        orderDao.deleteByOrderIDIn(orderIDs);
+        for(int orderID:orderIDs){
+            availabilityService.removeOrder(orderID);
+        }
+        return orderIDs.size();
+    }
+
+    @Override
+    @Transactional
+    public void reconcileUsage(LocalDate date) {
+        venueUsageDao.deleteByUsageDate(date);
+        venueUsageDao.rebuildDay(date,USAGE_STATES);
     }
 
     @Override
+    @Transactional
     public void delOrder(int orderID) {
+        venueUsageDao.apply(Collections.singletonList(orderID),-1,USAGE_STATES);
+        releaseSlots(orderID);
         orderDao.deleteById(orderID);
+        availabilityService.removeOrder(orderID);
     }
 
     @Override
+    @Transactional
     public void confirmOrder(int orderID) {
-        Order order=orderDao.findByOrderID(orderID);
-        if(order == null) {
-            throw new RuntimeException("订单不存在");
-        }
-        orderDao.updateState(STATE_WAIT,order.getOrderID());
+        check(transition(orderID,STATE_WAIT,CONFIRM_FROM));
+        venueUsageDao.apply(Collections.singletonList(orderID),1,USAGE_STATES);
     }
 
     @Override
     public void finishOrder(int orderID) {
-        Order order=orderDao.findByOrderID(orderID);
-        if(order == null) {
-            throw new RuntimeException("订单不存在");
-        }
-        orderDao.updateState(STATE_FINISH,order.getOrderID());
+        check(transition(orderID,STATE_FINISH,FINISH_FROM));
     }
 
     @Override
+    @Transactional
     public void rejectOrder(int orderID) {
-        Order order=orderDao.findByOrderID(orderID);
-        if(order == null) {
-            throw new RuntimeException("订单不存在");
+        // 已审核的订单需要从使用汇总中扣除，先按已审核状态条件更新，才能知道原状态
+        if(orderDao.updateStateFrom(STATE_REJECT,orderID,APPROVED)==1) {
+            venueUsageDao.apply(Collections.singletonList(orderID),-1,Collections.singletonList(STATE_REJECT));
         }
-        orderDao.updateState(STATE_REJECT,order.getOrderID());
+        else {
+            check(transition(orderID,STATE_REJECT,PENDING));
+        }
+        releaseSlots(orderID);
+        availabilityService.removeOrder(orderID);
     }
 
     @Override
@@ -108,7 +447,205 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public List<Order> findAuditOrder() {
-        return orderDao.findAudit(STATE_WAIT,STATE_FINISH);
+    public Slice<Order> findNoAuditOrderSlice(Pageable pageable) {
+        return orderDao.findSliceByState(STATE_NO_AUDIT,pageable);
+    }
+
+    @Override
+    public CursorPage<Order> findNoAuditOrder(String cursor, int size) {
+        CursorUtil.Cursor after=CursorUtil.decode(cursor);
+        Pageable limit=PageRequest.of(0,size+1);
+        List<Order> orders=after==null
+                ? orderDao.findByStateOrderByOrderTimeDescOrderIDDesc(STATE_NO_AUDIT,limit)
+                : orderDao.findByStateBefore(STATE_NO_AUDIT,after.getTime(),after.getId(),limit);
+        return CursorUtil.page(orders,size,order->CursorUtil.encode(order.getOrderTime(),order.getOrderID()));
+    }
+
+    @Override
+    public Page<Order> findAuditOrder(Pageable pageable) {
+        return orderDao.findAllByStateIn(AUDITED_STATES,pageable);
+    }
+
+    @Override
+    @Transactional
+    public void forEachAuditOrder(Consumer<Order> action) {
+        try(Stream<Order> orders=orderDao.streamByStateIn(AUDITED_STATES)) {
+            orders.forEach(order->{
+                action.accept(order);
+                entityManager.detach(order);
+            });
+        }
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer, TransitionResult> confirmOrders(List<Integer> orderIDs) {
+        Map<Integer, TransitionResult> results=transitionOrders(orderIDs,STATE_WAIT,CONFIRM_FROM);
+        List<Integer> confirmed=succeeded(results);
+        if(!confirmed.isEmpty()) {
+            venueUsageDao.apply(confirmed,1,USAGE_STATES);
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer, TransitionResult> rejectOrders(List<Integer> orderIDs) {
+        if(orderIDs!=null&&!orderIDs.isEmpty()) {
+            // 锁定其中已审核的订单并从使用汇总中扣除，同一事务内随后被拒绝
+            List<Integer> approved=orderDao.lockByStateIn(orderIDs,APPROVED);
+            if(!approved.isEmpty()) {
+                venueUsageDao.apply(approved,-1,APPROVED);
+            }
+        }
+        Map<Integer, TransitionResult> results=transitionOrders(orderIDs,STATE_REJECT,REJECT_FROM);
+        List<Integer> rejected=succeeded(results);
+        if(!rejected.isEmpty()) {
+            List<OrderSlot> released=orderSlotDao.findByOrderIDIn(rejected);
+            orderSlotDao.releaseByOrderIDIn(rejected);
+            publishReleased(released);
+            for(int orderID:rejected){
+                availabilityService.removeOrder(orderID);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer, TransitionResult> confirmVenueOrders(int venueID, LocalDate date) {
+        return confirmOrders(findVenueNoAuditOrderIDs(venueID,date));
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer, TransitionResult> rejectVenueOrders(int venueID, LocalDate date) {
+        return rejectOrders(findVenueNoAuditOrderIDs(venueID,date));
+    }
+
+    private List<Integer> findVenueNoAuditOrderIDs(int venueID, LocalDate date) {
+        List<Order> orders=orderDao.findByVenueIDAndStateAndStartTimeBetween(venueID,STATE_NO_AUDIT,
+                date.atStartOfDay(),date.plusDays(1).atStartOfDay());
+        List<Integer> orderIDs=new ArrayList<>();
+        for(Order order:orders){
+            orderIDs.add(order.getOrderID());
+        }
+        return orderIDs;
+    }
+
+    /**
+     * 单个订单的状态变更只执行一条条件更新，只有更新失败时才查询订单是否存在
+     */
+    private TransitionResult transition(int orderID, int state, List<Integer> fromStates) {
+        int updated=orderDao.updateStateFrom(state,orderID,fromStates);
+        return TransitionResult.of(updated,()->orderDao.existsById(orderID));
+    }
+
+    private static void check(TransitionResult result) {
+        if(result==TransitionResult.NOT_FOUND) {
+            throw new RuntimeException("订单不存在");
+        }
+        if(result==TransitionResult.ILLEGAL_STATE) {
+            throw new IllegalStateException("订单状态转换不允许");
+        }
+    }
+
+    /**
+     * 批量变更：一次查询核对订单状态，一次update ... where orderID in (...)变更全部允许的订单
+     */
+    private Map<Integer, TransitionResult> transitionOrders(List<Integer> orderIDs, int state, List<Integer> fromStates) {
+        Map<Integer, TransitionResult> results=new LinkedHashMap<>();
+        if(orderIDs==null||orderIDs.isEmpty()) {
+            return results;
+        }
+        Map<Integer, Order> orders=new HashMap<>();
+        for(Order order:orderDao.findByOrderIDIn(orderIDs)){
+            orders.put(order.getOrderID(),order);
+        }
+        List<Integer> allowed=new ArrayList<>();
+        for(int orderID:orderIDs){
+            Order order=orders.get(orderID);
+            if(order==null) {
+                results.put(orderID,TransitionResult.NOT_FOUND);
+            }
+            else if(!fromStates.contains(order.getState())) {
+                results.put(orderID,TransitionResult.ILLEGAL_STATE);
+            }
+            else {
+                results.put(orderID,TransitionResult.SUCCESS);
+                allowed.add(orderID);
+            }
+        }
+        if(allowed.isEmpty()) {
+            return results;
+        }
+        int updated=orderDao.updateStateIn(state,allowed,fromStates);
+        if(updated<allowed.size()) {
+            // 核对后有订单被并发修改，重新确认哪些订单未被本次更新。
+            // 上面加载的实体仍是更新前的状态，必须直接查表；本事务的快照中只有本次更新的订单是新状态
+            Set<Integer> changed=new HashSet<>(orderDao.findIDsByState(allowed,state));
+            for(int orderID:allowed){
+                if(!changed.contains(orderID)) {
+                    results.put(orderID,TransitionResult.ILLEGAL_STATE);
+                }
+            }
+        }
+        return results;
+    }
+
+    private static List<Integer> succeeded(Map<Integer, TransitionResult> results) {
+        List<Integer> orderIDs=new ArrayList<>();
+        for(Map.Entry<Integer, TransitionResult> entry:results.entrySet()){
+            if(entry.getValue()==TransitionResult.SUCCESS) {
+                orderIDs.add(entry.getKey());
+            }
+        }
+        return orderIDs;
+    }
+
+    private void checkHours(int hours) {
+        if(hours<=0) {
+            throw new IllegalArgumentException("预订小时数必须为正数");
+        }
+        if(hours>MAX_HOURS) {
+            throw new IllegalArgumentException("预订小时数过大，超出合理范围");
+        }
+    }
+
+    /**
+     * 释放订单占用的时段，事务提交后由候补队列接手
+     */
+    private void releaseSlots(int orderID) {
+        List<OrderSlot> released=orderSlotDao.findByOrderID(orderID);
+        orderSlotDao.releaseByOrderID(orderID);
+        publishReleased(released);
+    }
+
+    private void publishReleased(List<OrderSlot> released) {
+        if(!released.isEmpty()) {
+            eventPublisher.publishEvent(new SlotsReleasedEvent(released));
+        }
+    }
+
+    /**
+     * 在订单所在事务内逐小时占用时段，与其他订单冲突时由数据库主键约束拒绝
+     */
+    private void claimSlots(Order order) {
+        try {
+            for(OrderSlot slot:slotsOf(order)){
+                orderSlotDao.claim(slot.getVenueID(),slot.getSlotStart(),slot.getOrderID());
+            }
+        } catch (DataIntegrityViolationException e) {
+            throw new OrderConflictException("所选时间段已被预订",e);
+        }
+    }
+
+    private static List<OrderSlot> slotsOf(Order order) {
+        LocalDateTime slot=order.getStartTime().truncatedTo(ChronoUnit.HOURS);
+        List<OrderSlot> slots=new ArrayList<>(order.getHours());
+        for(int i=0;i<order.getHours();i++){
+            slots.add(new OrderSlot(order.getVenueID(),slot.plusHours(i),order.getOrderID()));
+        }
+        return slots;
     }
 }
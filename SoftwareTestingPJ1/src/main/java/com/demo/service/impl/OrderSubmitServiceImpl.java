@@ -0,0 +1,224 @@
+package com.demo.service.impl;
+
+import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.entity.vo.SubmissionTicket;
+import com.demo.exception.OrderConflictException;
+import com.demo.exception.SubmitQueueFullException;
+import com.demo.service.OrderService;
+import com.demo.service.OrderSubmitService;
+import com.demo.service.VenueService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 有界的订单提交队列。请求线程只负责入队并返回凭证，
+ * 单个写线程从队列中批量取出订单，通过OrderService.submitAll一个事务批量写入；
+ * 整批失败时逐个重试，找出冲突的订单。
+ */
+@Service
+public class OrderSubmitServiceImpl implements OrderSubmitService {
+    private static final Logger log=LoggerFactory.getLogger(OrderSubmitServiceImpl.class);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private VenueService venueService;
+
+    /**
+     * 未开启时不创建队列和写线程，enqueue直接拒绝
+     */
+    @Value("${demo.order.submit-queue.enabled:false}")
+    private boolean enabled;
+
+    @Value("${demo.order.submit-queue.capacity:1000}")
+    private int capacity;
+
+    @Value("${demo.order.submit-queue.batch-size:50}")
+    private int batchSize;
+
+    @Value("${demo.order.submit-queue.ticket-ttl-seconds:600}")
+    private long ticketTtlSeconds;
+
+    @Value("${demo.order.submit-queue.shutdown-timeout-seconds:30}")
+    private long shutdownTimeoutSeconds;
+
+    private BlockingQueue<Submission> queue;
+
+    private final Map<String, Submission> tickets=new ConcurrentHashMap<>();
+
+    private volatile boolean accepting;
+
+    private Thread writer;
+
+    @PostConstruct
+    public void start() {
+        if(!enabled) {
+            return;
+        }
+        queue=new ArrayBlockingQueue<>(capacity);
+        accepting=true;
+        writer=new Thread(this::drain,"order-submit-writer");
+        // stop()中已等待写完，超时后不再阻止JVM退出
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 停止接收新的提交，等待写线程把队列中已有的订单写完
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        accepting=false;
+        if(writer==null) {
+            return;
+        }
+        writer.join(TimeUnit.SECONDS.toMillis(shutdownTimeoutSeconds));
+        if(writer.isAlive()) {
+            log.warn("order submit queue not drained on shutdown, {} submissions left",queue.size());
+        }
+    }
+
+    @Override
+    public SubmissionTicket enqueue(String venueName, LocalDateTime startTime, int hours, String userID) {
+        Submission submission=new Submission(venueName,startTime,hours,userID);
+        tickets.put(submission.ticketID,submission);
+        if(!accepting||!queue.offer(submission)) {
+            tickets.remove(submission.ticketID);
+            throw new SubmitQueueFullException("当前预订人数过多，请稍后再试");
+        }
+        return submission.snapshot();
+    }
+
+    @Override
+    public SubmissionTicket findTicket(String ticketID, String userID) {
+        Submission submission=tickets.get(ticketID);
+        if(submission==null||!submission.userID.equals(userID)) {
+            return null;
+        }
+        return submission.snapshot();
+    }
+
+    private void drain() {
+        List<Submission> batch=new ArrayList<>(batchSize);
+        while(accepting||!queue.isEmpty()){
+            try {
+                Submission first=queue.poll(1,TimeUnit.SECONDS);
+                if(first!=null) {
+                    batch.add(first);
+                    queue.drainTo(batch,batchSize-1);
+                    write(batch);
+                    batch.clear();
+                }
+                purgeExpired();
+            } catch (InterruptedException e) {
+                accepting=false;
+            } catch (RuntimeException e) {
+                log.error("order submit writer failed",e);
+                for(Submission submission:batch){
+                    submission.fail("订单提交失败");
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Submission> batch) {
+        Map<String, Venue> venues=new HashMap<>();
+        List<Submission> valid=new ArrayList<>();
+        List<Order> orders=new ArrayList<>();
+        for(Submission submission:batch){
+            Venue venue=venues.computeIfAbsent(submission.venueName,venueService::findByVenueName);
+            if(venue==null) {
+                submission.fail("场馆不存在");
+                continue;
+            }
+            Order order=new Order();
+            order.setVenueID(venue.getVenueID());
+            order.setStartTime(submission.startTime);
+            order.setHours(submission.hours);
+            order.setUserID(submission.userID);
+            orders.add(order);
+            valid.add(submission);
+        }
+        try {
+            orderService.submitAll(orders);
+            for(int i=0;i<valid.size();i++){
+                valid.get(i).succeed(orders.get(i).getOrderID());
+            }
+        } catch (RuntimeException e) {
+            // 整批已回滚，逐个重新提交找出失败的订单
+            for(int i=0;i<valid.size();i++){
+                Order order=orders.get(i);
+                order.setOrderID(0);
+                try {
+                    orderService.submitAll(Collections.singletonList(order));
+                    valid.get(i).succeed(order.getOrderID());
+                } catch (OrderConflictException|IllegalArgumentException ex) {
+                    valid.get(i).fail(ex.getMessage());
+                } catch (RuntimeException ex) {
+                    log.error("order submit failed",ex);
+                    valid.get(i).fail("订单提交失败");
+                }
+            }
+        }
+    }
+
+    private void purgeExpired() {
+        long expireBefore=System.currentTimeMillis()-TimeUnit.SECONDS.toMillis(ticketTtlSeconds);
+        tickets.values().removeIf(submission->submission.finishedBefore(expireBefore));
+    }
+
+    private static class Submission {
+        private final String ticketID=UUID.randomUUID().toString();
+        private final String venueName;
+        private final LocalDateTime startTime;
+        private final int hours;
+        private final String userID;
+
+        private String state=SubmissionTicket.STATE_PENDING;
+        private int orderID;
+        private String message;
+        private long finishedAt;
+
+        Submission(String venueName, LocalDateTime startTime, int hours, String userID) {
+            this.venueName=venueName;
+            this.startTime=startTime;
+            this.hours=hours;
+            this.userID=userID;
+        }
+
+        synchronized void succeed(int orderID) {
+            this.state=SubmissionTicket.STATE_SUCCESS;
+            this.orderID=orderID;
+            this.finishedAt=System.currentTimeMillis();
+        }
+
+        synchronized void fail(String message) {
+            this.state=SubmissionTicket.STATE_FAILED;
+            this.message=message;
+            this.finishedAt=System.currentTimeMillis();
+        }
+
+        synchronized boolean finishedBefore(long time) {
+            return finishedAt>0&&finishedAt<time;
+        }
+
+        synchronized SubmissionTicket snapshot() {
+            return new SubmissionTicket(ticketID,state,orderID,message);
+        }
+    }
+}
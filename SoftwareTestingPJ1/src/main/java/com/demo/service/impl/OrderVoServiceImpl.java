@@ -2,40 +2,53 @@ package com.demo.service.impl;
 
 
 import com.demo.dao.OrderDao;
-import com.demo.dao.VenueDao;
 import com.demo.entity.Order;
 import com.demo.entity.Venue;
 import com.demo.entity.vo.OrderVo;
 import com.demo.service.OrderVoService;
+import com.demo.service.VenueService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 @Service
 public class OrderVoServiceImpl implements OrderVoService {
     @Autowired
     private OrderDao orderDao;
     @Autowired
-    private VenueDao venueDao;
+    private VenueService venueService;
 
 
     @Override
     public OrderVo returnOrderVoByOrderID(int orderID) {
         Order order=orderDao.findByOrderID(orderID);
-        Venue venue=venueDao.findByVenueID(order.getVenueID());
+        Venue venue=venueService.findByVenueID(order.getVenueID());
         OrderVo orderVo=new OrderVo(order.getOrderID(),order.getUserID(),order.getVenueID(),venue.getVenueName(),
                                     order.getState(),order.getOrderTime(),order.getStartTime(),order.getHours(),order.getTotal());
 
         return orderVo;
     }
 
+    /**
+     * 列表中的订单已经加载，不再逐条回查；场馆按去重后的ID一次从场馆缓存中取出，
+     * 缓存未命中的场馆合并为一条查询。
+     */
     @Override
     public List<OrderVo> returnVo(List<Order> list) {
-        List<OrderVo> list1=new ArrayList<>();
-        for(int i=0;i<list.size();i++) {
-            list1.add(returnOrderVoByOrderID(list.get(i).getOrderID()));
+        List<OrderVo> list1=new ArrayList<>(list.size());
+        if(list.isEmpty()) {
+            return list1;
+        }
+        Set<Integer> venueIDs=new HashSet<>();
+        for(Order order:list){
+            venueIDs.add(order.getVenueID());
+        }
+        Map<Integer, Venue> venues=venueService.findByVenueIDs(venueIDs);
+        for(Order order:list){
+            Venue venue=venues.get(order.getVenueID());
+            list1.add(new OrderVo(order.getOrderID(),order.getUserID(),order.getVenueID(),venue==null ? null : venue.getVenueName(),
+                                  order.getState(),order.getOrderTime(),order.getStartTime(),order.getHours(),order.getTotal()));
         }
         return list1;
     }
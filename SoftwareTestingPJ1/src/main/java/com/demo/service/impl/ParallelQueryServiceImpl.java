@@ -0,0 +1,108 @@
+package com.demo.service.impl;
+
+import com.demo.service.ParallelQueryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 页面查询专用的有界线程池。队列满时由发起请求的线程自己执行，退化为顺序查询而不是拒绝请求。
+ * 查询线程上没有请求的Open Session In View会话，返回的实体是脱管的，不能再延迟加载关联。
+ * 请求上下文不会传到查询线程，查询用到的参数在提交前取出；超时后取消会中断正在执行查询的线程。
+ */
+@Service
+public class ParallelQueryServiceImpl implements ParallelQueryService {
+    @Value("${demo.parallel-query.threads:8}")
+    private int threads;
+
+    @Value("${demo.parallel-query.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${demo.parallel-query.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger count=new AtomicInteger();
+        executor=new ThreadPoolExecutor(threads,threads,60,TimeUnit.SECONDS,new ArrayBlockingQueue<>(queueCapacity),
+                r->{
+                    Thread thread=new Thread(r,"parallel-query-"+count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },new ThreadPoolExecutor.CallerRunsPolicy());
+        ((ThreadPoolExecutor) executor).allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public <T> CompletableFuture<T> supply(Supplier<T> query) {
+        QueryTask<T> task=new QueryTask<>(query);
+        executor.execute(task);
+        return task.result;
+    }
+
+    @Override
+    public <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeoutMs,TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new RuntimeException("查询超时",e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("查询被中断",e);
+        } catch (ExecutionException e) {
+            Throwable cause=e.getCause();
+            if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if(cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * CompletableFuture.cancel不会中断执行线程，所以查询包装成FutureTask提交，取消结果时一并取消任务
+     */
+    private static class QueryTask<T> extends FutureTask<T> {
+        private final CompletableFuture<T> result=new CompletableFuture<T>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                QueryTask.this.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+
+        QueryTask(Supplier<T> query) {
+            super(query::get);
+        }
+
+        @Override
+        protected void done() {
+            if(isCancelled()) {
+                return;
+            }
+            try {
+                result.complete(get());
+            } catch (ExecutionException e) {
+                result.completeExceptionally(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
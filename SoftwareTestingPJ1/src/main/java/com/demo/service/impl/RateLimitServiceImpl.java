@@ -0,0 +1,102 @@
+package com.demo.service.impl;
+
+import com.demo.config.RateLimitProperties;
+import com.demo.entity.vo.RateLimitStats;
+import com.demo.service.RateLimitService;
+import com.demo.utils.TokenBucket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按接口配置的令牌桶限流。每个接口有一个全局令牌桶，并为每个用户（未登录时为每个IP）各建一个令牌桶，
+ * 两者都取到令牌才放行，被全局令牌桶拒绝时退还客户端的令牌，不计入该客户端的用量。
+ * 令牌桶无锁，已装满的令牌桶定时丢弃，保留的客户端数只与近期活跃的客户端有关。
+ */
+@Service
+public class RateLimitServiceImpl implements RateLimitService {
+    private final AntPathMatcher pathMatcher=new AntPathMatcher();
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    private List<Limit> limits=new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        List<Limit> limits=new ArrayList<>();
+        for(RateLimitProperties.Rule rule:properties.getRules()){
+            limits.add(new Limit(rule));
+        }
+        this.limits=limits;
+    }
+
+    @Override
+    public long tryAcquire(String path, String clientKey) {
+        Limit limit=find(path);
+        if(limit==null) {
+            return 0;
+        }
+        TokenBucket bucket=limit.clients.computeIfAbsent(clientKey,
+                key->new TokenBucket(limit.rule.getCapacity(),limit.rule.getPerSecond()));
+        if(!bucket.tryAcquire()) {
+            limit.rejectedByClient.increment();
+            return bucket.refillSeconds();
+        }
+        if(!limit.global.tryAcquire()) {
+            bucket.release();
+            limit.rejectedByGlobal.increment();
+            return limit.global.refillSeconds();
+        }
+        limit.allowed.increment();
+        return 0;
+    }
+
+    @Override
+    public List<RateLimitStats> findStats() {
+        List<RateLimitStats> stats=new ArrayList<>();
+        for(Limit limit:limits){
+            stats.add(new RateLimitStats(limit.rule.getPath(),limit.allowed.sum(),limit.rejectedByClient.sum(),
+                    limit.rejectedByGlobal.sum(),limit.clients.size()));
+        }
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${demo.rate-limit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        for(Limit limit:limits){
+            limit.clients.values().removeIf(TokenBucket::isFull);
+        }
+    }
+
+    private Limit find(String path) {
+        for(Limit limit:limits){
+            if(pathMatcher.match(limit.rule.getPath(),path)) {
+                return limit;
+            }
+        }
+        return null;
+    }
+
+    private static class Limit {
+        private final RateLimitProperties.Rule rule;
+        private final TokenBucket global;
+        private final Map<String, TokenBucket> clients=new ConcurrentHashMap<>();
+        private final LongAdder allowed=new LongAdder();
+        private final LongAdder rejectedByClient=new LongAdder();
+        private final LongAdder rejectedByGlobal=new LongAdder();
+
+        Limit(RateLimitProperties.Rule rule) {
+            this.rule=rule;
+            this.global=new TokenBucket(rule.getGlobalCapacity(),rule.getGlobalPerSecond());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.demo.service.impl;
+
+import com.demo.entity.vo.SessionPrincipal;
+import com.demo.service.SessionStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * 无状态会话：令牌为"内容.签名"，内容是用户身份和过期时间，签名是用demo.session.signing-key计算的HMAC-SHA256。
+ * 各节点配置相同的密钥即可各自校验，不查询任何存储。
+ * 令牌在过期前无法在服务端作废，退出登录只清除浏览器的Cookie，ttl-seconds应设置得较短。
+ */
+@Service
+@ConditionalOnProperty(name="demo.session.store",havingValue="signed")
+public class SignedTokenSessionStore implements SessionStore {
+    private static final String ALGORITHM="HmacSHA256";
+    private static final String VERSION="1";
+    private static final String SEPARATOR=":";
+
+    @Value("${demo.session.signing-key:}")
+    private String signingKey;
+
+    @Value("${demo.session.ttl-seconds:43200}")
+    private long ttlSeconds;
+
+    private SecretKeySpec key;
+
+    /**
+     * Mac不是线程安全的，每个线程一个
+     */
+    private final ThreadLocal<Mac> macs=ThreadLocal.withInitial(this::newMac);
+
+    @PostConstruct
+    public void init() {
+        if(signingKey==null||signingKey.getBytes(StandardCharsets.UTF_8).length<32) {
+            throw new IllegalStateException("demo.session.signing-key至少需要32字节");
+        }
+        key=new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8),ALGORITHM);
+    }
+
+    @Override
+    public String create(SessionPrincipal principal) {
+        long expiresAt=System.currentTimeMillis()/1000+ttlSeconds;
+        String payload=String.join(SEPARATOR,VERSION,String.valueOf(expiresAt),String.valueOf(principal.getId()),
+                String.valueOf(principal.getIsadmin()),encode(principal.getUserID()),encode(principal.getUserName()),
+                encode(principal.getPicture()));
+        String content=Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return content+"."+sign(content);
+    }
+
+    @Override
+    public SessionPrincipal find(String token) {
+        int dot=token.indexOf('.');
+        if(dot<=0) {
+            return null;
+        }
+        String content=token.substring(0,dot);
+        byte[] expected=sign(content).getBytes(StandardCharsets.US_ASCII);
+        if(!MessageDigest.isEqual(expected,token.substring(dot+1).getBytes(StandardCharsets.US_ASCII))) {
+            return null;
+        }
+        try {
+            String[] fields=new String(Base64.getUrlDecoder().decode(content),StandardCharsets.UTF_8).split(SEPARATOR,-1);
+            if(fields.length!=7||!VERSION.equals(fields[0])) {
+                return null;
+            }
+            if(Long.parseLong(fields[1])<=System.currentTimeMillis()/1000) {
+                return null;
+            }
+            return new SessionPrincipal(Integer.parseInt(fields[2]),decode(fields[4]),decode(fields[5]),
+                    decode(fields[6]),Integer.parseInt(fields[3]));
+        } catch (IllegalArgumentException e) {
+            // 签名正确但内容无法解析，只可能是密钥泄露或版本不一致，按未登录处理
+            return null;
+        }
+    }
+
+    /**
+     * 令牌不在服务端保存，无需删除
+     */
+    @Override
+    public void remove(String token) {
+    }
+
+    private String sign(String content) {
+        byte[] signature=macs.get().doFinal(content.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac=Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("无法初始化"+ALGORITHM,e);
+        }
+    }
+
+    /**
+     * null编码为空字符串，其余加"_"前缀后URL编码，编码结果不含分隔符
+     */
+    private static String encode(String value) {
+        if(value==null) {
+            return "";
+        }
+        try {
+            return "_"+URLEncoder.encode(value,StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String decode(String value) {
+        if(value.isEmpty()) {
+            return null;
+        }
+        try {
+            return URLDecoder.decode(value.substring(1),StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,17 +2,57 @@ package com.demo.service.impl;
 
 import com.demo.dao.UserDao;
 import com.demo.entity.User;
+import com.demo.entity.vo.CursorPage;
+import com.demo.entity.vo.UserProfile;
 import com.demo.service.UserService;
+import com.demo.utils.CursorUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 留言列表等页面只需要用户名和头像，这部分展示信息放在本机缓存中：最多capacity个用户，
+ * 超过expire-seconds后重新读库，本机的新增、修改、删除用户会立即使对应条目失效。
+ * 登录、改密码等需要完整用户信息的查询仍然直接读库。
+ */
 @Service
 public class UserServiceImpl implements UserService {
     @Autowired
     private UserDao userDao;
 
+    @Value("${demo.user.profile-cache.capacity:10000}")
+    private int capacity;
+
+    @Value("${demo.user.profile-cache.expire-seconds:300}")
+    private long expireSeconds;
+
+    /**
+     * 主键到userID，管理员修改userID或按主键删除时据此找到旧条目
+     */
+    private final Map<Integer, String> userIDsById=new HashMap<>();
+
+    private final Map<String, Cached> profiles=new LinkedHashMap<String, Cached>(16,0.75f,true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+            if(size()>capacity) {
+                userIDsById.remove(eldest.getValue().profile.getId());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * 每次失效加一；读库前记下，写回缓存时不一致说明期间用户被修改过，读到的结果不再缓存
+     */
+    private long generation;
+
     @Override
     public User findByUserID(String userID) {
         return userDao.findByUserID(userID);
@@ -23,11 +63,58 @@ public class UserServiceImpl implements UserService {
         return userDao.findById(id);
     }
 
+    @Override
+    public UserProfile findProfile(String userID) {
+        return findProfiles(Collections.singleton(userID)).get(userID);
+    }
+
+    @Override
+    public Map<String, UserProfile> findProfiles(Collection<String> userIDs) {
+        Map<String, UserProfile> result=new HashMap<>();
+        Set<String> missing=new HashSet<>();
+        long loadGeneration;
+        synchronized (this) {
+            long now=System.currentTimeMillis();
+            for(String userID:userIDs){
+                Cached cached=profiles.get(userID);
+                if(cached!=null&&cached.expireAt>now) {
+                    result.put(userID,copy(cached.profile));
+                } else {
+                    missing.add(userID);
+                }
+            }
+            loadGeneration=generation;
+        }
+        if(!missing.isEmpty()) {
+            List<User> users=userDao.findByUserIDIn(missing);
+            synchronized (this) {
+                long expireAt=System.currentTimeMillis()+TimeUnit.SECONDS.toMillis(expireSeconds);
+                for(User user:users){
+                    UserProfile profile=new UserProfile(user.getId(),user.getUserID(),user.getUserName(),user.getPicture());
+                    if(loadGeneration==generation) {
+                        profiles.put(profile.getUserID(),new Cached(profile,expireAt));
+                        userIDsById.put(profile.getId(),profile.getUserID());
+                    }
+                    result.put(profile.getUserID(),copy(profile));
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public Page<User> findByUserID(Pageable pageable) {
         return userDao.findAllByIsadmin(0,pageable);
     }
 
+    @Override
+    public CursorPage<User> findByUserID(String cursor, int size) {
+        CursorUtil.Cursor after=CursorUtil.decode(cursor);
+        List<User> users=userDao.findByIsadminAndIdGreaterThanOrderByIdAsc(0,after==null ? 0 : after.getId(),
+                PageRequest.of(0,size+1));
+        return CursorUtil.page(users,size,user->CursorUtil.encode(null,user.getId()));
+    }
+
     @Override
     public User checkLogin(String userID, String password) {
         return userDao.findByUserIDAndPassword(userID,password);
@@ -35,13 +122,21 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public int create(User user) {
-        userDao.save(user);
+        try {
+            userDao.save(user);
+        } finally {
+            invalidate(null,user.getUserID());
+        }
         return userDao.findAll().size();
     }
 
     @Override
     public void delByID(int id) {
-        userDao.deleteById(id);
+        try {
+            userDao.deleteById(id);
+        } finally {
+            invalidate(id,null);
+        }
     }
 
 
@@ -50,11 +145,45 @@ public class UserServiceImpl implements UserService {
         if (user == null) {
             throw new NullPointerException("User cannot be null");
         }
-        userDao.save(user);
+        try {
+            userDao.save(user);
+        } finally {
+            invalidate(user.getId(),user.getUserID());
+        }
     }
 
     @Override
     public int countUserID(String userID) {
         return userDao.countByUserID(userID);
     }
+
+    private synchronized void invalidate(Integer id, String userID) {
+        generation++;
+        if(id!=null) {
+            String cachedUserID=userIDsById.remove(id);
+            if(cachedUserID!=null) {
+                profiles.remove(cachedUserID);
+            }
+        }
+        if(userID!=null) {
+            Cached old=profiles.remove(userID);
+            if(old!=null) {
+                userIDsById.remove(old.profile.getId());
+            }
+        }
+    }
+
+    private static UserProfile copy(UserProfile profile) {
+        return new UserProfile(profile.getId(),profile.getUserID(),profile.getUserName(),profile.getPicture());
+    }
+
+    private static class Cached {
+        private final UserProfile profile;
+        private final long expireAt;
+
+        Cached(UserProfile profile, long expireAt) {
+            this.profile=profile;
+            this.expireAt=expireAt;
+        }
+    }
 }
@@ -0,0 +1,93 @@
+package com.demo.service.impl;
+
+import com.demo.dao.VenueUsageDao;
+import com.demo.entity.VenueUsage;
+import com.demo.entity.vo.VenueDailyUsage;
+import com.demo.entity.vo.VenueHeatmap;
+import com.demo.service.AvailabilityService;
+import com.demo.service.OrderService;
+import com.demo.service.VenueReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 场馆营收和占用报表，只读取venue_usage汇总表，查询代价只与日期范围有关，与订单总数无关。
+ * 汇总表由OrderServiceImpl在订单状态变更时增量维护，每天定时按订单表核对一次。
+ */
+@Service
+public class VenueReportServiceImpl implements VenueReportService {
+    @Autowired
+    private VenueUsageDao venueUsageDao;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Value("${demo.report.reconcile.enabled:true}")
+    private boolean reconcileEnabled;
+
+    @Value("${demo.report.reconcile.past-days:7}")
+    private int pastDays;
+
+    @Value("${demo.report.reconcile.future-days:60}")
+    private int futureDays;
+
+    @Scheduled(cron = "${demo.report.reconcile.cron:0 0 4 * * ?}")
+    public void scheduledReconcile() {
+        if(reconcileEnabled) {
+            LocalDate today=LocalDate.now();
+            reconcile(today.minusDays(pastDays),today.plusDays(futureDays));
+        }
+    }
+
+    @Override
+    public List<VenueDailyUsage> findDailyUsage(int venueID, LocalDate from, LocalDate to) {
+        int days=days(from,to);
+        List<VenueDailyUsage> result=new ArrayList<>(days);
+        for(int i=0;i<days;i++){
+            result.add(new VenueDailyUsage(from.plusDays(i),0,0,0));
+        }
+        for(VenueUsage usage:venueUsageDao.findByVenueIDAndUsageDateBetween(venueID,from,to)){
+            VenueDailyUsage daily=result.get((int) ChronoUnit.DAYS.between(from,usage.getUsageDate()));
+            daily.setBookedHours(daily.getBookedHours()+usage.getBookedHours());
+            daily.setOrders(daily.getOrders()+usage.getOrders());
+            daily.setRevenue(daily.getRevenue()+usage.getRevenue());
+        }
+        return result;
+    }
+
+    @Override
+    public VenueHeatmap findHeatmap(int venueID, LocalDate from, LocalDate to) {
+        int[][] bookedHours=new int[days(from,to)][AvailabilityService.SLOTS_PER_DAY];
+        for(VenueUsage usage:venueUsageDao.findByVenueIDAndUsageDateBetween(venueID,from,to)){
+            bookedHours[(int) ChronoUnit.DAYS.between(from,usage.getUsageDate())][usage.getUsageHour()]=usage.getBookedHours();
+        }
+        return new VenueHeatmap(venueID,from,to,bookedHours);
+    }
+
+    @Override
+    public int reconcile(LocalDate from, LocalDate to) {
+        int days=days(from,to);
+        for(int i=0;i<days;i++){
+            orderService.reconcileUsage(from.plusDays(i));
+        }
+        return days;
+    }
+
+    private static int days(LocalDate from, LocalDate to) {
+        long days=ChronoUnit.DAYS.between(from,to)+1;
+        if(days<=0) {
+            throw new IllegalArgumentException("结束日期不能早于开始日期");
+        }
+        if(days>MAX_DAYS) {
+            throw new IllegalArgumentException("查询范围不能超过"+MAX_DAYS+"天");
+        }
+        return (int) days;
+    }
+}
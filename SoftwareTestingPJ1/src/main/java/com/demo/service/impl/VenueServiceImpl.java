@@ -2,27 +2,116 @@ package com.demo.service.impl;
 
 import com.demo.dao.VenueDao;
 import com.demo.entity.Venue;
+import com.demo.entity.vo.VenueCacheStats;
+import com.demo.event.HomepageChangedEvent;
 import com.demo.service.VenueService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import javax.persistence.EntityNotFoundException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * 场馆很少变动，按ID和名称查询时先查本机缓存。缓存最多保存capacity个场馆，
+ * 超过expire-seconds后重新读库，本机的新增、修改、删除会立即使对应条目失效。
+ * 缓存里存的是副本，调用方修改返回的对象不会影响缓存。
+ */
 @Service
 public class VenueServiceImpl implements VenueService {
     @Autowired
     private VenueDao venueDao;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${demo.venue.cache.capacity:1000}")
+    private int capacity;
+
+    @Value("${demo.venue.cache.expire-seconds:600}")
+    private long expireSeconds;
+
+    private final Map<String, Integer> idsByName=new HashMap<>();
+
+    private final Map<Integer, Cached> venues=new LinkedHashMap<Integer, Cached>(16,0.75f,true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Cached> eldest) {
+            if(size()>capacity) {
+                idsByName.remove(eldest.getValue().venue.getVenueName());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * 每次失效加一；读库前记下，写回缓存时不一致说明期间场馆被修改过，读到的结果不再缓存
+     */
+    private long generation;
+    private long hits;
+    private long misses;
+    private long invalidations;
 
     @Override
     public Venue findByVenueID(int id) {
-        return venueDao.getOne(id);
+        long loadGeneration;
+        synchronized (this) {
+            Venue venue=cached(id);
+            if(venue!=null) {
+                return venue;
+            }
+            loadGeneration=generation;
+        }
+        Venue venue=venueDao.findByVenueID(id);
+        if(venue==null) {
+            throw new EntityNotFoundException("场馆不存在");
+        }
+        return put(venue,loadGeneration);
     }
 
     @Override
     public Venue findByVenueName(String venueName) {
-        return venueDao.findByVenueName(venueName);
+        long loadGeneration;
+        synchronized (this) {
+            Integer id=idsByName.get(venueName);
+            Venue venue=id==null ? null : cached(id);
+            if(venue!=null) {
+                return venue;
+            }
+            if(id==null) {
+                misses++;
+            }
+            loadGeneration=generation;
+        }
+        Venue venue=venueDao.findByVenueName(venueName);
+        return venue==null ? null : put(venue,loadGeneration);
+    }
+
+    @Override
+    public Map<Integer, Venue> findByVenueIDs(Collection<Integer> ids) {
+        Map<Integer, Venue> result=new HashMap<>();
+        Set<Integer> missing=new HashSet<>();
+        long loadGeneration;
+        synchronized (this) {
+            for(Integer id:ids){
+                Venue venue=cached(id);
+                if(venue!=null) {
+                    result.put(id,venue);
+                } else {
+                    missing.add(id);
+                }
+            }
+            loadGeneration=generation;
+        }
+        if(!missing.isEmpty()) {
+            for(Venue venue:venueDao.findAllById(missing)){
+                result.put(venue.getVenueID(),put(venue,loadGeneration));
+            }
+        }
+        return result;
     }
 
     @Override
@@ -37,21 +126,102 @@ public class VenueServiceImpl implements VenueService {
 
     @Override
     public int create(Venue venue) {
-        return venueDao.save(venue).getVenueID();
+        try {
+            return venueDao.save(venue).getVenueID();
+        } finally {
+            invalidate(null,venue.getVenueName());
+            eventPublisher.publishEvent(new HomepageChangedEvent("venue"));
+        }
     }
 
     @Override
     public void update(Venue venue) {
-        venueDao.save(venue);
+        try {
+            venueDao.save(venue);
+        } finally {
+            invalidate(venue.getVenueID(),venue.getVenueName());
+            eventPublisher.publishEvent(new HomepageChangedEvent("venue"));
+        }
     }
 
     @Override
     public void delById(int id) {
-        venueDao.deleteById(id);
+        try {
+            venueDao.deleteById(id);
+        } finally {
+            invalidate(id,null);
+            eventPublisher.publishEvent(new HomepageChangedEvent("venue"));
+        }
     }
 
     @Override
     public int countVenueName(String venueName) {
         return venueDao.countByVenueName(venueName);
     }
+
+    @Override
+    public synchronized VenueCacheStats findCacheStats() {
+        return new VenueCacheStats(venues.size(),hits,misses,invalidations);
+    }
+
+    /**
+     * 返回未过期的缓存副本并计数，调用方需持有锁
+     */
+    private Venue cached(int id) {
+        Cached cached=venues.get(id);
+        if(cached!=null&&cached.expireAt>System.currentTimeMillis()) {
+            hits++;
+            return copy(cached.venue);
+        }
+        if(cached!=null) {
+            venues.remove(id);
+            idsByName.remove(cached.venue.getVenueName());
+        }
+        misses++;
+        return null;
+    }
+
+    private synchronized Venue put(Venue venue, long loadGeneration) {
+        Venue copy=copy(venue);
+        if(loadGeneration==generation) {
+            Cached old=venues.put(copy.getVenueID(),new Cached(copy,System.currentTimeMillis()+TimeUnit.SECONDS.toMillis(expireSeconds)));
+            if(old!=null) {
+                idsByName.remove(old.venue.getVenueName());
+            }
+            idsByName.put(copy.getVenueName(),copy.getVenueID());
+        }
+        return copy(copy);
+    }
+
+    private synchronized void invalidate(Integer id, String venueName) {
+        generation++;
+        invalidations++;
+        if(id!=null) {
+            Cached old=venues.remove(id);
+            if(old!=null) {
+                idsByName.remove(old.venue.getVenueName());
+            }
+        }
+        if(venueName!=null) {
+            Integer cachedID=idsByName.remove(venueName);
+            if(cachedID!=null) {
+                venues.remove(cachedID);
+            }
+        }
+    }
+
+    private static Venue copy(Venue venue) {
+        return new Venue(venue.getVenueID(),venue.getVenueName(),venue.getDescription(),venue.getPrice(),
+                venue.getPicture(),venue.getAddress(),venue.getOpen_time(),venue.getClose_time());
+    }
+
+    private static class Cached {
+        private final Venue venue;
+        private final long expireAt;
+
+        Cached(Venue venue, long expireAt) {
+            this.venue=venue;
+            this.expireAt=expireAt;
+        }
+    }
 }
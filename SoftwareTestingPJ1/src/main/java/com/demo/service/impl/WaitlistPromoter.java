@@ -0,0 +1,64 @@
+package com.demo.service.impl;
+
+import com.demo.dao.WaitlistDao;
+import com.demo.entity.OrderSlot;
+import com.demo.entity.Waitlist;
+import com.demo.event.SlotsReleasedEvent;
+import com.demo.exception.OrderConflictException;
+import com.demo.service.WaitlistService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 订单事务提交、时段确实释放后，按登记顺序把与释放时段重叠的候补转为订单。
+ * 每个候补在WaitlistService.promote的独立事务中转换，所需时段仍有被占用的候补跳过，继续尝试下一个。
+ */
+@Component
+public class WaitlistPromoter {
+    private static final Logger log=LoggerFactory.getLogger(WaitlistPromoter.class);
+
+    @Autowired
+    private WaitlistDao waitlistDao;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotsReleased(SlotsReleasedEvent event) {
+        // 按场馆合并释放的时段范围，每个场馆只查询一次候补
+        Map<Integer, LocalDateTime[]> ranges=new HashMap<>();
+        for(OrderSlot slot:event.getSlots()){
+            LocalDateTime[] range=ranges.computeIfAbsent(slot.getVenueID(),
+                    venueID->new LocalDateTime[]{slot.getSlotStart(),slot.getSlotStart().plusHours(1)});
+            if(slot.getSlotStart().isBefore(range[0])) {
+                range[0]=slot.getSlotStart();
+            }
+            if(slot.getSlotStart().plusHours(1).isAfter(range[1])) {
+                range[1]=slot.getSlotStart().plusHours(1);
+            }
+        }
+        LocalDateTime now=LocalDateTime.now();
+        for(Map.Entry<Integer, LocalDateTime[]> entry:ranges.entrySet()){
+            LocalDateTime[] range=entry.getValue();
+            for(Waitlist waitlist:waitlistDao.findOverlapping(entry.getKey(),WaitlistService.STATE_WAITING,range[0],range[1],now)){
+                try {
+                    int orderID=waitlistService.promote(waitlist.getWaitID());
+                    if(orderID>0) {
+                        log.info("waitlist {} promoted to order {}",waitlist.getWaitID(),orderID);
+                    }
+                } catch (OrderConflictException e) {
+                    // 所需时段仍有被占用的部分，留在候补中
+                } catch (RuntimeException e) {
+                    log.error("failed to promote waitlist {}",waitlist.getWaitID(),e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.demo.service.impl;
+
+import com.demo.dao.WaitlistDao;
+import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.entity.Waitlist;
+import com.demo.service.AvailabilityService;
+import com.demo.service.OrderService;
+import com.demo.service.VenueService;
+import com.demo.service.WaitlistService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+@Service
+public class WaitlistServiceImpl implements WaitlistService {
+    @Autowired
+    private WaitlistDao waitlistDao;
+
+    @Autowired
+    private VenueService venueService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Override
+    public Waitlist join(String userID, String venueName, LocalDateTime startTime, int hours) {
+        if(hours<=0||hours>OrderService.MAX_HOURS) {
+            throw new IllegalArgumentException("预订小时数无效");
+        }
+        if(!startTime.isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("只能候补尚未开始的时段");
+        }
+        Venue venue=venueService.findByVenueName(venueName);
+        if(venue==null) {
+            throw new RuntimeException("场馆不存在");
+        }
+        if(!anyBusy(venue.getVenueID(),startTime,hours)) {
+            throw new IllegalArgumentException("所选时间段可以直接预订");
+        }
+        Waitlist existing=waitlistDao.findByUserIDAndVenueIDAndStartTimeAndHoursAndState(userID,venue.getVenueID(),startTime,hours,STATE_WAITING);
+        if(existing!=null) {
+            return existing;
+        }
+        Waitlist waitlist=new Waitlist();
+        waitlist.setUserID(userID);
+        waitlist.setVenueID(venue.getVenueID());
+        waitlist.setStartTime(startTime);
+        waitlist.setHours(hours);
+        waitlist.setState(STATE_WAITING);
+        waitlist.setCreatedAt(LocalDateTime.now());
+        return waitlistDao.save(waitlist);
+    }
+
+    /**
+     * 按占用索引判断所选时段中是否有已被预订的小时，跨天时逐天检查
+     */
+    private boolean anyBusy(int venueID, LocalDateTime startTime, int hours) {
+        LocalDateTime hour=startTime;
+        for(int i=0;i<hours;i++,hour=hour.plusHours(1)){
+            int busy=availabilityService.findBusySlots(venueID,hour.toLocalDate());
+            if((busy&(1<<hour.getHour()))!=0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void cancel(int waitID, String userID) {
+        Waitlist waitlist=waitlistDao.findById(waitID).orElse(null);
+        if(waitlist==null||!waitlist.getUserID().equals(userID)) {
+            throw new RuntimeException("候补不存在");
+        }
+        if(waitlistDao.updateStateFrom(STATE_CANCELLED,0,waitID,STATE_WAITING)==0) {
+            throw new IllegalStateException("候补已转为订单或已取消");
+        }
+    }
+
+    @Override
+    public List<Waitlist> findByUser(String userID) {
+        return waitlistDao.findByUserIDOrderByCreatedAtDesc(userID);
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public int promote(int waitID) {
+        Waitlist waitlist=waitlistDao.findById(waitID).orElse(null);
+        // 先按候补中的状态条件更新，保证同一候补只转一次，并发取消时不再下单
+        if(waitlist==null||waitlistDao.updateStateFrom(STATE_PROMOTED,0,waitID,STATE_WAITING)==0) {
+            return 0;
+        }
+        Order order=new Order();
+        order.setUserID(waitlist.getUserID());
+        order.setVenueID(waitlist.getVenueID());
+        order.setStartTime(waitlist.getStartTime());
+        order.setHours(waitlist.getHours());
+        // 时段仍被占用时抛出OrderConflictException，整个事务回滚，候补保持候补中
+        orderService.submitAll(Collections.singletonList(order));
+        waitlistDao.updateStateFrom(STATE_PROMOTED,order.getOrderID(),waitID,STATE_PROMOTED);
+        return order.getOrderID();
+    }
+}
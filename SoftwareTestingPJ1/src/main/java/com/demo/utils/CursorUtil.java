@@ -0,0 +1,84 @@
+package com.demo.utils;
+
+import com.demo.entity.vo.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页工具。游标记录上一页最后一行的(时间, id)，
+ * 下一页用where (time, id) < (?, ?)定位，不再使用offset，翻到第几页代价都相同。
+ */
+public class CursorUtil {
+
+    private static final String SEPARATOR="|";
+
+    /**
+     * 生成游标
+     *
+     * @param time 排序时间，按id排序的列表传null
+     * @param id
+     * @return 对前端不透明的游标字符串
+     */
+    public static String encode(LocalDateTime time, int id) {
+        String raw=(time==null ? "" : time.toString())+SEPARATOR+id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标
+     *
+     * @param cursor
+     * @return 空字符串或null表示第一页，返回null
+     */
+    public static Cursor decode(String cursor) {
+        if(cursor==null||cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw=new String(Base64.getUrlDecoder().decode(cursor),StandardCharsets.UTF_8);
+            int index=raw.lastIndexOf(SEPARATOR);
+            String time=raw.substring(0,index);
+            return new Cursor(time.isEmpty() ? null : LocalDateTime.parse(time),Integer.parseInt(raw.substring(index+1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("分页游标无效",e);
+        }
+    }
+
+    /**
+     * 由多查询一行的结果生成一页，多出的一行说明还有下一页
+     *
+     * @param rows 最多size+1行
+     * @param size
+     * @param cursorOf 由一行生成游标
+     * @return
+     */
+    public static <T> CursorPage<T> page(List<T> rows, int size, Function<T, String> cursorOf) {
+        if(rows.size()<=size) {
+            return new CursorPage<>(rows,null);
+        }
+        List<T> content=rows.subList(0,size);
+        return new CursorPage<>(content,cursorOf.apply(content.get(size-1)));
+    }
+
+    public static class Cursor {
+        private final LocalDateTime time;
+        private final int id;
+
+        Cursor(LocalDateTime time, int id) {
+            this.time=time;
+            this.id=id;
+        }
+
+        public LocalDateTime getTime() {
+            return time;
+        }
+
+        public int getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.demo.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶，容量为capacity，每秒补充perSecond个令牌。
+ * 只保存“桶重新装满的时刻”一个值，取令牌时用CAS推进该时刻，等价于按时间补充令牌。
+ */
+public class TokenBucket {
+    private final long intervalNanos;
+
+    private final long burstNanos;
+
+    /**
+     * 桶重新装满的时刻（System.nanoTime）
+     */
+    private final AtomicLong fullAt;
+
+    public TokenBucket(int capacity, double perSecond) {
+        if(capacity<1||perSecond<=0) {
+            throw new IllegalArgumentException("令牌桶参数无效");
+        }
+        this.intervalNanos=Math.max(1,(long)(TimeUnit.SECONDS.toNanos(1)/perSecond));
+        this.burstNanos=intervalNanos*capacity;
+        this.fullAt=new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 取一个令牌
+     * @return 桶中没有令牌时返回false
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    boolean tryAcquire(long now) {
+        while(true){
+            long current=fullAt.get();
+            long next=Math.max(current-now,0)+intervalNanos;
+            if(next>burstNanos) {
+                return false;
+            }
+            if(fullAt.compareAndSet(current,now+next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 退还一个取出的令牌，桶已装满时不变
+     */
+    public void release() {
+        release(System.nanoTime());
+    }
+
+    void release(long now) {
+        while(true){
+            long current=fullAt.get();
+            if(current-now<=0) {
+                return;
+            }
+            if(fullAt.compareAndSet(current,Math.max(current-intervalNanos,now))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 桶已装满，丢弃后重新创建不影响限流
+     */
+    public boolean isFull() {
+        return fullAt.get()-System.nanoTime()<=0;
+    }
+
+    /**
+     * 补充一个令牌需要的秒数，向上取整
+     */
+    public long refillSeconds() {
+        return Math.max(1,(intervalNanos+TimeUnit.SECONDS.toNanos(1)-1)/TimeUnit.SECONDS.toNanos(1));
+    }
+}
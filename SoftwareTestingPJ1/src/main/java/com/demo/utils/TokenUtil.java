@@ -0,0 +1,23 @@
+package com.demo.utils;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * 会话令牌工具
+ */
+public class TokenUtil {
+
+    private static final SecureRandom RANDOM=new SecureRandom();
+
+    /**
+     * 生成32字节的随机令牌
+     *
+     * @return URL安全的Base64字符串
+     */
+    public static String randomToken() {
+        byte[] bytes=new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}